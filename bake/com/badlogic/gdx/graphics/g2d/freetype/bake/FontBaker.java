@@ -0,0 +1,216 @@
+/*******************************************************************************
+ * Copyright 2011 See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package com.badlogic.gdx.graphics.g2d.freetype.bake;
+
+import java.io.IOException;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.Pixmap.Format;
+import com.badlogic.gdx.graphics.PixmapIO;
+import com.badlogic.gdx.graphics.g2d.BitmapFont.BitmapFontData;
+import com.badlogic.gdx.graphics.g2d.BitmapFont.Glyph;
+import com.badlogic.gdx.graphics.g2d.PixmapPacker;
+import com.badlogic.gdx.graphics.g2d.PixmapPacker.Page;
+import com.badlogic.gdx.graphics.g2d.PixmapPacker.SkylineStrategy;
+import com.badlogic.gdx.graphics.g2d.freetype.FreeTypeFontGenerator;
+import com.badlogic.gdx.graphics.g2d.freetype.FreeTypeFontGenerator.FreeTypeFontParameter;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.DataOutput;
+import com.badlogic.gdx.utils.GdxNativesLoader;
+import com.badlogic.gdx.utils.Json;
+import com.badlogic.gdx.utils.JsonReader;
+import com.badlogic.gdx.utils.JsonValue;
+import com.badlogic.gdx.utils.StreamUtils;
+
+/** Generates fonts on the desktop with FreeType and writes their pages as PNG files and their glyphs and kerning as a table that
+ * PrebakedFontLoader reads in the browser. Run it with the <tt>bakeFonts</tt> Gradle task.
+ * <p>
+ * The configuration is a JSON array with one entry per font:
+ * <pre>
+ * [
+ *   { font: fonts/Roboto.ttf, name: ui-16, pageSize: 512, parameter: { size: 16, characters: "0123456789" } }
+ * ]
+ * </pre>
+ * <tt>font</tt> is relative to the configuration file, <tt>name</tt> defaults to the font name and size, and <tt>parameter</tt>
+ * holds the fields of a {@link FreeTypeFontParameter}. The font is written to <tt>name.ftb</tt> and its pages to
+ * <tt>name.png</tt>, or <tt>name_0.png</tt>, <tt>name_1.png</tt>... if it needs several. */
+public class FontBaker {
+	/** "GFTB", must match PrebakedFontLoader. */
+	static public final int MAGIC = 0x47465442;
+	static public final int VERSION = 1;
+
+	public static void main (String[] args) throws IOException {
+		if (args.length != 2) {
+			System.err.println("Usage: FontBaker <config.json> <output directory>");
+			System.exit(1);
+		}
+		GdxNativesLoader.load();
+
+		FileHandle config = new FileHandle(args[0]);
+		FileHandle outputDir = new FileHandle(args[1]);
+		outputDir.mkdirs();
+		Json json = new Json();
+		json.setIgnoreUnknownFields(true);
+		for (JsonValue entry = new JsonReader().parse(config).child; entry != null; entry = entry.next) {
+			FileHandle fontFile = config.parent().child(entry.getString("font"));
+			JsonValue parameterValue = entry.get("parameter");
+			FreeTypeFontParameter parameter = parameterValue != null ? json.readValue(FreeTypeFontParameter.class, parameterValue)
+				: new FreeTypeFontParameter();
+			// Tinted glyphs are rendered in white, the color is applied at draw time.
+			boolean tint = parameterValue != null && parameterValue.getBoolean("tint", false);
+			String name = entry.getString("name", fontFile.nameWithoutExtension() + "-" + parameter.size);
+			int pageSize = entry.getInt("pageSize", FreeTypeFontGenerator.getMaxTextureSize());
+			bake(fontFile, parameter, tint, pageSize, outputDir, name);
+			System.out.println("Baked " + name + " from " + fontFile.name());
+		}
+	}
+
+	static public void bake (FileHandle fontFile, FreeTypeFontParameter parameter, boolean tint, int pageSize,
+		FileHandle outputDir, String name) throws IOException {
+		Color color = tint ? Color.WHITE : parameter.color;
+		PixmapPacker packer = new PixmapPacker(pageSize, pageSize, Format.RGBA8888, 1, false, new SkylineStrategy());
+		packer.setTransparentColor(parameter.borderWidth > 0 ? parameter.borderColor : color);
+		packer.getTransparentColor().a = 0;
+
+		FreeTypeFontGenerator generator = new FreeTypeFontGenerator(fontFile);
+		Color requestedColor = parameter.color;
+		try {
+			BitmapFontData data;
+			// Only the glyphs are rendered in the tint color, the requested color is written to the table.
+			parameter.color = color;
+			parameter.packer = packer;
+			parameter.incremental = false;
+			try {
+				data = generator.generateData(parameter);
+			} finally {
+				parameter.color = requestedColor;
+			}
+
+			Array<Page> pages = packer.getPages();
+			String[] pageNames = new String[pages.size];
+			for (int i = 0; i < pages.size; i++) {
+				pageNames[i] = pages.size == 1 ? name + ".png" : name + "_" + i + ".png";
+				PixmapIO.writePNG(outputDir.child(pageNames[i]), pages.get(i).getPixmap());
+			}
+
+			DataOutput output = new DataOutput(outputDir.child(name + ".ftb").write(false));
+			try {
+				write(output, name, parameter, tint, data, pageNames);
+			} finally {
+				StreamUtils.closeQuietly(output);
+			}
+		} finally {
+			generator.dispose();
+			packer.dispose();
+		}
+	}
+
+	static private void write (DataOutput output, String name, FreeTypeFontParameter parameter, boolean tint,
+		BitmapFontData data, String[] pageNames) throws IOException {
+		output.writeInt(MAGIC);
+		output.writeInt(VERSION, true);
+		output.writeString(name);
+
+		output.writeInt(parameter.size, true);
+		output.writeBoolean(parameter.mono);
+		output.writeString(parameter.hinting.name());
+		output.writeInt(Color.rgba8888(parameter.color));
+		output.writeBoolean(tint);
+		output.writeFloat(parameter.gamma);
+		output.writeInt(parameter.renderCount, true);
+		output.writeFloat(parameter.borderWidth);
+		output.writeInt(Color.rgba8888(parameter.borderColor));
+		output.writeBoolean(parameter.borderStraight);
+		output.writeFloat(parameter.borderGamma);
+		output.writeInt(parameter.shadowOffsetX, false);
+		output.writeInt(parameter.shadowOffsetY, false);
+		output.writeInt(Color.rgba8888(parameter.shadowColor));
+		output.writeInt(parameter.spaceX, false);
+		output.writeInt(parameter.spaceY, false);
+		output.writeInt(parameter.padTop, true);
+		output.writeInt(parameter.padLeft, true);
+		output.writeInt(parameter.padBottom, true);
+		output.writeInt(parameter.padRight, true);
+		output.writeBoolean(parameter.kerning);
+		output.writeBoolean(parameter.flip);
+		output.writeBoolean(parameter.genMipMaps);
+		output.writeString(parameter.minFilter.name());
+		output.writeString(parameter.magFilter.name());
+
+		output.writeFloat(data.padTop);
+		output.writeFloat(data.padLeft);
+		output.writeFloat(data.padBottom);
+		output.writeFloat(data.padRight);
+		output.writeFloat(data.lineHeight);
+		output.writeFloat(data.capHeight);
+		output.writeFloat(data.ascent);
+		output.writeFloat(data.descent);
+		output.writeFloat(data.down);
+		output.writeFloat(data.spaceXadvance);
+		output.writeFloat(data.xHeight);
+
+		output.writeInt(pageNames.length, true);
+		for (String pageName : pageNames)
+			output.writeString(pageName);
+
+		output.writeInt(data.missingGlyph != null ? data.missingGlyph.id + 1 : 0, true);
+		Array<Glyph> glyphs = new Array();
+		for (Glyph[] page : data.glyphs) {
+			if (page == null) continue;
+			for (Glyph glyph : page)
+				if (glyph != null) glyphs.add(glyph);
+		}
+		output.writeInt(glyphs.size, true);
+		for (Glyph glyph : glyphs) {
+			output.writeInt(glyph.id, true);
+			output.writeInt(glyph.srcX, true);
+			output.writeInt(glyph.srcY, true);
+			output.writeInt(glyph.width, true);
+			output.writeInt(glyph.height, true);
+			output.writeInt(glyph.xoffset, false);
+			output.writeInt(glyph.yoffset, false);
+			output.writeInt(glyph.xadvance, false);
+			output.writeInt(glyph.page, true);
+			writeKerning(output, glyph);
+		}
+	}
+
+	/** Writes the number of kerning pairs the glyph is the first of, then the second character and kerning of each. */
+	static private void writeKerning (DataOutput output, Glyph glyph) throws IOException {
+		byte[][] kerning = glyph.kerning;
+		int count = 0;
+		if (kerning != null) {
+			for (byte[] page : kerning) {
+				if (page == null) continue;
+				for (byte value : page)
+					if (value != 0) count++;
+			}
+		}
+		output.writeInt(count, true);
+		if (count == 0) return;
+		for (int i = 0; i < kerning.length; i++) {
+			byte[] page = kerning[i];
+			if (page == null) continue;
+			for (int ii = 0; ii < page.length; ii++) {
+				if (page[ii] == 0) continue;
+				output.writeInt(i * page.length + ii, true);
+				output.writeInt(page[ii], false);
+			}
+		}
+	}
+}
@@ -0,0 +1,68 @@
+#!/bin/sh
+# Builds the FreeType modules the GWT module serves from src/com/badlogic/gdx/graphics/g2d/freetype/public:
+#   freetype.js                          JavaScript build, for browsers without WebAssembly
+#   freetype-wasm.js, freetype-wasm.wasm WebAssembly build, see FreetypeInjector.setWebAssembly()
+# for each profile given as argument, both by default:
+#   full  all of FreeType's default modules, built as freetype*
+#   slim  only TrueType/CFF (no WOFF) with the smooth and mono rasterizers, stroker and auto-hinter, built as freetype-slim*
+#         (see ftmodule-slim.h and ftoption-slim.h), see FreetypeInjector.setBuild()
+# Uses emcc if it is on the path, otherwise the emsdk Docker image, so every build uses the same FreeType and Emscripten.
+set -e
+
+# Update FreetypeInjector.MODULE_VERSION along with these, so stored compiled modules are replaced.
+FREETYPE_VERSION=2.10.4
+EMSDK_VERSION=2.0.34
+
+cd "$(dirname "$0")"
+if ! command -v emcc > /dev/null; then
+	exec docker run --rm -u "$(id -u):$(id -g)" -v "$(cd .. && pwd):/src" -w /src/emscripten \
+		"emscripten/emsdk:$EMSDK_VERSION" sh build.sh "$@"
+fi
+
+FREETYPE=build/freetype-$FREETYPE_VERSION
+if [ ! -d "$FREETYPE" ]; then
+	mkdir -p build
+	curl -fsSL "https://download.savannah.gnu.org/releases/freetype/freetype-$FREETYPE_VERSION.tar.gz" | tar xz -C build
+fi
+OUTPUT=../src/com/badlogic/gdx/graphics/g2d/freetype/public
+
+# The stroker and glyph APIs, used by every profile.
+BASE="base/ftsystem.c base/ftinit.c base/ftdebug.c base/ftbase.c base/ftbbox.c base/ftbitmap.c base/ftglyph.c base/ftstroke.c"
+
+# Memory grows on demand, which replaces the heap's ArrayBuffer. FreeType.java and freetype-worker.js fetch Module.HEAP*
+# again after calls that can allocate; buffers of Library.map() are tracked by identity, not by their (stale) view.
+# The worker environment is for freetype-worker.js, see FreeTypeWorker.
+FLAGS="-O3 -DFT2_BUILD_LIBRARY -I. -I$FREETYPE/include
+	-s EXPORTED_FUNCTIONS=[_malloc,_realloc,_free] -s EXPORTED_RUNTIME_METHODS=[writeArrayToMemory]
+	-s ALLOW_MEMORY_GROWTH=1 -s INITIAL_MEMORY=16777216 -s FILESYSTEM=0 -s ENVIRONMENT=web,worker"
+
+# build <name> <sources> <flags>
+build () {
+	files=glue.c
+	for source in $2; do files="$files $FREETYPE/src/$source"; done
+	# The memory initializer is embedded, so the JavaScript build is one file, see FreetypeInjector.injectJavaScript().
+	emcc $FLAGS $3 -s WASM=0 --memory-init-file 0 $files -o "$OUTPUT/$1.js"
+	emcc $FLAGS $3 -s WASM=1 $files -o "$OUTPUT/$1-wasm.js"
+}
+
+for profile in ${*:-full slim}; do
+	case $profile in
+	full)
+		# The modules of FreeType's default ftmodule.h.
+		build freetype "$BASE
+			autofit/autofit.c truetype/truetype.c type1/type1.c cff/cff.c cid/type1cid.c pfr/pfr.c type42/type42.c
+			winfonts/winfnt.c pcf/pcf.c bdf/bdf.c sfnt/sfnt.c pshinter/pshinter.c raster/raster.c smooth/smooth.c
+			psaux/psaux.c psnames/psnames.c gzip/ftgzip.c lzw/ftlzw.c" ""
+		;;
+	slim)
+		build freetype-slim "$BASE
+			autofit/autofit.c truetype/truetype.c cff/cff.c sfnt/sfnt.c pshinter/pshinter.c raster/raster.c smooth/smooth.c
+			psaux/psaux.c psnames/psnames.c" \
+			"-DFT_CONFIG_MODULES_H=<ftmodule-slim.h> -DFT_CONFIG_OPTIONS_H=<ftoption-slim.h>"
+		;;
+	*)
+		echo "Unknown profile: $profile" >&2
+		exit 1
+		;;
+	esac
+done
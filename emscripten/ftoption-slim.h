@@ -0,0 +1,11 @@
+/* Options of the slim build: FreeType's defaults without compressed font streams. Only the left out bitmap font drivers read
+ * gzip or LZW streams, but WOFF fonts need zlib too, so the slim build can't load WOFF files. Selected with
+ * -DFT_CONFIG_OPTIONS_H, see build.sh. */
+
+#include <freetype/config/ftoption.h>
+
+#undef FT_CONFIG_OPTION_USE_ZLIB
+#undef FT_CONFIG_OPTION_USE_LZW
+#undef FT_CONFIG_OPTION_USE_BZIP2
+#undef FT_CONFIG_OPTION_ERROR_STRINGS
+#undef TT_CONFIG_OPTION_BDF
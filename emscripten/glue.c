@@ -0,0 +1,520 @@
+/*******************************************************************************
+ * Copyright 2011 See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+/* The functions FreeType.java calls as Module._c_*, the counterparts of the JNI methods of gdx-freetype. Pointers are passed
+ * to and from JavaScript as heap addresses. */
+
+#include <stdlib.h>
+#include <emscripten.h>
+#include <ft2build.h>
+#include FT_FREETYPE_H
+#include FT_GLYPH_H
+#include FT_SIZES_H
+#include FT_STROKER_H
+#include FT_TRUETYPE_TABLES_H
+#include FT_TRUETYPE_TAGS_H
+
+#define EXPORT EMSCRIPTEN_KEEPALIVE
+
+static FT_Error lastError = 0;
+
+EXPORT int c_FreeType_getLastErrorCode () {
+	return lastError;
+}
+
+EXPORT FT_Library c_FreeType_initFreeTypeJni () {
+	FT_Library library = 0;
+	FT_Error error = FT_Init_FreeType(&library);
+	if (error) {
+		lastError = error;
+		return 0;
+	}
+	return library;
+}
+
+/* Library */
+
+EXPORT void c_Library_doneFreeType (FT_Library library) {
+	FT_Done_FreeType(library);
+}
+
+EXPORT FT_Face c_Library_newMemoryFace (FT_Library library, const FT_Byte* data, int dataSize, int faceIndex) {
+	FT_Face face = 0;
+	FT_Error error = FT_New_Memory_Face(library, data, dataSize, faceIndex, &face);
+	if (error) {
+		lastError = error;
+		return 0;
+	}
+	return face;
+}
+
+EXPORT FT_Stroker c_Library_strokerNew (FT_Library library) {
+	FT_Stroker stroker = 0;
+	FT_Error error = FT_Stroker_New(library, &stroker);
+	if (error) {
+		lastError = error;
+		return 0;
+	}
+	return stroker;
+}
+
+/* Face */
+
+EXPORT void c_Face_doneFace (FT_Face face) {
+	FT_Done_Face(face);
+}
+
+EXPORT int c_Face_getFaceFlags (FT_Face face) {
+	return face->face_flags;
+}
+
+EXPORT int c_Face_getStyleFlags (FT_Face face) {
+	return face->style_flags;
+}
+
+EXPORT int c_Face_getNumGlyphs (FT_Face face) {
+	return face->num_glyphs;
+}
+
+EXPORT int c_Face_getAscender (FT_Face face) {
+	return face->ascender;
+}
+
+EXPORT int c_Face_getDescender (FT_Face face) {
+	return face->descender;
+}
+
+EXPORT int c_Face_getHeight (FT_Face face) {
+	return face->height;
+}
+
+EXPORT int c_Face_getMaxAdvanceWidth (FT_Face face) {
+	return face->max_advance_width;
+}
+
+EXPORT int c_Face_getMaxAdvanceHeight (FT_Face face) {
+	return face->max_advance_height;
+}
+
+EXPORT int c_Face_getUnderlinePosition (FT_Face face) {
+	return face->underline_position;
+}
+
+EXPORT int c_Face_getUnderlineThickness (FT_Face face) {
+	return face->underline_thickness;
+}
+
+EXPORT int c_Face_selectSize (FT_Face face, int strikeIndex) {
+	return !FT_Select_Size(face, strikeIndex);
+}
+
+EXPORT int c_Face_setCharSize (FT_Face face, int charWidth, int charHeight, int horzResolution, int vertResolution) {
+	return !FT_Set_Char_Size(face, charWidth, charHeight, horzResolution, vertResolution);
+}
+
+EXPORT int c_Face_setPixelSizes (FT_Face face, int pixelWidth, int pixelHeight) {
+	return !FT_Set_Pixel_Sizes(face, pixelWidth, pixelHeight);
+}
+
+EXPORT int c_Face_loadGlyph (FT_Face face, int glyphIndex, int loadFlags) {
+	return !FT_Load_Glyph(face, glyphIndex, loadFlags);
+}
+
+EXPORT int c_Face_loadChar (FT_Face face, int charCode, int loadFlags) {
+	return !FT_Load_Char(face, charCode, loadFlags);
+}
+
+EXPORT FT_GlyphSlot c_Face_getGlyph (FT_Face face) {
+	return face->glyph;
+}
+
+EXPORT FT_Size c_Face_getSize (FT_Face face) {
+	return face->size;
+}
+
+EXPORT int c_Face_hasKerning (FT_Face face) {
+	return FT_HAS_KERNING(face);
+}
+
+EXPORT int c_Face_getKerning (FT_Face face, int leftGlyph, int rightGlyph, int kernMode) {
+	FT_Vector kerning;
+	FT_Error error = FT_Get_Kerning(face, leftGlyph, rightGlyph, kernMode, &kerning);
+	if (error) return 0;
+	return kerning.x;
+}
+
+#define READ_USHORT(p) ((FT_UInt)((p)[0] << 8 | (p)[1]))
+
+/* Makes room for count more ints in the array, freeing it if that fails. */
+static int* reserve (int* array, int* capacity, int size, int count) {
+	if (size + count <= *capacity) return array;
+	while (size + count > *capacity)
+		*capacity *= 2;
+	int* grown = realloc(array, *capacity * sizeof(int));
+	if (!grown) free(array);
+	return grown;
+}
+
+static int compareKerningCandidates (const void* a, const void* b) {
+	const int* pairA = a;
+	const int* pairB = b;
+	if (pairA[0] != pairB[0]) return pairA[0] - pairB[0];
+	return pairA[1] - pairB[1];
+}
+
+/* Finds the positions in glyphs of the pairs listed in the face's TrueType kern table, as FreeType's ttkern.c reads it:
+ * horizontal format 0 subtables. Stores the number of pairs in count and returns them sorted, without duplicates, or 0 if out of
+ * memory. */
+static int* getKerningCandidates (FT_Face face, FT_Byte* table, FT_ULong length, const int* glyphs, int* count) {
+	int glyphCount = *count, size = 0, capacity = 256;
+	int* candidates = malloc(capacity * sizeof(int));
+	// The positions of each glyph, chained from the first one.
+	int* first = malloc((face->num_glyphs > 0 ? face->num_glyphs : 1) * sizeof(int));
+	int* next = malloc((glyphCount > 0 ? glyphCount : 1) * sizeof(int));
+	if (!candidates || !first || !next) {
+		free(candidates);
+		candidates = 0;
+		goto done;
+	}
+	for (int i = 0; i < face->num_glyphs; i++)
+		first[i] = -1;
+	for (int i = glyphCount - 1; i >= 0; i--) {
+		int glyph = glyphs[i];
+		if (glyph <= 0 || glyph >= face->num_glyphs) continue;
+		next[i] = first[glyph];
+		first[glyph] = i;
+	}
+
+	FT_Byte* limit = table + length;
+	if (length >= 4 && READ_USHORT(table) == 0) {
+		FT_UInt tables = READ_USHORT(table + 2);
+		FT_Byte* p = table + 4;
+		for (FT_UInt t = 0; t < tables && p + 14 <= limit; t++) {
+			FT_Byte* end = p + READ_USHORT(p + 2);
+			if (end > limit || end <= p) end = limit; // Like ttkern.c, for subtables longer than the 16 bit length.
+			FT_UInt coverage = READ_USHORT(p + 4);
+			if ((coverage & ~8) == 0x0001) {
+				FT_UInt pairs = READ_USHORT(p + 6);
+				FT_Byte* pair = p + 14;
+				if (pairs > (end - pair) / 6) pairs = (end - pair) / 6;
+				for (FT_UInt ii = 0; ii < pairs; ii++, pair += 6) {
+					FT_UInt left = READ_USHORT(pair), right = READ_USHORT(pair + 2);
+					if (left >= (FT_UInt)face->num_glyphs || right >= (FT_UInt)face->num_glyphs) continue;
+					for (int i = first[left]; i >= 0; i = next[i]) {
+						for (int j = first[right]; j >= 0; j = next[j]) {
+							candidates = reserve(candidates, &capacity, size, 2);
+							if (!candidates) goto done;
+							candidates[size++] = i;
+							candidates[size++] = j;
+						}
+					}
+				}
+			}
+			p = end;
+		}
+	}
+
+	qsort(candidates, size / 2, 2 * sizeof(int), compareKerningCandidates);
+	int unique = 0;
+	for (int i = 0; i < size; i += 2) {
+		if (unique > 0 && candidates[unique - 2] == candidates[i] && candidates[unique - 1] == candidates[i + 1]) continue;
+		candidates[unique++] = candidates[i];
+		candidates[unique++] = candidates[i + 1];
+	}
+	*count = unique / 2;
+
+done:
+	free(first);
+	free(next);
+	return candidates;
+}
+
+/* Returns the kerning of the pairs of the given glyphs that have kerning, as the number of pairs followed by a triple per pair:
+ * the positions of the left and right glyph in glyphs and the kerning as returned by c_Face_getKerning. Glyph index 0 is
+ * ignored. For TrueType faces only the pairs of the kern table, the only ones FT_Get_Kerning knows, are looked up, other faces
+ * look up every pair. Returns 0 if out of memory, the caller frees the result. */
+EXPORT int* c_Face_getKerningPairs (FT_Face face, const int* glyphs, int glyphCount, int kernMode) {
+	int capacity = 64;
+	int* pairs = malloc(capacity * sizeof(int));
+	if (!pairs) return 0;
+	pairs[0] = 0;
+	if (!FT_HAS_KERNING(face)) return pairs;
+
+	FT_Vector kerning;
+	FT_ULong length = 0;
+	if (FT_IS_SFNT(face) && !FT_Load_Sfnt_Table(face, TTAG_kern, 0, NULL, &length)) {
+		FT_Byte* table = malloc(length);
+		if (!table || FT_Load_Sfnt_Table(face, TTAG_kern, 0, table, &length)) {
+			free(table);
+			free(pairs);
+			return 0;
+		}
+		int count = glyphCount;
+		int* candidates = getKerningCandidates(face, table, length, glyphs, &count);
+		free(table);
+		if (!candidates) {
+			free(pairs);
+			return 0;
+		}
+		for (int i = 0; i < count; i++) {
+			int left = candidates[i * 2], right = candidates[i * 2 + 1];
+			if (FT_Get_Kerning(face, glyphs[left], glyphs[right], kernMode, &kerning) || kerning.x == 0) continue;
+			pairs = reserve(pairs, &capacity, 1 + pairs[0] * 3, 3);
+			if (!pairs) break;
+			int* triple = pairs + 1 + pairs[0]++ * 3;
+			triple[0] = left;
+			triple[1] = right;
+			triple[2] = kerning.x;
+		}
+		free(candidates);
+		return pairs;
+	}
+
+	for (int left = 0; left < glyphCount; left++) {
+		if (glyphs[left] == 0) continue;
+		for (int right = 0; right < glyphCount; right++) {
+			if (glyphs[right] == 0) continue;
+			if (FT_Get_Kerning(face, glyphs[left], glyphs[right], kernMode, &kerning) || kerning.x == 0) continue;
+			pairs = reserve(pairs, &capacity, 1 + pairs[0] * 3, 3);
+			if (!pairs) return 0;
+			int* triple = pairs + 1 + pairs[0]++ * 3;
+			triple[0] = left;
+			triple[1] = right;
+			triple[2] = kerning.x;
+		}
+	}
+	return pairs;
+}
+
+EXPORT int c_Face_getCharIndex (FT_Face face, int charCode) {
+	return FT_Get_Char_Index(face, charCode);
+}
+
+/* Size */
+
+EXPORT FT_Size c_Face_newSize (FT_Face face) {
+	FT_Size size = 0;
+	FT_Error error = FT_New_Size(face, &size);
+	if (error) {
+		lastError = error;
+		return 0;
+	}
+	return size;
+}
+
+EXPORT int c_Size_activate (FT_Size size) {
+	return !FT_Activate_Size(size);
+}
+
+EXPORT void c_Size_done (FT_Size size) {
+	FT_Done_Size(size);
+}
+
+EXPORT FT_Size_Metrics* c_Size_getMetrics (FT_Size size) {
+	return &size->metrics;
+}
+
+EXPORT int c_SizeMetrics_getXppem (FT_Size_Metrics* metrics) {
+	return metrics->x_ppem;
+}
+
+EXPORT int c_SizeMetrics_getYppem (FT_Size_Metrics* metrics) {
+	return metrics->y_ppem;
+}
+
+EXPORT int c_SizeMetrics_getXscale (FT_Size_Metrics* metrics) {
+	return metrics->x_scale;
+}
+
+EXPORT int c_SizeMetrics_getYscale (FT_Size_Metrics* metrics) {
+	return metrics->y_scale;
+}
+
+EXPORT int c_SizeMetrics_getAscender (FT_Size_Metrics* metrics) {
+	return metrics->ascender;
+}
+
+EXPORT int c_SizeMetrics_getDescender (FT_Size_Metrics* metrics) {
+	return metrics->descender;
+}
+
+EXPORT int c_SizeMetrics_getHeight (FT_Size_Metrics* metrics) {
+	return metrics->height;
+}
+
+EXPORT int c_SizeMetrics_getMaxAdvance (FT_Size_Metrics* metrics) {
+	return metrics->max_advance;
+}
+
+/* GlyphSlot */
+
+EXPORT FT_Glyph_Metrics* c_GlyphSlot_getMetrics (FT_GlyphSlot slot) {
+	return &slot->metrics;
+}
+
+EXPORT int c_GlyphSlot_getLinearHoriAdvance (FT_GlyphSlot slot) {
+	return slot->linearHoriAdvance;
+}
+
+EXPORT int c_GlyphSlot_getLinearVertAdvance (FT_GlyphSlot slot) {
+	return slot->linearVertAdvance;
+}
+
+EXPORT int c_GlyphSlot_getAdvanceX (FT_GlyphSlot slot) {
+	return slot->advance.x;
+}
+
+EXPORT int c_GlyphSlot_getAdvanceY (FT_GlyphSlot slot) {
+	return slot->advance.y;
+}
+
+EXPORT int c_GlyphSlot_getFormat (FT_GlyphSlot slot) {
+	return slot->format;
+}
+
+EXPORT FT_Bitmap* c_GlyphSlot_getBitmap (FT_GlyphSlot slot) {
+	return &slot->bitmap;
+}
+
+EXPORT int c_GlyphSlot_getBitmapLeft (FT_GlyphSlot slot) {
+	return slot->bitmap_left;
+}
+
+EXPORT int c_GlyphSlot_getBitmapTop (FT_GlyphSlot slot) {
+	return slot->bitmap_top;
+}
+
+EXPORT int c_GlyphSlot_renderGlyph (FT_GlyphSlot slot, int renderMode) {
+	return !FT_Render_Glyph(slot, renderMode);
+}
+
+EXPORT FT_Glyph c_GlyphSlot_getGlyph (FT_GlyphSlot slot) {
+	FT_Glyph glyph = 0;
+	FT_Error error = FT_Get_Glyph(slot, &glyph);
+	if (error) {
+		lastError = error;
+		return 0;
+	}
+	return glyph;
+}
+
+/* Glyph */
+
+EXPORT void c_Glyph_done (FT_Glyph glyph) {
+	FT_Done_Glyph(glyph);
+}
+
+EXPORT FT_Glyph c_Glyph_strokeBorder (FT_Glyph glyph, FT_Stroker stroker, int inside) {
+	FT_Glyph border = glyph;
+	FT_Glyph_StrokeBorder(&border, stroker, inside, 1);
+	return border;
+}
+
+EXPORT FT_Glyph c_Glyph_toBitmap (FT_Glyph glyph, int renderMode) {
+	FT_Glyph bitmap = glyph;
+	FT_Error error = FT_Glyph_To_Bitmap(&bitmap, renderMode, NULL, 1);
+	if (error) {
+		lastError = error;
+		return 0;
+	}
+	return bitmap;
+}
+
+EXPORT FT_Bitmap* c_Glyph_getBitmap (FT_Glyph glyph) {
+	return &((FT_BitmapGlyph)glyph)->bitmap;
+}
+
+EXPORT int c_Glyph_getLeft (FT_Glyph glyph) {
+	return ((FT_BitmapGlyph)glyph)->left;
+}
+
+EXPORT int c_Glyph_getTop (FT_Glyph glyph) {
+	return ((FT_BitmapGlyph)glyph)->top;
+}
+
+/* Bitmap */
+
+EXPORT int c_Bitmap_getRows (FT_Bitmap* bitmap) {
+	return bitmap->rows;
+}
+
+EXPORT int c_Bitmap_getWidth (FT_Bitmap* bitmap) {
+	return bitmap->width;
+}
+
+EXPORT int c_Bitmap_getPitch (FT_Bitmap* bitmap) {
+	return bitmap->pitch;
+}
+
+EXPORT unsigned char* c_Bitmap_getBufferAddress (FT_Bitmap* bitmap) {
+	return bitmap->buffer;
+}
+
+EXPORT int c_Bitmap_getBufferSize (FT_Bitmap* bitmap) {
+	return bitmap->rows * abs(bitmap->pitch);
+}
+
+EXPORT int c_Bitmap_getNumGray (FT_Bitmap* bitmap) {
+	return bitmap->num_grays;
+}
+
+EXPORT int c_Bitmap_getPixelMode (FT_Bitmap* bitmap) {
+	return bitmap->pixel_mode;
+}
+
+/* GlyphMetrics */
+
+EXPORT int c_GlyphMetrics_getWidth (FT_Glyph_Metrics* metrics) {
+	return metrics->width;
+}
+
+EXPORT int c_GlyphMetrics_getHeight (FT_Glyph_Metrics* metrics) {
+	return metrics->height;
+}
+
+EXPORT int c_GlyphMetrics_getHoriBearingX (FT_Glyph_Metrics* metrics) {
+	return metrics->horiBearingX;
+}
+
+EXPORT int c_GlyphMetrics_getHoriBearingY (FT_Glyph_Metrics* metrics) {
+	return metrics->horiBearingY;
+}
+
+EXPORT int c_GlyphMetrics_getHoriAdvance (FT_Glyph_Metrics* metrics) {
+	return metrics->horiAdvance;
+}
+
+EXPORT int c_GlyphMetrics_getVertBearingX (FT_Glyph_Metrics* metrics) {
+	return metrics->vertBearingX;
+}
+
+EXPORT int c_GlyphMetrics_getVertBearingY (FT_Glyph_Metrics* metrics) {
+	return metrics->vertBearingY;
+}
+
+EXPORT int c_GlyphMetrics_getVertAdvance (FT_Glyph_Metrics* metrics) {
+	return metrics->vertAdvance;
+}
+
+/* Stroker */
+
+EXPORT void c_Stroker_set (FT_Stroker stroker, int radius, int lineCap, int lineJoin, int miterLimit) {
+	FT_Stroker_Set(stroker, radius, lineCap, lineJoin, miterLimit);
+}
+
+EXPORT void c_Stroker_done (FT_Stroker stroker) {
+	FT_Stroker_Done(stroker);
+}
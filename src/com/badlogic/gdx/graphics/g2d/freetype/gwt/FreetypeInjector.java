@@ -16,46 +16,342 @@
 
 package com.badlogic.gdx.graphics.g2d.freetype.gwt;
 
+import java.util.ArrayList;
+
+import com.badlogic.gdx.graphics.g2d.freetype.gwt.cache.ModuleStore;
+import com.badlogic.gdx.graphics.g2d.freetype.gwt.cache.ModuleStore.ModuleListener;
+import com.badlogic.gdx.graphics.g2d.freetype.gwt.inject.FontPrefetcher;
+import com.badlogic.gdx.graphics.g2d.freetype.gwt.inject.InjectableGroup;
 import com.badlogic.gdx.graphics.g2d.freetype.gwt.inject.JsInjector.Injectable;
 import com.badlogic.gdx.graphics.g2d.freetype.gwt.inject.OnCompletion;
 import com.google.gwt.core.client.Callback;
+import com.google.gwt.core.client.Duration;
 import com.google.gwt.core.client.GWT;
+import com.google.gwt.core.client.JavaScriptObject;
 import com.google.gwt.core.client.ScriptInjector;
 
+/** Injects freetype.js, which has to be loaded before fonts can be generated. Either wait for {@link #inject(OnCompletion)} before
+ * starting the game, or start it right away after {@link #injectLazily()} and wait only where FreeType is first needed. The
+ * FreeType asset loaders wait for it on their own. */
 public class FreetypeInjector {
+	/** Version of the FreeType builds in the public folder, part of the key of stored compiled modules. Change it whenever the
+	 * builds change. */
+	public static final String MODULE_VERSION = "2.10.4-1";
+
 	private static final FreetypeInjector_ instance = new FreetypeInjector_();
 
+	/** Injects freetype.js, if it isn't injected yet, and runs the callback once it is loaded or failed to load. The script is
+	 * only injected once, no matter how often this is called. */
 	public static void inject (OnCompletion oc) {
 		instance.inject(oc);
 	}
 
+	/** Injects freetype.js like {@link #inject(OnCompletion)} while downloading the font files, and runs the callback once both
+	 * are done. Faces opened from the files afterwards use the downloaded bytes, see {@link FontPrefetcher}.
+	 * @param fontPaths paths of font files relative to the assets folder, like internal file handles, or absolute URLs */
+	public static void inject (OnCompletion oc, String... fontPaths) {
+		new InjectableGroup(instance, new FontPrefetcher(fontPaths)).inject(oc);
+	}
+
+	/** @return the {@link Injectable} that injects freetype.js, to inject it together with others in an {@link InjectableGroup} */
+	public static Injectable getInjectable () {
+		return instance;
+	}
+
+	/** Starts injecting freetype.js in the background, if it isn't injected yet. */
+	public static void injectLazily () {
+		instance.inject(null);
+	}
+
+	/** @return true if FreeType can be used, whether it was injected by this class or otherwise */
+	public static native boolean isLoaded ()/*-{
+		return !!($wnd.Module && $wnd.Module.calledRun && $wnd.Module._c_FreeType_initFreeTypeJni);
+	}-*/;
+
+	/** Whether to load the WebAssembly build of FreeType where the browser supports it, falling back to the JavaScript build if it
+	 * can't be loaded. Requires the -wasm.js and -wasm.wasm files of the {@link Build}, built by emscripten/build.sh, to be in the
+	 * module's public folder. Off by default. Has to be set before FreeType is injected. */
+	public static void setWebAssembly (boolean webAssembly) {
+		instance.webAssembly = webAssembly;
+	}
+
+	/** Sets which build of FreeType is loaded. Has to be set before FreeType is injected.
+	 * @see Build */
+	public static void setBuild (Build build) {
+		if (build == null) throw new IllegalArgumentException("build cannot be null.");
+		instance.build = build;
+	}
+
+	/** Sets where the compiled WebAssembly module is kept across page loads, so later visits skip compiling it where the store
+	 * can keep it, see {@link com.badlogic.gdx.graphics.g2d.freetype.gwt.cache.IndexedDbModuleStore}. The stored module is
+	 * replaced when the build or {@link #MODULE_VERSION} changes. Has to be set before FreeType is injected.
+	 * @param store null to not keep the module, the default */
+	public static void setModuleStore (ModuleStore store) {
+		instance.moduleStore = store;
+	}
+
+	/** @return the build of FreeType that is loaded or being loaded */
+	public static Build getBuild () {
+		return instance.build;
+	}
+
+	/** @return true if the WebAssembly build of FreeType was loaded, false if the JavaScript build was */
+	public static boolean isWebAssembly () {
+		return instance.success && instance.wasm;
+	}
+
+	/** @return the URL of the FreeType script that was loaded, to load the same build elsewhere, e.g. in a worker, or null if
+	 *         FreeType isn't loaded */
+	public static String getScriptUrl () {
+		return instance.success ? instance.scriptUrl : null;
+	}
+
+	/** @return the compiled WebAssembly module of FreeType, which workers can instantiate without compiling it again, or null if
+	 *         the JavaScript build is loaded */
+	public static JavaScriptObject getModule () {
+		return isWebAssembly() ? instance.module : null;
+	}
+
+	/** @return the milliseconds it took to download, compile and initialize FreeType, or 0 if it isn't loaded yet */
+	public static double getLoadTime () {
+		return instance.loadTime;
+	}
+
+	private static native boolean isWebAssemblySupported ()/*-{
+		return typeof $wnd.WebAssembly === "object" && typeof $wnd.WebAssembly.instantiate === "function" && !!$wnd.fetch;
+	}-*/;
+
+	/** @return true if injecting freetype.js failed */
+	public static boolean isError () {
+		return instance.isError();
+	}
+
+	/** The builds of FreeType made by emscripten/build.sh. */
+	public static enum Build {
+		/** All of FreeType's default font drivers. */
+		Full("freetype"),
+		/** Only TrueType and CFF/OpenType fonts, which are all that is usually loaded. Much smaller to download and faster to parse.
+		 * Type 1, CID, PFR, Type 42, Windows FNT, PCF and BDF fonts, WOFF fonts (there is no zlib) and compressed font files can't
+		 * be loaded. Mono fonts are rendered by the monochrome rasterizer as in the full build. Falls back to the full build if its
+		 * files are missing. */
+		Slim("freetype-slim");
+
+		final String fileName;
+
+		Build (String fileName) {
+			this.fileName = fileName;
+		}
+	}
+
 	private static class FreetypeInjector_ implements Injectable {
 
 		private boolean success;
 		private boolean error;
+		private boolean injecting;
+		private boolean webAssembly;
+		private Build build = Build.Full;
+		private ModuleStore moduleStore;
+		private boolean wasm;
+		private String scriptUrl;
+		private JavaScriptObject module;
+		private double startTime, loadTime;
+		// Counts the WebAssembly attempts, so a late failure of an abandoned attempt is ignored.
+		private int attempt;
+		private final ArrayList<OnCompletion> callbacks = new ArrayList<OnCompletion>();
 
 		@Override
 		public void inject (final OnCompletion oc) {
-			final String js = GWT.getModuleBaseForStaticFiles() + "freetype.js";
+			if (success || error) {
+				if (oc != null) oc.run();
+				return;
+			}
+			if (oc != null) callbacks.add(oc);
+			if (injecting) return;
+			injecting = true;
+
+			startTime = Duration.currentTimeMillis();
+			if (webAssembly && isWebAssemblySupported())
+				injectWebAssembly();
+			else
+				injectJavaScript();
+		}
+
+		/** The script's onload only means it ran. Builds with a separate memory initializer file initialize asynchronously, so
+		 * FreeType is loaded once the runtime is initialized, see {@link #prepareJavaScriptModule()}. */
+		private void injectJavaScript () {
+			wasm = false;
+			final String js = GWT.getModuleBaseForStaticFiles() + build.fileName + ".js";
+			scriptUrl = js;
+			prepareJavaScriptModule();
 			ScriptInjector.fromUrl(js).setCallback(new Callback<Void, Exception>() {
 
 				@Override
 				public void onFailure (Exception reason) {
-					error = true;
 					GWT.log("Exception injecting " + js, reason);
-					oc.run();
+					if (build != Build.Full) {
+						build = Build.Full;
+						injectJavaScript();
+						return;
+					}
+					error = true;
+					complete();
 				}
 
 				@Override
 				public void onSuccess (Void result) {
-					success = true;
-					GWT.log("Success injecting js.");
-					oc.run();
 				}
 
 			}).setWindow(ScriptInjector.TOP_WINDOW).inject();
 		}
 
+		private native void prepareJavaScriptModule ()/*-{
+			var self = this;
+			$wnd.Module = {
+				onRuntimeInitialized: $entry(function () {
+					self.@com.badlogic.gdx.graphics.g2d.freetype.gwt.FreetypeInjector.FreetypeInjector_::javaScriptLoaded()();
+				}),
+				onAbort: $entry(function (reason) {
+					self.@com.badlogic.gdx.graphics.g2d.freetype.gwt.FreetypeInjector.FreetypeInjector_::javaScriptFailed(Ljava/lang/String;)("" + reason);
+				})
+			};
+		}-*/;
+
+		private void javaScriptLoaded () {
+			if (wasm || success || error) return;
+			success = true;
+			complete();
+		}
+
+		private void javaScriptFailed (String reason) {
+			if (wasm || success || error) return;
+			GWT.log("Couldn't initialize the JavaScript build of FreeType: " + reason);
+			error = true;
+			complete();
+		}
+
+		/** The WebAssembly module is only usable once it is compiled and its runtime initialized, which happens after the script
+		 * has loaded. If a build other than the full one fails, the full WebAssembly build is tried next. Any other failure falls
+		 * back to the JavaScript build. */
+		private void injectWebAssembly () {
+			wasm = true;
+			if (moduleStore == null) {
+				injectWebAssembly(null);
+				return;
+			}
+			moduleStore.get(getModuleKey(), new ModuleListener() {
+				@Override
+				public void loaded (JavaScriptObject module) {
+					injectWebAssembly(module);
+				}
+			});
+		}
+
+		private void injectWebAssembly (JavaScriptObject cachedModule) {
+			String base = GWT.getModuleBaseForStaticFiles();
+			final String js = base + build.fileName + "-wasm.js";
+			final int attempt = ++this.attempt;
+			scriptUrl = js;
+			prepareModule(base + build.fileName + "-wasm.wasm", cachedModule, attempt);
+			ScriptInjector.fromUrl(js).setCallback(new Callback<Void, Exception>() {
+
+				@Override
+				public void onFailure (Exception reason) {
+					webAssemblyFailed(attempt, "Exception injecting " + js + ": " + reason);
+				}
+
+				@Override
+				public void onSuccess (Void result) {
+				}
+
+			}).setWindow(ScriptInjector.TOP_WINDOW).inject();
+		}
+
+		private String getModuleKey () {
+			return build.fileName + "-wasm/" + MODULE_VERSION;
+		}
+
+		/** Sets up the Module object the Emscripten script picks up. A cached module is instantiated right away. Otherwise, or if
+		 * that fails, compilation streams the download where the browser can, and retries from a buffer if that fails, e.g.
+		 * because the server doesn't send the application/wasm content type. */
+		private native void prepareModule (String wasmUrl, JavaScriptObject cachedModule, int attempt)/*-{
+			var self = this;
+			var WebAssembly = $wnd.WebAssembly;
+			$wnd.Module = {
+				instantiateWasm: function (imports, receiveInstance) {
+					var download = function () {
+						return $wnd.fetch(wasmUrl, {credentials: 'same-origin'}).then(function (response) {
+							if (!response.ok) throw "HTTP " + response.status + " loading " + wasmUrl;
+							return response.arrayBuffer();
+						}).then(function (bytes) {
+							return WebAssembly.instantiate(bytes, imports);
+						});
+					};
+					var compile = function () {
+						var instantiated = WebAssembly.instantiateStreaming
+							? WebAssembly.instantiateStreaming($wnd.fetch(wasmUrl, {credentials: 'same-origin'}), imports)
+								["catch"](download)
+							: download();
+						return instantiated.then(function (result) {
+							self.@com.badlogic.gdx.graphics.g2d.freetype.gwt.FreetypeInjector.FreetypeInjector_::compiled(Lcom/google/gwt/core/client/JavaScriptObject;)(result.module);
+							receiveInstance(result.instance, result.module);
+						});
+					};
+					var loaded = cachedModule ? WebAssembly.instantiate(cachedModule, imports).then(function (instance) {
+						self.@com.badlogic.gdx.graphics.g2d.freetype.gwt.FreetypeInjector.FreetypeInjector_::instantiated(Lcom/google/gwt/core/client/JavaScriptObject;)(cachedModule);
+						receiveInstance(instance, cachedModule);
+					})["catch"](compile) : compile();
+					loaded.then(null, $entry(function (reason) {
+						self.@com.badlogic.gdx.graphics.g2d.freetype.gwt.FreetypeInjector.FreetypeInjector_::webAssemblyFailed(ILjava/lang/String;)(attempt, "" + reason);
+					}));
+					return {};
+				},
+				onRuntimeInitialized: $entry(function () {
+					self.@com.badlogic.gdx.graphics.g2d.freetype.gwt.FreetypeInjector.FreetypeInjector_::webAssemblyLoaded()();
+				})
+			};
+		}-*/;
+
+		private void compiled (JavaScriptObject module) {
+			instantiated(module);
+			if (moduleStore != null) moduleStore.put(getModuleKey(), module);
+		}
+
+		private void instantiated (JavaScriptObject module) {
+			this.module = module;
+		}
+
+		private void webAssemblyLoaded () {
+			if (!wasm || success) return;
+			success = true;
+			complete();
+		}
+
+		private void webAssemblyFailed (int attempt, String reason) {
+			if (!wasm || success || attempt != this.attempt) return;
+			clearModule();
+			if (build != Build.Full) {
+				GWT.log("Couldn't load the " + build + " WebAssembly build of FreeType, trying the full build. " + reason);
+				build = Build.Full;
+				injectWebAssembly();
+				return;
+			}
+			GWT.log("Couldn't load the WebAssembly build of FreeType, falling back to JavaScript. " + reason);
+			injectJavaScript();
+		}
+
+		private native void clearModule ()/*-{
+			delete $wnd.Module;
+		}-*/;
+
+		private void complete () {
+			loadTime = Duration.currentTimeMillis() - startTime;
+			if (success) GWT.log("Loaded FreeType (" + build + ", " + (wasm ? "WebAssembly" : "JavaScript") + ") in " + (int)loadTime + " ms.");
+			injecting = false;
+			for (int i = 0; i < callbacks.size(); i++)
+				callbacks.get(i).run();
+			callbacks.clear();
+		}
+
 		@Override
 		public boolean isSuccess () {
 			return success;
@@ -0,0 +1,365 @@
+/*******************************************************************************
+ * Copyright 2011 See AUTHORS file.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package com.badlogic.gdx.graphics.g2d.freetype.gwt.cache;
+
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.TextureData;
+import com.badlogic.gdx.graphics.g2d.BitmapFont.BitmapFontData;
+import com.badlogic.gdx.graphics.g2d.BitmapFont.Glyph;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.graphics.g2d.freetype.FreeTypeFontGenerator;
+import com.badlogic.gdx.graphics.g2d.freetype.FreeTypeFontGenerator.FreeTypeBitmapFontData;
+import com.badlogic.gdx.graphics.g2d.freetype.FreeTypeFontGenerator.FreeTypeFontParameter;
+import com.badlogic.gdx.graphics.g2d.freetype.gwt.cache.FontStore.LoadListener;
+import com.badlogic.gdx.graphics.g2d.freetype.gwt.inject.OnCompletion;
+import com.badlogic.gdx.graphics.glutils.PixmapTextureData;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.ObjectMap;
+import com.google.gwt.dom.client.ImageElement;
+
+/** Keeps generated fonts across page loads, so a font is only rasterized once. Fonts are keyed by the font data and every
+ * parameter that affects the result. The glyph tables are stored as text and the atlas pages as PNG data URLs, both in a
+ * {@link FontStore}. Once the stored size exceeds the limit, the least recently used fonts are evicted. See
+ * {@link FreeTypeFontGenerator#setFontCache(FontCache)}.
+ * <p>
+ * Stores can be asynchronous, so the cache only hits after it was {@link #load(OnCompletion) loaded}, typically while the game
+ * loads.
+ * <p>
+ * Fonts are keyed by a digest of the face's data, so a hit still needs FreeType injected and the face opened; it only skips
+ * rasterizing and packing the glyphs. */
+public class FontCache {
+	/** Part of every key. Increase it whenever the stored format or the generated glyphs change; entries of other versions are
+	 * removed when the cache is loaded. */
+	static public final int VERSION = 1;
+	static private final String PREFIX = "v" + VERSION + "/";
+	static private final String INDEX = PREFIX + "index";
+
+	private final FontStore store;
+	private final int maxSize;
+	private final ObjectMap<String, Entry> entries = new ObjectMap<String, Entry>();
+	/** Keys of the entries, least recently used first. */
+	private final Array<String> order = new Array<String>();
+	private int size;
+
+	/** @param maxSize the maximum number of characters kept in the store, about half the number of bytes */
+	public FontCache (FontStore store, int maxSize) {
+		this.store = store;
+		this.maxSize = maxSize;
+	}
+
+	/** Reads the stored fonts and decodes their atlas pages, then runs the callback. Until then every lookup misses. */
+	public void load (final OnCompletion onCompletion) {
+		store.load(new LoadListener() {
+			@Override
+			public void loaded (ObjectMap<String, String> stored) {
+				String index = stored.remove(INDEX);
+				Array<String> keys = index == null ? new Array<String>() : new Array<String>(index.split("\n"));
+				// Entries of other versions, and entries that never made it into the index, are dropped.
+				for (String key : stored.keys().toArray())
+					if (!keys.contains(key, false)) store.remove(key);
+
+				final Array<Entry> decoding = new Array<Entry>();
+				for (String key : keys) {
+					String value = stored.get(key);
+					if (value == null) continue;
+					Entry entry = Entry.parse(key, value);
+					if (entry == null) {
+						store.remove(key);
+						continue;
+					}
+					decoding.add(entry);
+				}
+				if (decoding.size == 0) {
+					finishLoading(decoding, onCompletion);
+					return;
+				}
+				final int[] pending = {0};
+				for (final Entry entry : decoding) {
+					for (int i = 0; i < entry.pages.length; i++) {
+						final int page = i;
+						pending[0]++;
+						decodeImage(entry.pageUrls[i], new ImageListener() {
+							@Override
+							public void loaded (ImageElement image) {
+								if (image != null) entry.pages[page] = new Pixmap(image);
+								if (--pending[0] == 0) finishLoading(decoding, onCompletion);
+							}
+						});
+					}
+					entry.pageUrls = null;
+				}
+			}
+		});
+	}
+
+	void finishLoading (Array<Entry> decoded, OnCompletion onCompletion) {
+		for (Entry entry : decoded) {
+			if (entry.isComplete()) {
+				entries.put(entry.key, entry);
+				order.add(entry.key);
+				size += entry.size;
+			} else {
+				entry.dispose();
+				store.remove(entry.key);
+			}
+		}
+		evict();
+		writeIndex();
+		onCompletion.run();
+	}
+
+	/** Fills the data and creates its atlas from the stored font, if there is one.
+	 * @param fontDigest identifies the font data, see {@link FreeTypeFontGenerator#setFontCache(FontCache)}
+	 * @return false if the font isn't cached */
+	public boolean get (String fontDigest, FreeTypeFontParameter parameter, FreeTypeBitmapFontData data) {
+		String description = describe(parameter);
+		String key = key(fontDigest, description);
+		Entry entry = entries.get(key);
+		if (entry == null || !entry.description.equals(description)) return false;
+
+		read(entry, data);
+		data.regions = new Array<TextureRegion>(entry.pages.length);
+		for (Pixmap page : entry.pages) {
+			Texture texture = new Texture(page, parameter.genMipMaps);
+			texture.setFilter(parameter.minFilter, parameter.magFilter);
+			data.regions.add(new TextureRegion(texture));
+		}
+
+		order.removeValue(key, false);
+		order.add(key);
+		writeIndex();
+		return true;
+	}
+
+	/** Stores a font generated with its own atlas, evicting the least recently used fonts if the cache gets too large. */
+	public void put (String fontDigest, FreeTypeFontParameter parameter, FreeTypeBitmapFontData data) {
+		String description = describe(parameter);
+		String key = key(fontDigest, description);
+		StringBuilder fontData = new StringBuilder(4096);
+		write(data, fontData);
+		StringBuilder value = new StringBuilder(fontData.length() + description.length() + 4096);
+		value.append(description.length()).append('\n').append(description);
+		value.append(data.name).append('\n').append(fontData);
+
+		Array<TextureRegion> regions = data.regions;
+		Pixmap[] pages = new Pixmap[regions.size];
+		for (int i = 0; i < regions.size; i++) {
+			TextureData textureData = regions.get(i).getTexture().getTextureData();
+			if (!(textureData instanceof PixmapTextureData)) return; // The atlas can't be read back.
+			Pixmap page = textureData.consumePixmap();
+			value.append('\n').append(page.getCanvasElement().toDataUrl("image/png"));
+			pages[i] = new Pixmap(page.getWidth(), page.getHeight(), page.getFormat());
+			pages[i].drawPixmap(page, 0, 0);
+		}
+
+		remove(key);
+		Entry entry = new Entry(key, description, data.name, fontData.toString(), pages, value.length());
+		if (entry.size > maxSize) {
+			entry.dispose();
+			return;
+		}
+		entries.put(key, entry);
+		order.add(key);
+		size += entry.size;
+		store.put(key, value.toString());
+		evict();
+		writeIndex();
+	}
+
+	/** Removes all fonts from the cache and the store. */
+	public void clear () {
+		while (order.size > 0)
+			remove(order.peek());
+		writeIndex();
+	}
+
+	private void evict () {
+		while (size > maxSize && order.size > 0)
+			remove(order.first());
+	}
+
+	private void remove (String key) {
+		Entry entry = entries.remove(key);
+		if (entry == null) return;
+		order.removeValue(key, false);
+		size -= entry.size;
+		entry.dispose();
+		store.remove(key);
+	}
+
+	private void writeIndex () {
+		store.put(INDEX, order.toString("\n"));
+	}
+
+	static private String key (String fontDigest, String description) {
+		return PREFIX + fontDigest + "/" + Integer.toHexString(description.hashCode());
+	}
+
+	/** Returns every parameter that affects the generated font. Stored with the font, so hash collisions of keys are detected. */
+	static private String describe (FreeTypeFontParameter parameter) {
+		StringBuilder buffer = new StringBuilder(parameter.characters.length() + 256);
+		buffer.append(parameter.size).append(',').append(parameter.mono).append(',').append(parameter.hinting).append(',');
+		buffer.append(parameter.color).append(',').append(parameter.tint).append(',').append(parameter.gamma).append(',');
+		buffer.append(parameter.renderCount).append(',').append(parameter.borderWidth).append(',');
+		buffer.append(parameter.borderColor).append(',').append(parameter.borderStraight).append(',');
+		buffer.append(parameter.borderGamma).append(',').append(parameter.shadowOffsetX).append(',');
+		buffer.append(parameter.shadowOffsetY).append(',').append(parameter.shadowColor).append(',');
+		buffer.append(parameter.spaceX).append(',').append(parameter.spaceY).append(',');
+		buffer.append(parameter.padTop).append(',').append(parameter.padLeft).append(',');
+		buffer.append(parameter.padBottom).append(',').append(parameter.padRight).append(',');
+		buffer.append(parameter.kerning).append(',').append(parameter.flip).append(',');
+		buffer.append(FreeTypeFontGenerator.getMaxTextureSize()).append(',');
+		buffer.append(parameter.characters);
+		return buffer.toString();
+	}
+
+	static private void write (FreeTypeBitmapFontData data, StringBuilder buffer) {
+		buffer.append(data.flipped ? 1 : 0).append(',');
+		buffer.append(data.padTop).append(',').append(data.padRight).append(',');
+		buffer.append(data.padBottom).append(',').append(data.padLeft).append(',');
+		buffer.append(data.lineHeight).append(',').append(data.capHeight).append(',');
+		buffer.append(data.ascent).append(',').append(data.descent).append(',').append(data.down).append(',');
+		buffer.append(data.spaceXadvance).append(',').append(data.xHeight).append(',');
+		buffer.append(data.missingGlyph == null ? -1 : data.missingGlyph.id);
+		for (Glyph[] page : ((BitmapFontData)data).glyphs) {
+			if (page == null) continue;
+			for (Glyph glyph : page) {
+				if (glyph == null) continue;
+				buffer.append(',').append(glyph.id).append(',').append(glyph.srcX).append(',').append(glyph.srcY);
+				buffer.append(',').append(glyph.width).append(',').append(glyph.height);
+				buffer.append(',').append(glyph.xoffset).append(',').append(glyph.yoffset).append(',').append(glyph.xadvance);
+				buffer.append(',').append(glyph.page).append(',').append(glyph.fixedWidth ? 1 : 0);
+				int kerningCount = 0;
+				if (glyph.kerning != null) {
+					for (byte[] kerningPage : glyph.kerning) {
+						if (kerningPage == null) continue;
+						for (byte kerning : kerningPage)
+							if (kerning != 0) kerningCount++;
+					}
+				}
+				buffer.append(',').append(kerningCount);
+				if (kerningCount == 0) continue;
+				byte[][] kerning = glyph.kerning;
+				for (int i = 0; i < kerning.length; i++) {
+					byte[] kerningPage = kerning[i];
+					if (kerningPage == null) continue;
+					for (int ii = 0; ii < kerningPage.length; ii++)
+						if (kerningPage[ii] != 0) buffer.append(',').append(i * kerningPage.length + ii).append(',').append(kerningPage[ii]);
+				}
+			}
+		}
+	}
+
+	static private void read (Entry entry, FreeTypeBitmapFontData data) {
+		String[] values = entry.data.split(",");
+		int i = 0;
+		data.name = entry.name;
+		data.flipped = Integer.parseInt(values[i++]) != 0;
+		data.padTop = Float.parseFloat(values[i++]);
+		data.padRight = Float.parseFloat(values[i++]);
+		data.padBottom = Float.parseFloat(values[i++]);
+		data.padLeft = Float.parseFloat(values[i++]);
+		data.lineHeight = Float.parseFloat(values[i++]);
+		data.capHeight = Float.parseFloat(values[i++]);
+		data.ascent = Float.parseFloat(values[i++]);
+		data.descent = Float.parseFloat(values[i++]);
+		data.down = Float.parseFloat(values[i++]);
+		data.spaceXadvance = Float.parseFloat(values[i++]);
+		data.xHeight = Float.parseFloat(values[i++]);
+		int missingGlyph = Integer.parseInt(values[i++]);
+		while (i < values.length) {
+			Glyph glyph = new Glyph();
+			glyph.id = Integer.parseInt(values[i++]);
+			glyph.srcX = Integer.parseInt(values[i++]);
+			glyph.srcY = Integer.parseInt(values[i++]);
+			glyph.width = Integer.parseInt(values[i++]);
+			glyph.height = Integer.parseInt(values[i++]);
+			glyph.xoffset = Integer.parseInt(values[i++]);
+			glyph.yoffset = Integer.parseInt(values[i++]);
+			glyph.xadvance = Integer.parseInt(values[i++]);
+			glyph.page = Integer.parseInt(values[i++]);
+			glyph.fixedWidth = Integer.parseInt(values[i++]) != 0;
+			for (int n = Integer.parseInt(values[i++]); n > 0; n--)
+				glyph.setKerning(Integer.parseInt(values[i++]), Integer.parseInt(values[i++]));
+			data.setGlyph(glyph.id, glyph);
+			if (glyph.id == missingGlyph) data.missingGlyph = glyph;
+		}
+	}
+
+	private static native void decodeImage (String url, ImageListener listener)/*-{
+		var image = new Image();
+		image.onload = $entry(function () {
+			listener.@com.badlogic.gdx.graphics.g2d.freetype.gwt.cache.FontCache.ImageListener::loaded(Lcom/google/gwt/dom/client/ImageElement;)(image);
+		});
+		image.onerror = $entry(function () {
+			listener.@com.badlogic.gdx.graphics.g2d.freetype.gwt.cache.FontCache.ImageListener::loaded(Lcom/google/gwt/dom/client/ImageElement;)(null);
+		});
+		image.src = url;
+	}-*/;
+
+	static interface ImageListener {
+		/** @param image null if the image couldn't be decoded */
+		void loaded (ImageElement image);
+	}
+
+	static class Entry {
+		final String key, description, name, data;
+		final Pixmap[] pages;
+		/** The length of the stored value. */
+		final int size;
+		/** The atlas pages as data URLs, only kept until they are decoded. */
+		String[] pageUrls;
+
+		Entry (String key, String description, String name, String data, Pixmap[] pages, int size) {
+			this.key = key;
+			this.description = description;
+			this.name = name;
+			this.data = data;
+			this.pages = pages;
+			this.size = size;
+		}
+
+		/** @return null if the value is malformed */
+		static Entry parse (String key, String value) {
+			try {
+				int descriptionStart = value.indexOf('\n') + 1;
+				int descriptionEnd = descriptionStart + Integer.parseInt(value.substring(0, descriptionStart - 1));
+				String[] lines = value.substring(descriptionEnd).split("\n");
+				if (lines.length < 3) return null;
+				String description = value.substring(descriptionStart, descriptionEnd);
+				Entry entry = new Entry(key, description, lines[0], lines[1], new Pixmap[lines.length - 2], value.length());
+				entry.pageUrls = new String[lines.length - 2];
+				System.arraycopy(lines, 2, entry.pageUrls, 0, entry.pageUrls.length);
+				return entry;
+			} catch (RuntimeException ex) {
+				return null;
+			}
+		}
+
+		boolean isComplete () {
+			for (Pixmap page : pages)
+				if (page == null) return false;
+			return true;
+		}
+
+		void dispose () {
+			for (Pixmap page : pages)
+				if (page != null) page.dispose();
+		}
+	}
+}
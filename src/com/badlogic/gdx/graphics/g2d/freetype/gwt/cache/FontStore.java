@@ -0,0 +1,34 @@
+/*******************************************************************************
+ * Copyright 2011 See AUTHORS file.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package com.badlogic.gdx.graphics.g2d.freetype.gwt.cache;
+
+import com.badlogic.gdx.utils.ObjectMap;
+
+/** Persistent key-value storage behind a {@link FontCache}. Entries are read once, when the cache is loaded, and written without
+ * waiting for the result. A store that is not available behaves as if it were empty. */
+public interface FontStore {
+	/** Reads all entries and passes them to the listener, possibly asynchronously. */
+	void load (LoadListener listener);
+
+	void put (String key, String value);
+
+	void remove (String key);
+
+	public static interface LoadListener {
+		void loaded (ObjectMap<String, String> entries);
+	}
+}
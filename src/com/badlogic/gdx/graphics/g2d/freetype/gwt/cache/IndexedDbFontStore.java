@@ -0,0 +1,145 @@
+/*******************************************************************************
+ * Copyright 2011 See AUTHORS file.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package com.badlogic.gdx.graphics.g2d.freetype.gwt.cache;
+
+import com.badlogic.gdx.utils.ObjectMap;
+import com.google.gwt.core.client.JavaScriptObject;
+import com.google.gwt.core.client.JsArrayString;
+
+/** Stores entries in an IndexedDB database, which allows much larger fonts than localStorage. Where IndexedDB is missing or
+ * refused, for example in some private browsing modes, the store stays empty. */
+public class IndexedDbFontStore implements FontStore {
+	/** Promise of the opened database, or of null if it can't be used. */
+	private final JavaScriptObject database;
+
+	public IndexedDbFontStore () {
+		this("gdx-freetype");
+	}
+
+	/** @param name the name of the database */
+	public IndexedDbFontStore (String name) {
+		database = open(name);
+	}
+
+	@Override
+	public void load (LoadListener listener) {
+		load(database, listener);
+	}
+
+	@Override
+	public void put (String key, String value) {
+		put(database, key, value);
+	}
+
+	@Override
+	public void remove (String key) {
+		remove(database, key);
+	}
+
+	static void loaded (LoadListener listener, JsArrayString keys, JsArrayString values) {
+		ObjectMap<String, String> entries = new ObjectMap<String, String>(keys.length());
+		for (int i = 0, n = keys.length(); i < n; i++)
+			entries.put(keys.get(i), values.get(i));
+		listener.loaded(entries);
+	}
+
+	private static native JavaScriptObject open (String name)/*-{
+		return new $wnd.Promise(function (resolve) {
+			var indexedDB = $wnd.indexedDB;
+			if (!indexedDB) {
+				resolve(null);
+				return;
+			}
+			try {
+				var request = indexedDB.open(name, 1);
+				request.onupgradeneeded = function () {
+					request.result.createObjectStore("fonts");
+				};
+				request.onsuccess = function () {
+					resolve(request.result);
+				};
+				request.onerror = function () {
+					resolve(null);
+				};
+				// Another tab holds an older version open; don't wait for it, loading can't.
+				request.onblocked = function () {
+					resolve(null);
+				};
+			} catch (e) {
+				resolve(null);
+			}
+		});
+	}-*/;
+
+	private static native void load (JavaScriptObject database, LoadListener listener)/*-{
+		database.then($entry(function (db) {
+			var keys = [], values = [];
+			var done = $entry(function () {
+				@com.badlogic.gdx.graphics.g2d.freetype.gwt.cache.IndexedDbFontStore::loaded(Lcom/badlogic/gdx/graphics/g2d/freetype/gwt/cache/FontStore$LoadListener;Lcom/google/gwt/core/client/JsArrayString;Lcom/google/gwt/core/client/JsArrayString;)(listener, keys, values);
+			});
+			if (!db) {
+				done();
+				return;
+			}
+			var request;
+			try {
+				request = db.transaction("fonts", "readonly").objectStore("fonts").openCursor();
+			} catch (e) {
+				// E.g. InvalidStateError once the database was closed, or NotFoundError if the store is missing.
+				done();
+				return;
+			}
+			request.onsuccess = function () {
+				var cursor = request.result;
+				if (!cursor) {
+					done();
+					return;
+				}
+				keys.push(cursor.key);
+				values.push(cursor.value);
+				cursor["continue"]();
+			};
+			request.onerror = function () {
+				keys = [];
+				values = [];
+				done();
+			};
+		}));
+	}-*/;
+
+	private static native void put (JavaScriptObject database, String key, String value)/*-{
+		database.then(function (db) {
+			if (!db) return;
+			try {
+				db.transaction("fonts", "readwrite").objectStore("fonts").put(value, key);
+			} catch (e) {
+				// The entry is not kept, like when the store is full.
+			}
+		});
+	}-*/;
+
+	private static native void remove (JavaScriptObject database, String key)/*-{
+		database.then(function (db) {
+			if (!db) return;
+			try {
+				db.transaction("fonts", "readwrite").objectStore("fonts")["delete"](key);
+			} catch (e) {
+				// Nothing to remove from a database that can't be used.
+			}
+		});
+	}-*/;
+}
@@ -0,0 +1,117 @@
+/*******************************************************************************
+ * Copyright 2011 See AUTHORS file.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+
+package com.badlogic.gdx.graphics.g2d.freetype.gwt.cache;
+
+import com.google.gwt.core.client.JavaScriptObject;
+
+/** Stores the module in an IndexedDB database. This only helps engines that can still serialize compiled modules; current
+ * Chrome and Firefox refuse to with a DataCloneError, so there nothing is stored. They cache the compilation of modules streamed
+ * from the same URL on their own, which is how {@link com.badlogic.gdx.graphics.g2d.freetype.gwt.FreetypeInjector} compiles the
+ * module without a stored one. Where IndexedDB is missing or fails, nothing is stored either. */
+public class IndexedDbModuleStore implements ModuleStore {
+	/** Promise of the opened database, or of null if it can't be used. */
+	private final JavaScriptObject database;
+
+	public IndexedDbModuleStore () {
+		this("gdx-freetype-module");
+	}
+
+	/** @param name the name of the database */
+	public IndexedDbModuleStore (String name) {
+		database = open(name);
+	}
+
+	@Override
+	public void get (String key, ModuleListener listener) {
+		get(database, key, listener);
+	}
+
+	@Override
+	public void put (String key, JavaScriptObject module) {
+		put(database, key, module);
+	}
+
+	private static native JavaScriptObject open (String name)/*-{
+		return new $wnd.Promise(function (resolve) {
+			var indexedDB = $wnd.indexedDB;
+			if (!indexedDB) {
+				resolve(null);
+				return;
+			}
+			try {
+				var request = indexedDB.open(name, 1);
+				request.onupgradeneeded = function () {
+					request.result.createObjectStore("modules");
+				};
+				request.onsuccess = function () {
+					resolve(request.result);
+				};
+				request.onerror = function () {
+					resolve(null);
+				};
+				// Another tab holds an older version open; don't wait for it, startup can't.
+				request.onblocked = function () {
+					resolve(null);
+				};
+			} catch (e) {
+				resolve(null);
+			}
+		});
+	}-*/;
+
+	private static native void get (JavaScriptObject database, String key, ModuleListener listener)/*-{
+		database.then($entry(function (db) {
+			var done = $entry(function (module) {
+				listener.@com.badlogic.gdx.graphics.g2d.freetype.gwt.cache.ModuleStore.ModuleListener::loaded(Lcom/google/gwt/core/client/JavaScriptObject;)(module || null);
+			});
+			if (!db) {
+				done(null);
+				return;
+			}
+			var request;
+			try {
+				request = db.transaction("modules", "readonly").objectStore("modules").get(key);
+			} catch (e) {
+				// E.g. InvalidStateError once the database was closed, or NotFoundError if the store is missing.
+				done(null);
+				return;
+			}
+			request.onsuccess = function () {
+				done(request.result);
+			};
+			request.onerror = function () {
+				done(null);
+			};
+		}));
+	}-*/;
+
+	private static native void put (JavaScriptObject database, String key, JavaScriptObject module)/*-{
+		database.then(function (db) {
+			if (!db) return;
+			try {
+				var store = db.transaction("modules", "readwrite").objectStore("modules");
+				store.put(module, key);
+				// Only replaces the modules of other keys once put() didn't throw, so a failed put keeps them.
+				store["delete"]($wnd.IDBKeyRange.upperBound(key, true));
+				store["delete"]($wnd.IDBKeyRange.lowerBound(key, true));
+			} catch (e) {
+				// DataCloneError, the browser can't serialize compiled modules.
+			}
+		});
+	}-*/;
+}
@@ -0,0 +1,65 @@
+/*******************************************************************************
+ * Copyright 2011 See AUTHORS file.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package com.badlogic.gdx.graphics.g2d.freetype.gwt.cache;
+
+import com.badlogic.gdx.utils.ObjectMap;
+import com.google.gwt.core.client.GWT;
+import com.google.gwt.core.client.JavaScriptException;
+import com.google.gwt.storage.client.Storage;
+
+/** Stores entries in the browser's localStorage. Simple and synchronous, but most browsers limit it to about 5 MB per origin, so
+ * keep the {@link FontCache} size well below that. Writes that exceed the quota are dropped. */
+public class LocalStorageFontStore implements FontStore {
+	private final Storage storage = Storage.getLocalStorageIfSupported();
+	private final String prefix;
+
+	public LocalStorageFontStore () {
+		this("gdx-freetype/");
+	}
+
+	/** @param prefix prepended to all keys, to keep them apart from other users of localStorage */
+	public LocalStorageFontStore (String prefix) {
+		this.prefix = prefix;
+	}
+
+	@Override
+	public void load (LoadListener listener) {
+		ObjectMap<String, String> entries = new ObjectMap<String, String>();
+		if (storage != null) {
+			for (int i = 0, n = storage.getLength(); i < n; i++) {
+				String key = storage.key(i);
+				if (key != null && key.startsWith(prefix)) entries.put(key.substring(prefix.length()), storage.getItem(key));
+			}
+		}
+		listener.loaded(entries);
+	}
+
+	@Override
+	public void put (String key, String value) {
+		if (storage == null) return;
+		try {
+			storage.setItem(prefix + key, value);
+		} catch (JavaScriptException ex) {
+			GWT.log("Couldn't store font " + key, ex);
+		}
+	}
+
+	@Override
+	public void remove (String key) {
+		if (storage != null) storage.removeItem(prefix + key);
+	}
+}
@@ -0,0 +1,40 @@
+/*******************************************************************************
+ * Copyright 2011 See AUTHORS file.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package com.badlogic.gdx.graphics.g2d.freetype.gwt.cache;
+
+import com.badlogic.gdx.utils.ObjectMap;
+
+/** Keeps entries in memory only, so they last until the page is reloaded. Useful for tests and as a fallback when no persistent
+ * storage is available. */
+public class MemoryFontStore implements FontStore {
+	private final ObjectMap<String, String> entries = new ObjectMap<String, String>();
+
+	@Override
+	public void load (LoadListener listener) {
+		listener.loaded(new ObjectMap<String, String>(entries));
+	}
+
+	@Override
+	public void put (String key, String value) {
+		entries.put(key, value);
+	}
+
+	@Override
+	public void remove (String key) {
+		entries.remove(key);
+	}
+}
@@ -0,0 +1,37 @@
+/*******************************************************************************
+ * Copyright 2011 See AUTHORS file.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+
+package com.badlogic.gdx.graphics.g2d.freetype.gwt.cache;
+
+import com.google.gwt.core.client.JavaScriptObject;
+
+/** Keeps the module in memory only, so it lasts until the page is reloaded. Useful for tests. */
+public class MemoryModuleStore implements ModuleStore {
+	private String key;
+	private JavaScriptObject module;
+
+	@Override
+	public void get (String key, ModuleListener listener) {
+		listener.loaded(key.equals(this.key) ? module : null);
+	}
+
+	@Override
+	public void put (String key, JavaScriptObject module) {
+		this.key = key;
+		this.module = module;
+	}
+}
@@ -0,0 +1,37 @@
+/*******************************************************************************
+ * Copyright 2011 See AUTHORS file.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+
+package com.badlogic.gdx.graphics.g2d.freetype.gwt.cache;
+
+import com.google.gwt.core.client.JavaScriptObject;
+
+/** Keeps the compiled WebAssembly module of FreeType across page loads, so it is only compiled on the first visit. See
+ * {@link com.badlogic.gdx.graphics.g2d.freetype.gwt.FreetypeInjector#setModuleStore(ModuleStore)}. Only one module is kept, the
+ * key identifies its build and version. */
+public interface ModuleStore {
+	/** Looks up the module stored under the key and passes it to the listener, possibly asynchronously. */
+	void get (String key, ModuleListener listener);
+
+	/** Stores a compiled WebAssembly.Module, replacing the module stored under any other key. Stores that can't keep the module,
+	 * e.g. because the browser can't serialize compiled modules, silently drop it. */
+	void put (String key, JavaScriptObject module);
+
+	public static interface ModuleListener {
+		/** @param module the stored WebAssembly.Module, or null if there is none under the key */
+		void loaded (JavaScriptObject module);
+	}
+}
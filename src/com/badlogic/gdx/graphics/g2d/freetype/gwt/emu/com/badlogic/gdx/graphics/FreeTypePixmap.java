@@ -22,48 +22,170 @@ import java.nio.FreeTypeUtil;
 import java.nio.HasArrayBufferView;
 
 import com.google.gwt.canvas.dom.client.Context2d;
-import com.google.gwt.core.client.GWT;
+import com.google.gwt.dom.client.CanvasElement;
+import com.google.gwt.typedarrays.shared.ArrayBuffer;
 import com.google.gwt.typedarrays.shared.ArrayBufferView;
-import com.google.gwt.typedarrays.shared.Uint8ClampedArray;
 
-/** @author Simon Gerst */
+/** A {@link Pixmap} whose pixels live in a typed array while FreeType output is written to it. The canvas is only written when
+ * the pixmap is drawn somewhere, e.g. when a glyph is packed into a page, and only read back if it was drawn into after its
+ * pixels were last read. {@link Format#Alpha} pixmaps store one byte per pixel, all other formats store RGBA8888. The GWT
+ * {@link Pixmap} ignores its format, so {@link #getBufferFormat()} tells which of the two the pixels are in.
+ * @author Simon Gerst */
 public class FreeTypePixmap extends Pixmap {
 
+	/** The pixels, or null if the canvas holds the only copy. */
 	ByteBuffer buffer;
+	/** True if {@link #buffer} has changes that have not been written to the canvas yet. */
+	private boolean bufferDirty;
+	/** True once the canvas may hold pixels that are not in {@link #buffer}. A new pixmap is transparent, so its buffer can be
+	 * created without reading the canvas. */
+	private boolean canvasDirty;
+	/** True if {@link #buffer} holds one byte of alpha per pixel instead of RGBA8888. */
+	private final boolean alpha;
 
 	public FreeTypePixmap (int width, int height, Format format) {
 		super(width, height, format);
+		alpha = format == Format.Alpha;
 	}
 
+	/** @return {@link Format#Alpha} if {@link #getRealPixels()} has one byte per pixel, else {@link Format#RGBA8888}. Unlike
+	 *         {@link #getFormat()}, this is the format given to the constructor. */
+	public Format getBufferFormat () {
+		return alpha ? Format.Alpha : Format.RGBA8888;
+	}
+
+	/** Writes any pending changes to the canvas and releases the typed array, leaving the canvas as the only copy. */
 	public void setPixelsNull () {
+		flush();
+		buffer = null;
 		pixels = null;
+		canvasDirty = true;
 	}
 
+	/** @return the pixels of this pixmap. Changes have to be published with {@link #putPixelsBack(ByteBuffer)}. */
 	public ByteBuffer getRealPixels () {
 		if (getWidth() == 0 || getHeight() == 0) {
 			return new DirectReadWriteByteBuffer(0);
 		}
-		if (pixels == null) {
-			pixels = getContext().getImageData(0, 0, getWidth(), getHeight()).getData();
-			buffer = FreeTypeUtil.newDirectReadWriteByteBuffer(((Uint8ClampedArray)pixels).buffer());
-			return buffer;
+		if (buffer == null) {
+			if (canvasDirty) {
+				buffer = FreeTypeUtil.newDirectReadWriteByteBuffer(readPixels(super.getContext(), getWidth(), getHeight(), alpha));
+				canvasDirty = false;
+			} else {
+				buffer = new DirectReadWriteByteBuffer(getWidth() * getHeight() * (alpha ? 1 : 4));
+			}
 		}
 		return buffer;
 	}
 
+	/** Marks the pixels as changed. They are written to the canvas the next time it is used. */
 	public void putPixelsBack (ByteBuffer pixels) {
 		if (getWidth() == 0 || getHeight() == 0) return;
-		putPixelsBack(((HasArrayBufferView)pixels).getTypedArray(), getWidth(), getHeight(), getContext());
+		buffer = pixels;
+		bufferDirty = true;
+	}
 
+	private void flush () {
+		if (!bufferDirty) return;
+		bufferDirty = false;
+		putPixels(((HasArrayBufferView)buffer).getTypedArray(), getWidth(), getHeight(), alpha, super.getContext());
 	}
 
-	private native void putPixelsBack (ArrayBufferView pixels, int width, int height, Context2d ctx)/*-{
+	/** Called before the canvas is drawn into; the typed array is stale afterwards. */
+	private void canvasChanging () {
+		flush();
+		buffer = null;
+		canvasDirty = true;
+	}
+
+	private native void putPixels (ArrayBufferView pixels, int width, int height, boolean alpha, Context2d ctx)/*-{
 		var imgData = ctx.createImageData(width, height);
 		var data = imgData.data;
-		for (var i = 0, len = width * height * 4; i < len; i++) {
-			data[i] = pixels[i] & 0xff;
+		if (alpha) {
+			for (var i = 0, j = 0, len = width * height; i < len; i++, j += 4) {
+				data[j] = data[j + 1] = data[j + 2] = 255;
+				data[j + 3] = pixels[i];
+			}
+		} else {
+			// An unsigned view avoids clamping the signed bytes.
+			data.set(new Uint8Array(pixels.buffer, pixels.byteOffset, width * height * 4));
 		}
 		ctx.putImageData(imgData, 0, 0);
 	}-*/;
 
+	private native ArrayBuffer readPixels (Context2d ctx, int width, int height, boolean alpha)/*-{
+		var data = ctx.getImageData(0, 0, width, height).data;
+		if (!alpha) return data.buffer;
+		var pixels = new Uint8Array(width * height);
+		for (var i = 0, len = width * height; i < len; i++)
+			pixels[i] = data[i * 4 + 3];
+		return pixels.buffer;
+	}-*/;
+
+	@Override
+	public CanvasElement getCanvasElement () {
+		flush();
+		return super.getCanvasElement();
+	}
+
+	@Override
+	public Context2d getContext () {
+		canvasChanging();
+		return super.getContext();
+	}
+
+	@Override
+	public void drawPixmap (Pixmap pixmap, int x, int y) {
+		canvasChanging();
+		super.drawPixmap(pixmap, x, y);
+	}
+
+	@Override
+	public void drawPixmap (Pixmap pixmap, int x, int y, int srcx, int srcy, int srcWidth, int srcHeight) {
+		canvasChanging();
+		super.drawPixmap(pixmap, x, y, srcx, srcy, srcWidth, srcHeight);
+	}
+
+	@Override
+	public void drawPixmap (Pixmap pixmap, int srcx, int srcy, int srcWidth, int srcHeight, int dstx, int dsty, int dstWidth,
+		int dstHeight) {
+		canvasChanging();
+		super.drawPixmap(pixmap, srcx, srcy, srcWidth, srcHeight, dstx, dsty, dstWidth, dstHeight);
+	}
+
+	@Override
+	public void fill () {
+		canvasChanging();
+		super.fill();
+	}
+
+	@Override
+	public void fillRectangle (int x, int y, int width, int height) {
+		canvasChanging();
+		super.fillRectangle(x, y, width, height);
+	}
+
+	@Override
+	public void drawPixel (int x, int y) {
+		canvasChanging();
+		super.drawPixel(x, y);
+	}
+
+	@Override
+	public void drawPixel (int x, int y, int color) {
+		canvasChanging();
+		super.drawPixel(x, y, color);
+	}
+
+	@Override
+	public int getPixel (int x, int y) {
+		flush();
+		return super.getPixel(x, y);
+	}
+
+	@Override
+	public void dispose () {
+		buffer = null;
+		super.dispose();
+	}
 }
@@ -1,981 +1,1702 @@
-/*******************************************************************************
- * Copyright 2011 See AUTHORS file.
- * 
- * Licensed under the Apache License, Version 2.0 (the "License");
- * you may not use this file except in compliance with the License.
- * You may obtain a copy of the License at
- * 
- *   http://www.apache.org/licenses/LICENSE-2.0
- * 
- * Unless required by applicable law or agreed to in writing, software
- * distributed under the License is distributed on an "AS IS" BASIS,
- * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
- * See the License for the specific language governing permissions and
- * limitations under the License.
- ******************************************************************************/
-
-package com.badlogic.gdx.graphics.g2d.freetype;
-
-import java.io.IOException;
-import java.io.InputStream;
-import java.nio.ByteBuffer;
-import java.nio.FreeTypeUtil;
-import java.nio.IntBuffer;
-
-import java.nio.HasArrayBufferView;
-import com.badlogic.gdx.files.FileHandle;
-import com.badlogic.gdx.graphics.Color;
-import com.badlogic.gdx.graphics.FreeTypePixmap;
-import com.badlogic.gdx.graphics.Pixmap;
-import com.badlogic.gdx.graphics.Pixmap.Blending;
-import com.badlogic.gdx.graphics.Pixmap.Format;
-import com.badlogic.gdx.utils.BufferUtils;
-import com.badlogic.gdx.utils.Disposable;
-import com.badlogic.gdx.utils.GdxRuntimeException;
-import com.badlogic.gdx.utils.LongMap;
-import com.badlogic.gdx.utils.StreamUtils;
-import com.google.gwt.typedarrays.shared.ArrayBuffer;
-import com.google.gwt.typedarrays.shared.ArrayBufferView;
-import com.google.gwt.typedarrays.shared.Int8Array;
-
-public class FreeType {
-	// @off
-	/*JNI
-	#include <ft2build.h>
-	#include FT_FREETYPE_H
-	#include FT_STROKER_H
-	
-	static jint lastError = 0;	
-	 */
-	
-	private static native void nativeFree (int address)/*-{
-		$wnd.Module._free(address);
-	}-*/;
-	
-	/**
-	 * 
-	 * @return returns the last error code FreeType reported
-	 */
-	static native int getLastErrorCode()/*-{
-		return $wnd.Module._c_FreeType_getLastErrorCode();
-	}-*/;
-	
-	private static class Pointer {
-		int address;
-		
-		Pointer(int address) {
-			this.address = address;
-		}
-	}
-	
-	public static class Library extends Pointer implements Disposable {
-		LongMap<Integer> fontData = new LongMap<Integer>();
-		
-		Library (int address) {
-			super(address);
-		}
-
-		@Override
-		public void dispose () {
-			doneFreeType(address);
-			for(Integer address: fontData.values()) {
-				nativeFree(address);
-			}
-		}
-
-		private static native void doneFreeType (int library)/*-{
-			$wnd.Module._c_Library_doneFreeType(library);
-		}-*/;
-
-		public Face newFace(FileHandle fontFile, int faceIndex) {
-			ByteBuffer buffer = null;
-			try {
-				//buffer = fontFile.map(); //method missing in gwt emulation
-			} catch (GdxRuntimeException ignored) {
-				// OK to ignore, some platforms do not support file mapping.
-			}
-			if (buffer == null) {
-				InputStream input = fontFile.read();
-				try {
-					int fileSize = (int)fontFile.length();
-					if (fileSize == 0) {
-						// Copy to a byte[] to get the size, then copy to the buffer.
-						byte[] data = StreamUtils.copyStreamToByteArray(input, 1024 * 16);
-						buffer = BufferUtils.newByteBuffer(data.length);
-						BufferUtils.copy(data, 0, buffer, data.length);
-					} else {
-						// Trust the specified file size.
-						buffer = BufferUtils.newByteBuffer(fileSize);
-						StreamUtils.copyStream(input, buffer);
-					}
-				} catch (IOException ex) {
-					throw new GdxRuntimeException(ex);
-				} finally {
-					StreamUtils.closeQuietly(input);
-				}
-			}
-			return newMemoryFace(buffer, faceIndex);
-		}
-
-		public Face newMemoryFace(byte[] data, int dataSize, int faceIndex) {
-			ByteBuffer buffer = BufferUtils.newByteBuffer(data.length);
-			BufferUtils.copy(data, 0, buffer, data.length);
-			return newMemoryFace(buffer, faceIndex);
-		}
-
-		public Face newMemoryFace(ByteBuffer buffer, int faceIndex) {
-			ArrayBufferView buf = ((HasArrayBufferView)buffer).getTypedArray();
-			int[] addressToFree = new int[] {0}; // Hacky way to get two return values
-			int face = newMemoryFace(address, buf, buffer.remaining(), faceIndex, addressToFree);
-			if (face == 0) {
-				if (addressToFree[0] != 0) { // 'Zero' would mean allocating the buffer failed
-					nativeFree(addressToFree[0]);
-				}
-				throw new GdxRuntimeException("Couldn't load font, FreeType error code: " + getLastErrorCode());
-			}
-			else {
-				fontData.put(face, addressToFree[0]);
-				return new Face(face, this);
-			}
-		}
-
-		private static native int newMemoryFace (int library, ArrayBufferView data, int dataSize, int faceIndex,
-			int[] outAddressToFree)/*-{
-			var address = $wnd.Module._malloc(data.length);
-			outAddressToFree[0] = address;
-			$wnd.Module.writeArrayToMemory(data, address);
-			return $wnd.Module._c_Library_newMemoryFace(library, address,
-						dataSize, faceIndex);
-			}-*/;
-
-		public Stroker createStroker() {
-			int stroker = strokerNew(address);
-			if(stroker == 0) throw new GdxRuntimeException("Couldn't create FreeType stroker, FreeType error code: " + getLastErrorCode());
-			return new Stroker(stroker);
-		}
-
-		private static native int strokerNew (int library)/*-{
-			return $wnd.Module._c_Library_strokerNew(library);
-		}-*/;
-	}
-	
-	public static class Face extends Pointer implements Disposable {
-		Library library;
-		
-		public Face (int address, Library library) {
-			super(address);
-			this.library = library;
-		}
-		
-		@Override
-		public void dispose () {
-			doneFace(address);
-			Integer freeAddress = library.fontData.get(address);
-			if (freeAddress != 0) { // Don't free 'zero' address
-				library.fontData.remove(address);
-				nativeFree(freeAddress);
-			}
-		}
-
-		private static native void doneFace (int face)/*-{
-			$wnd.Module._c_Face_doneFace(face);
-		}-*/;
-
-		public int getFaceFlags() {
-			return getFaceFlags(address);
-		}
-		
-		private static native int getFaceFlags (int face)/*-{
-			return $wnd.Module._c_Face_getFaceFlags(face);
-		}-*/;
-		
-		public int getStyleFlags() {
-			return getStyleFlags(address);
-		}
-		
-		private static native int getStyleFlags (int face)/*-{
-			return $wnd.Module._c_Face_getStyleFlags(face);
-		}-*/;
-
-		
-		public int getNumGlyphs() {
-			return getNumGlyphs(address);
-		}
-		
-		private static native int getNumGlyphs (int face)/*-{
-			return $wnd.Module._c_Face_getNumGlyphs(face);
-		}-*/;
-		
-		public int getAscender() {
-			return getAscender(address);
-		}
-		
-		private static native int getAscender (int face)/*-{
-			return $wnd.Module._c_Face_getAscender(face);
-		}-*/;
-		
-		public int getDescender() {
-			return getDescender(address);
-		}
-		
-		private static native int getDescender (int face)/*-{
-			return $wnd.Module._c_Face_getDescender(face);
-		}-*/;
-		
-		public int getHeight() {
-			return getHeight(address);
-		}
-		
-		private static native int getHeight (int face)/*-{
-			return $wnd.Module._c_Face_getHeight(face);
-		}-*/;
-		
-		public int getMaxAdvanceWidth() {
-			return getMaxAdvanceWidth(address);
-		}
-		
-		private static native int getMaxAdvanceWidth (int face)/*-{
-			return $wnd.Module._c_Face_getMaxAdvanceWidth(face);
-		}-*/;
-		
-		public int getMaxAdvanceHeight() {
-			return getMaxAdvanceHeight(address);
-		}
-		
-		private static native int getMaxAdvanceHeight (int face)/*-{
-			return $wnd.Module._c_Face_getMaxAdvanceHeight(face);
-		}-*/;
-		
-		public int getUnderlinePosition() {
-			return getUnderlinePosition(address);
-		}
-		
-		private static native int getUnderlinePosition (int face)/*-{
-			return $wnd.Module._c_Face_getUnderlinePosition(face);
-		}-*/;
-		
-		public int getUnderlineThickness() {
-			return getUnderlineThickness(address);
-		}
-		
-		private static native int getUnderlineThickness (int face)/*-{
-			return $wnd.Module._c_Face_getUnderlineThickness(face);
-		}-*/;
-		
-		public boolean selectSize(int strikeIndex) {
-			return selectSize(address, strikeIndex);
-		}
-
-		private static native boolean selectSize (int face, int strike_index)/*-{
-			return !!$wnd.Module._c_Face_selectSize(face, strike_index);
-		}-*/;
-
-		public boolean setCharSize(int charWidth, int charHeight, int horzResolution, int vertResolution) {
-			return setCharSize(address, charWidth, charHeight, horzResolution, vertResolution);
-		}
-
-		private static native boolean setCharSize (int face, int charWidth, int charHeight, int horzResolution,
-				int vertResolution)/*-{
-				return !!$wnd.Module._c_Face_setCharSize(face, charWidth,
-						charHeight, horzResolution, vertResolution);
-		}-*/;
-
-		public boolean setPixelSizes(int pixelWidth, int pixelHeight) {
-			return setPixelSizes(address, pixelWidth, pixelHeight);
-		}
-
-		private static native boolean setPixelSizes (int face, int pixelWidth, int pixelHeight)/*-{
-			return !!$wnd.Module._c_Face_setPixelSizes(face, pixelWidth,
-				pixelHeight);
-		}-*/;
-
-		public boolean loadGlyph(int glyphIndex, int loadFlags) {
-			return loadGlyph(address, glyphIndex, loadFlags);
-		}
-
-		private static native boolean loadGlyph (int face, int glyphIndex, int loadFlags)/*-{
-			return !!$wnd.Module._c_Face_loadGlyph(face, glyphIndex, loadFlags);
-		}-*/;
-
-		public boolean loadChar(int charCode, int loadFlags) {
-			return loadChar(address, charCode, loadFlags);
-		}
-
-		private static native boolean loadChar (int face, int charCode, int loadFlags)/*-{
-			return !!$wnd.Module._c_Face_loadChar(face, charCode, loadFlags);
-		}-*/;
-
-		public GlyphSlot getGlyph() {
-			return new GlyphSlot(getGlyph(address));
-		}
-		
-		private static native int getGlyph (int face)/*-{
-			return $wnd.Module._c_Face_getGlyph(face);
-		}-*/;
-		
-		public Size getSize() {
-			return new Size(getSize(address));
-		}
-		
-		private static native int getSize (int face)/*-{
-			return $wnd.Module._c_Face_getSize(face);
-		}-*/;
-
-		public boolean hasKerning() {
-			return hasKerning(address);
-		}
-
-		private static native boolean hasKerning (int face)/*-{
-			return !!$wnd.Module._c_Face_hasKerning(face);
-		}-*/;
-
-		public int getKerning(int leftGlyph, int rightGlyph, int kernMode) {
-			return getKerning(address, leftGlyph, rightGlyph, kernMode);
-		}
-
-		private static native int getKerning (int face, int leftGlyph, int rightGlyph, int kernMode)/*-{
-			return $wnd.Module._c_Face_getKerning(face, leftGlyph, rightGlyph,
-						kernMode);
-		}-*/;
-
-		public int getCharIndex(int charCode) {
-			return getCharIndex(address, charCode);
-		}
-
-		private static native int getCharIndex (int face, int charCode)/*-{
-			return $wnd.Module._c_Face_getCharIndex(face, charCode);
-		}-*/;
-
-	}
-	
-	public static class Size extends Pointer {
-		Size (int address) {
-			super(address);
-		}
-		
-		public SizeMetrics getMetrics() {
-			return new SizeMetrics(getMetrics(address));
-		}
-		
-		private static native int getMetrics (int address)/*-{
-			return $wnd.Module._c_Size_getMetrics(address);
-		}-*/;
-	}
-	
-	public static class SizeMetrics extends Pointer {
-		SizeMetrics (int address) {
-			super(address);
-		}
-		
-		public int getXppem() {
-			return getXppem(address);
-		}
-		
-		private static native int getXppem (int metrics)/*-{
-			return $wnd.Module._c_SizeMetrics_getXppem(metrics);
-		}-*/;
-		
-		public int getYppem() {
-			return getYppem(address);
-		}
-		
-		private static native int getYppem (int metrics)/*-{
-			return $wnd.Module._c_SizeMetrics_getYppem(metrics);
-		}-*/;
-		
-		public int getXScale() {
-			return getXscale(address);
-		}
-		
-		private static native int getXscale (int metrics)/*-{
-			return $wnd.Module._c_SizeMetrics_getXscale(metrics);
-		}-*/;
-		
-		public int getYscale() {
-			return getYscale(address);
-		}
-		
-		private static native int getYscale (int metrics)/*-{
-			return $wnd.Module._c_SizeMetrics_getYscale(metrics);
-		}-*/;
-		
-		public int getAscender() {
-			return getAscender(address);
-		}
-		
-		private static native int getAscender (int metrics)/*-{
-			return $wnd.Module._c_SizeMetrics_getAscender(metrics);
-		}-*/;
-		
-		public int getDescender() {
-			return getDescender(address);
-		}
-		
-		private static native int getDescender (int metrics)/*-{
-			return $wnd.Module._c_SizeMetrics_getDescender(metrics);
-		}-*/;
-		
-		public int getHeight() {
-			return getHeight(address);
-		}
-		
-		private static native int getHeight (int metrics)/*-{
-			return $wnd.Module._c_SizeMetrics_getHeight(metrics);
-		}-*/;
-		
-		public int getMaxAdvance() {
-			return getMaxAdvance(address);
-		}
-		
-		private static native int getMaxAdvance (int metrics)/*-{
-			return $wnd.Module._c_SizeMetrics_getMaxAdvance(metrics);
-		}-*/;
-	}
-	
-	public static class GlyphSlot extends Pointer {
-		GlyphSlot (int address) {
-			super(address);
-		}
-		
-		public GlyphMetrics getMetrics() {
-			return new GlyphMetrics(getMetrics(address));
-		}		
-		
-		private static native int getMetrics (int slot)/*-{
-			return $wnd.Module._c_GlyphSlot_getMetrics(slot);
-		}-*/;
-		
-		public int getLinearHoriAdvance() {
-			return getLinearHoriAdvance(address);
-		}
-		
-		private static native int getLinearHoriAdvance (int slot)/*-{
-			return $wnd.Module._c_GlyphSlot_getLinearHoriAdvance(slot);
-		}-*/;
-		
-		public int getLinearVertAdvance() {
-			return getLinearVertAdvance(address);
-		}
-		
-		private static native int getLinearVertAdvance (int slot)/*-{
-			return $wnd.Module._c_GlyphSlot_getLinearVertAdvance(slot);
-		}-*/;
-		
-		public int getAdvanceX() {
-			return getAdvanceX(address);
-		}
-		
-		private static native int getAdvanceX (int slot)/*-{
-			return $wnd.Module._c_GlyphSlot_getAdvanceX(slot);
-		}-*/;
-		
-		public int getAdvanceY() {
-			return getAdvanceY(address);
-		}
-		
-		private static native int getAdvanceY (int slot)/*-{
-			return $wnd.Module._c_GlyphSlot_getAdvanceY(slot);
-		}-*/;
-		
-		public int getFormat() {
-			return getFormat(address);
-		}
-		
-		private static native int getFormat (int slot)/*-{
-			return $wnd.Module._c_GlyphSlot_getFormat(slot);
-		}-*/;
-		
-		public Bitmap getBitmap() {
-			return new Bitmap(getBitmap(address));
-		}
-		
-		private static native int getBitmap (int slot)/*-{
-			return $wnd.Module._c_GlyphSlot_getBitmap(slot);
-		}-*/;
-		
-		public int getBitmapLeft() {
-			return getBitmapLeft(address);
-		}
-		
-		private static native int getBitmapLeft (int slot)/*-{
-			return $wnd.Module._c_GlyphSlot_getBitmapLeft(slot);
-		}-*/;
-		
-		public int getBitmapTop() {
-			return getBitmapTop(address);
-		}
-		
-		private static native int getBitmapTop (int slot)/*-{
-			return $wnd.Module._c_GlyphSlot_getBitmapTop(slot);
-		}-*/;
-
-		public boolean renderGlyph(int renderMode) {
-			return renderGlyph(address, renderMode);
-		}
-
-		private static native boolean renderGlyph (int slot, int renderMode)/*-{
-			return !!$wnd.Module._c_GlyphSlot_renderGlyph(slot, renderMode);
-		}-*/;
-
-		public Glyph getGlyph() {
-			int glyph = getGlyph(address);
-			if(glyph == 0) throw new GdxRuntimeException("Couldn't get glyph, FreeType error code: " + getLastErrorCode());
-			return new Glyph(glyph);
-		}
-
-		private static native int getGlyph (int glyphSlot)/*-{
-			return $wnd.Module._c_GlyphSlot_getGlyph(glyphSlot);
-		}-*/;
-	}
-	
-	public static class Glyph extends Pointer implements Disposable {
-		private boolean rendered;
-
-		Glyph (int address) {
-			super(address);
-		}
-
-		@Override
-		public void dispose () {
-			done(address);
-		}
-
-		private static native void done (int glyph)/*-{
-			$wnd.Module._c_Glyph_done(glyph);
-		}-*/;
-		
-		private int bTI (boolean bool) {
-			return bool == true ? 1 : 0;
-		}
-
-		public void strokeBorder(Stroker stroker, boolean inside) {
-			address = strokeBorder(address, stroker.address, bTI(inside));
-		}
-
-		private static native int strokeBorder (int glyph, int stroker, int inside)/*-{
-			return $wnd.Module._c_Glyph_strokeBorder(glyph, stroker, inside);
-		}-*/;
-
-		public void toBitmap(int renderMode) {
-			int bitmap = toBitmap(address, renderMode);
-			if (bitmap == 0) throw new GdxRuntimeException("Couldn't render glyph, FreeType error code: " + getLastErrorCode());
-			address = bitmap;
-			rendered = true;
-		}
-
-		private static native int toBitmap (int glyph, int renderMode)/*-{
-			return $wnd.Module._c_Glyph_toBitmap(glyph, renderMode);
-		}-*/;
-
-		public Bitmap getBitmap() {
-			if (!rendered) {
-				throw new GdxRuntimeException("Glyph is not yet rendered");
-			}
-			return new Bitmap(getBitmap(address));
-		}
-
-		private static native int getBitmap (int glyph)/*-{
-			return $wnd.Module._c_Glyph_getBitmap(glyph);
-		}-*/;
-
-		public int getLeft() {
-			if (!rendered) {
-				throw new GdxRuntimeException("Glyph is not yet rendered");
-			}
-			return getLeft(address);
-		}
-
-		private static native int getLeft (int glyph)/*-{
-			return $wnd.Module._c_Glyph_getLeft(glyph);
-		}-*/;
-
-		public int getTop() {
-			if (!rendered) {
-				throw new GdxRuntimeException("Glyph is not yet rendered");
-			}
-			return getTop(address);
-		}
-
-		private static native int getTop (int glyph)/*-{
-			return $wnd.Module._c_Glyph_getTop(glyph);
-		}-*/;
-
-	}
-
-	public static class Bitmap extends Pointer {
-		Bitmap (int address) {
-			super(address);
-		}
-		
-		public int getRows() {
-			return getRows(address);
-		}
-		
-		private static native int getRows (int bitmap)/*-{
-			return $wnd.Module._c_Bitmap_getRows(bitmap);
-		}-*/;
-		
-		public int getWidth() {
-			return getWidth(address);
-		}
-		
-		private static native int getWidth (int bitmap)/*-{
-			return $wnd.Module._c_Bitmap_getWidth(bitmap);
-		}-*/;
-		
-		public int getPitch() {
-			return getPitch(address);
-		}
-		
-		private static native int getPitch (int bitmap)/*-{
-			return $wnd.Module._c_Bitmap_getPitch(bitmap);
-		}-*/;
-		
-		public ByteBuffer getBuffer () {
-			if (getRows() == 0)
-				// Issue #768 - CheckJNI frowns upon env->NewDirectByteBuffer with NULL buffer or capacity 0
-				// "JNI WARNING: invalid values for address (0x0) or capacity (0)"
-				// FreeType sets FT_Bitmap::buffer to NULL when the bitmap is empty (e.g. for ' ')
-				// JNICheck is on by default on emulators and might have a point anyway...
-				// So let's avoid this and just return a dummy non-null non-zero buffer
-				return BufferUtils.newByteBuffer(1);
-			int offset = getBufferAddress(address);
-			int length = getBufferSize(address);
-			Int8Array as = getBuffer(address, offset, length);
-			ArrayBuffer aBuf = as.buffer();
-			ByteBuffer buf = FreeTypeUtil.newDirectReadWriteByteBuffer(aBuf, length, offset);
-
-			return buf;
-		}
-
-		private static native int getBufferAddress (int bitmap)/*-{
-			return $wnd.Module._c_Bitmap_getBufferAddress(bitmap);
-		}-*/;
-
-		private static native int getBufferSize (int bitmap)/*-{
-			return $wnd.Module._c_Bitmap_getBufferSize(bitmap);
-		}-*/;
-
-		private static native Int8Array getBuffer (int bitmap, int offset, int length)/*-{
-			var buff = $wnd.Module.HEAP8.subarray(offset, offset + length);
-			return buff;
-		}-*/;
-
-		// @on
-		public Pixmap getPixmap (Format format, Color color, float gamma) {
-			int width = getWidth(), rows = getRows();
-			ByteBuffer src = getBuffer();
-			FreeTypePixmap pixmap;
-			ByteBuffer changedPixels;
-			int pixelMode = getPixelMode();
-			int rowBytes = Math.abs(getPitch()); // We currently ignore negative pitch.
-			if (color == Color.WHITE && pixelMode == FT_PIXEL_MODE_GRAY && rowBytes == width && gamma == 1) {
-				pixmap = new FreeTypePixmap(width, rows, Format.Alpha);
-				changedPixels = pixmap.getRealPixels();
-				BufferUtils.copy(src, changedPixels, changedPixels.capacity());
-			} else {
-				pixmap = new FreeTypePixmap(width, rows, Format.RGBA8888);
-				int rgba = Color.rgba8888(color);
-				byte[] srcRow = new byte[rowBytes];
-				int[] dstRow = new int[width];
-				changedPixels = pixmap.getRealPixels();
-				IntBuffer dst = changedPixels.asIntBuffer();
-				if (pixelMode == FT_PIXEL_MODE_MONO) {
-					// Use the specified color for each set bit.
-					for (int y = 0; y < rows; y++) {
-						src.get(srcRow);
-						for (int i = 0, x = 0; x < width; i++, x += 8) {
-							byte b = srcRow[i];
-							for (int ii = 0, n = Math.min(8, width - x); ii < n; ii++) {
-								if ((b & (1 << (7 - ii))) != 0)
-									dstRow[x + ii] = rgba;
-								else
-									dstRow[x + ii] = 0;
-							}
-						}
-						dst.put(dstRow);
-					}
-				} else {
-					// Use the specified color for RGB, blend the FreeType bitmap with alpha.
-					int rgb = rgba & 0xffffff00;
-					int a = rgba & 0xff;
-					for (int y = 0; y < rows; y++) {
-						src.get(srcRow);
-						for (int x = 0; x < width; x++) {
-							// Zero raised to any power is always zero.
-							// 255 (=one) raised to any power is always one.
-							// We only need Math.pow() when alpha is NOT zero and NOT one.
-							int alpha = srcRow[x] & 0xff;
-							if (alpha == 0)
-								dstRow[x] = rgb;
-							else if (alpha == 255)
-								dstRow[x] = rgb | a;
-							else
-								dstRow[x] = rgb | (int)(a * (float)Math.pow(alpha / 255f, gamma)); // Inverse gamma.
-						}
-						dst.put(dstRow);
-					}
-				}
-			}
-			
-			pixmap.putPixelsBack(changedPixels);
-			pixmap.setPixelsNull();
-
-			Pixmap converted = pixmap;
-			if (format != pixmap.getFormat()) {
-				converted = new Pixmap(pixmap.getWidth(), pixmap.getHeight(), format);
-				converted.setBlending(Blending.None);
-				converted.drawPixmap(pixmap, 0, 0);
-				converted.setBlending(Blending.SourceOver);
-				pixmap.dispose();
-			}
-			return converted;
-		}
-		// @off
-
-		public int getNumGray() {
-			return getNumGray(address);
-		}
-		
-		private static native int getNumGray (int bitmap)/*-{
-			return $wnd.Module._c_Bitmap_getNumGray(bitmap);
-		}-*/;
-		
-		public int getPixelMode() {
-			return getPixelMode(address);
-		}
-		
-		private static native int getPixelMode (int bitmap)/*-{
-			return $wnd.Module._c_Bitmap_getPixelMode(bitmap);
-		}-*/;
-	}
-	
-	public static class GlyphMetrics extends Pointer {
-		GlyphMetrics (int address) {
-			super(address);
-		}
-		
-		public int getWidth() {
-			return getWidth(address);
-		}
-		
-		private static native int getWidth (int metrics)/*-{
-			return $wnd.Module._c_GlyphMetrics_getWidth(metrics);
-		}-*/;
-		
-		public int getHeight() {
-			return getHeight(address);
-		}
-		
-		private static native int getHeight (int metrics)/*-{
-			return $wnd.Module._c_GlyphMetrics_getHeight(metrics);
-		}-*/;
-		
-		public int getHoriBearingX() {
-			return getHoriBearingX(address);
-		}
-		
-		private static native int getHoriBearingX (int metrics)/*-{
-			return $wnd.Module._c_GlyphMetrics_getHoriBearingX(metrics);
-		}-*/;
-		
-		public int getHoriBearingY() {
-			return getHoriBearingY(address);
-		}
-		
-		private static native int getHoriBearingY (int metrics)/*-{
-			return $wnd.Module._c_GlyphMetrics_getHoriBearingY(metrics);
-		}-*/;
-		
-		public int getHoriAdvance() {
-			return getHoriAdvance(address);
-		}
-		
-		private static native int getHoriAdvance (int metrics)/*-{
-			return $wnd.Module._c_GlyphMetrics_getHoriAdvance(metrics);
-		}-*/;
-	
-		public int getVertBearingX() {
-			return getVertBearingX(address);
-		}
-		
-		private static native int getVertBearingX (int metrics)/*-{
-			return $wnd.Module._c_GlyphMetrics_getVertBearingX(metrics);
-		}-*/;
-		
-		public int getVertBearingY() {
-			return getVertBearingY(address);
-		}
-	
-		private static native int getVertBearingY (int metrics)/*-{
-			return $wnd.Module._c_GlyphMetrics_getVertBearingY(metrics);
-		}-*/;
-		
-		public int getVertAdvance() {
-			return getVertAdvance(address);
-		}
-	
-		private static native int getVertAdvance (int metrics)/*-{
-			return $wnd.Module._c_GlyphMetrics_getVertAdvance(metrics);
-		}-*/;
-	}
-
-	public static class Stroker extends Pointer implements Disposable {
-		Stroker(int address) {
-			super(address);
-		}
-
-		public void set(int radius, int lineCap, int lineJoin, int miterLimit) {
-			set(address, radius, lineCap, lineJoin, miterLimit);
-		}
-
-		private static native void set (int stroker, int radius, int lineCap, int lineJoin, int miterLimit)/*-{
-			$wnd.Module._c_Stroker_set(stroker, radius, lineCap, lineJoin,
-					miterLimit);
-		}-*/;
-
-		@Override
-		public void dispose() {
-			done(address);
-		}
-
-		private static native void done (int stroker)/*-{
-			$wnd.Module._c_Stroker_done(stroker);
-		}-*/;
-	}
-
-   public static int FT_PIXEL_MODE_NONE = 0;
-   public static int FT_PIXEL_MODE_MONO = 1;
-   public static int FT_PIXEL_MODE_GRAY = 2;
-   public static int FT_PIXEL_MODE_GRAY2 = 3;
-   public static int FT_PIXEL_MODE_GRAY4 = 4;
-   public static int FT_PIXEL_MODE_LCD = 5;
-   public static int FT_PIXEL_MODE_LCD_V = 6;
-	
-	private static int encode (char a, char b, char c, char d) {
-		return (a << 24) | (b << 16) | (c << 8) | d;
-	}
-
-	public static int FT_ENCODING_NONE = 0;
-	public static int FT_ENCODING_MS_SYMBOL = encode('s', 'y', 'm', 'b');
-	public static int FT_ENCODING_UNICODE = encode('u', 'n', 'i', 'c');
-	public static int FT_ENCODING_SJIS = encode('s', 'j', 'i', 's');
-	public static int FT_ENCODING_GB2312 = encode('g', 'b', ' ', ' ');
-	public static int FT_ENCODING_BIG5 = encode('b', 'i', 'g', '5');
-	public static int FT_ENCODING_WANSUNG = encode('w', 'a', 'n', 's');
-	public static int FT_ENCODING_JOHAB = encode('j', 'o', 'h', 'a');
-	public static int FT_ENCODING_ADOBE_STANDARD = encode('A', 'D', 'O', 'B');
-	public static int FT_ENCODING_ADOBE_EXPERT = encode('A', 'D', 'B', 'E');
-	public static int FT_ENCODING_ADOBE_CUSTOM = encode('A', 'D', 'B', 'C');
-	public static int FT_ENCODING_ADOBE_LATIN_1 = encode('l', 'a', 't', '1');
-	public static int FT_ENCODING_OLD_LATIN_2 = encode('l', 'a', 't', '2');
-	public static int FT_ENCODING_APPLE_ROMAN = encode('a', 'r', 'm', 'n');
-	
-	public static int FT_FACE_FLAG_SCALABLE          = ( 1 <<  0 );
-	public static int FT_FACE_FLAG_FIXED_SIZES       = ( 1 <<  1 );
-	public static int FT_FACE_FLAG_FIXED_WIDTH       = ( 1 <<  2 );
-	public static int FT_FACE_FLAG_SFNT              = ( 1 <<  3 );
-	public static int FT_FACE_FLAG_HORIZONTAL        = ( 1 <<  4 );
-	public static int FT_FACE_FLAG_VERTICAL          = ( 1 <<  5 );
-	public static int FT_FACE_FLAG_KERNING           = ( 1 <<  6 );
-	public static int FT_FACE_FLAG_FAST_GLYPHS       = ( 1 <<  7 );
-	public static int FT_FACE_FLAG_MULTIPLE_MASTERS  = ( 1 <<  8 );
-	public static int FT_FACE_FLAG_GLYPH_NAMES       = ( 1 <<  9 );
-	public static int FT_FACE_FLAG_EXTERNAL_STREAM   = ( 1 << 10 );
-	public static int FT_FACE_FLAG_HINTER            = ( 1 << 11 );
-	public static int FT_FACE_FLAG_CID_KEYED         = ( 1 << 12 );
-	public static int FT_FACE_FLAG_TRICKY            = ( 1 << 13 );
-	
-	public static int FT_STYLE_FLAG_ITALIC = ( 1 << 0 );
-	public static int FT_STYLE_FLAG_BOLD   = ( 1 << 1 );
-	
-	public static int FT_LOAD_DEFAULT                      = 0x0;
-	public static int FT_LOAD_NO_SCALE                     = 0x1;
-	public static int FT_LOAD_NO_HINTING                   = 0x2;
-	public static int FT_LOAD_RENDER                       = 0x4;
-	public static int FT_LOAD_NO_BITMAP                    = 0x8;
-	public static int FT_LOAD_VERTICAL_LAYOUT              = 0x10;
-	public static int FT_LOAD_FORCE_AUTOHINT               = 0x20;
-	public static int FT_LOAD_CROP_BITMAP                  = 0x40;
-	public static int FT_LOAD_PEDANTIC                     = 0x80;
-	public static int FT_LOAD_IGNORE_GLOBAL_ADVANCE_WIDTH  = 0x200;
-	public static int FT_LOAD_NO_RECURSE                   = 0x400;
-	public static int FT_LOAD_IGNORE_TRANSFORM             = 0x800;
-	public static int FT_LOAD_MONOCHROME                   = 0x1000;
-	public static int FT_LOAD_LINEAR_DESIGN                = 0x2000;
-	public static int FT_LOAD_NO_AUTOHINT                  = 0x8000;
-	
-	public static int FT_LOAD_TARGET_NORMAL                = 0x0;
-	public static int FT_LOAD_TARGET_LIGHT                 = 0x10000;
-	public static int FT_LOAD_TARGET_MONO                  = 0x20000;
-	public static int FT_LOAD_TARGET_LCD                   = 0x30000;
-	public static int FT_LOAD_TARGET_LCD_V                 = 0x40000;
-
-   public static int FT_RENDER_MODE_NORMAL = 0;
-   public static int FT_RENDER_MODE_LIGHT = 1;
-   public static int FT_RENDER_MODE_MONO = 2;
-   public static int FT_RENDER_MODE_LCD = 3;
-   public static int FT_RENDER_MODE_LCD_V = 4;
-   public static int FT_RENDER_MODE_MAX = 5;
-   
-   public static int FT_KERNING_DEFAULT = 0;
-   public static int FT_KERNING_UNFITTED = 1;
-   public static int FT_KERNING_UNSCALED = 2;
-	
-	public static int FT_STROKER_LINECAP_BUTT = 0;
-	public static int FT_STROKER_LINECAP_ROUND = 1;
-	public static int FT_STROKER_LINECAP_SQUARE = 2;
-
-	public static int FT_STROKER_LINEJOIN_ROUND          = 0;
-	public static int FT_STROKER_LINEJOIN_BEVEL          = 1;
-	public static int FT_STROKER_LINEJOIN_MITER_VARIABLE = 2;
-	public static int FT_STROKER_LINEJOIN_MITER          = FT_STROKER_LINEJOIN_MITER_VARIABLE;
-	public static int FT_STROKER_LINEJOIN_MITER_FIXED    = 3;
-
-   public static Library initFreeType() {   	
-   	int address = initFreeTypeJni();
-   	if(address == 0)
-   		throw new GdxRuntimeException("Couldn't initialize FreeType library, FreeType error code: " + getLastErrorCode());
-   	else
-   		return new Library(address);
-   }
-   
-	private static native int initFreeTypeJni ()/*-{
-		return $wnd.Module._c_FreeType_initFreeTypeJni();
-	}-*/;
-
-	public static int toInt (int value) {
-		return ((value + 63) & -64) >> 6;
-	}
-   
-//	public static void main (String[] args) throws Exception {
-//		FreetypeBuild.main(args);
-//		new SharedLibraryLoader("libs/gdx-freetype-natives.jar").load("gdx-freetype");
-//		String chars = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz1234567890\"!`?'.,;:()[]{}<>|/@\\^$-%+=#_&~*�?�?�?�?�? ¡¢£¤¥¦§¨©ª«¬­®¯°±²³´µ¶·¸¹º»¼½¾¿À�?ÂÃÄÅÆÇÈÉÊËÌ�?Î�?�?ÑÒÓÔÕÖ×ØÙÚÛÜ�?Þßàáâãäåæçèéêëìíîïðñòóôõö÷øùúûüýþÿ";
-//		
-//		Library library = FreeType.initFreeType();
-//		Face face = library.newFace(new FileHandle("arial.ttf"), 0);
-//		face.setPixelSizes(0, 15);
-//		SizeMetrics faceMetrics = face.getSize().getMetrics();
-//		System.out.println(toInt(faceMetrics.getAscender()) + ", " + toInt(faceMetrics.getDescender()) + ", " + toInt(faceMetrics.getHeight()));
-//		
-//		for(int i = 0; i < chars.length(); i++) {
-//			if(!FreeType.loadGlyph(face, FreeType.getCharIndex(face, chars.charAt(i)), 0)) continue;
-//			if(!FreeType.renderGlyph(face.getGlyph(), FT_RENDER_MODE_NORMAL)) continue;
-//			Bitmap bitmap = face.getGlyph().getBitmap();
-//			GlyphMetrics glyphMetrics = face.getGlyph().getMetrics();
-//			System.out.println(toInt(glyphMetrics.getHoriBearingX()) + ", " + toInt(glyphMetrics.getHoriBearingY()));
-//			System.out.println(toInt(glyphMetrics.getWidth()) + ", " + toInt(glyphMetrics.getHeight()) + ", " + toInt(glyphMetrics.getHoriAdvance()));
-//			System.out.println(bitmap.getWidth() + ", " + bitmap.getRows() + ", " + bitmap.getPitch() + ", " + bitmap.getNumGray());
-//			for(int y = 0; y < bitmap.getRows(); y++) {
-//				for(int x = 0; x < bitmap.getWidth(); x++) {
-//					System.out.print(bitmap.getBuffer().get(x + bitmap.getPitch() * y) != 0? "X": " ");
-//				}
-//				System.out.println();
-//			}
-//		}
-//	
-//		face.dispose();
-//		library.dispose();
-//	}
-}
+/*******************************************************************************
+ * Copyright 2011 See AUTHORS file.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package com.badlogic.gdx.graphics.g2d.freetype;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.FreeTypeUtil;
+import java.nio.IntBuffer;
+
+import java.nio.HasArrayBufferView;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.FreeTypePixmap;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Pixmap.Blending;
+import com.badlogic.gdx.graphics.Pixmap.Format;
+import com.badlogic.gdx.graphics.g2d.freetype.gwt.FreetypeInjector;
+import com.badlogic.gdx.graphics.g2d.freetype.gwt.inject.FontPrefetcher;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.BufferUtils;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.IdentityMap;
+import com.badlogic.gdx.utils.LongMap;
+import com.badlogic.gdx.utils.ObjectMap;
+import com.badlogic.gdx.utils.StreamUtils;
+import com.google.gwt.typedarrays.shared.ArrayBuffer;
+import com.google.gwt.typedarrays.shared.ArrayBufferView;
+import com.google.gwt.typedarrays.shared.Int8Array;
+import com.google.gwt.typedarrays.shared.TypedArrays;
+
+public class FreeType {
+	// @off
+	/*JNI
+	#include <ft2build.h>
+	#include FT_FREETYPE_H
+	#include FT_STROKER_H
+	
+	static jint lastError = 0;	
+	 */
+	
+	private static native void nativeFree (int address)/*-{
+		$wnd.Module._free(address);
+	}-*/;
+
+	/** Creates Java arrays for results assembled in JSNI. */
+	static int[] newIntArray (int length) {
+		return new int[length];
+	}
+
+	private static native int nativeMalloc (int length)/*-{
+		return $wnd.Module._malloc(length);
+	}-*/;
+
+	/** Returns a buffer backed directly by the given range of the FreeType heap. */
+	static ByteBuffer newHeapBuffer (int address, int length) {
+		Int8Array as = getHeapView(address, length);
+		ArrayBuffer aBuf = as.buffer();
+		return FreeTypeUtil.newDirectReadWriteByteBuffer(aBuf, length, address);
+	}
+
+	private static native Int8Array getHeapView (int offset, int length)/*-{
+		return $wnd.Module.HEAP8.subarray(offset, offset + length);
+	}-*/;
+	
+	/**
+	 * 
+	 * @return returns the last error code FreeType reported
+	 */
+	static native int getLastErrorCode()/*-{
+		return $wnd.Module._c_FreeType_getLastErrorCode();
+	}-*/;
+	
+	private static class Pointer {
+		int address;
+		
+		Pointer(int address) {
+			this.address = address;
+		}
+	}
+	
+	static private final ObjectMap<String, FontBlob> fontBlobs = new ObjectMap<String, FontBlob>();
+
+	/** Font bytes on the heap, shared by all faces opened from them and freed with the last one. Blobs with a key are registered in
+	 * {@link #fontBlobs} so that later faces of the same file or data reuse them. */
+	static class FontBlob {
+		final String key;
+		final int address, length;
+		int references;
+		private String digest;
+
+		FontBlob (String key, int address, int length) {
+			this.key = key;
+			this.address = address;
+			this.length = length;
+			if (key != null) fontBlobs.put(key, this);
+		}
+
+		void release () {
+			if (--references == 0) free();
+		}
+
+		/** Returns the length and two independent 32 bit hashes of the bytes, computed on first use. */
+		String getDigest () {
+			if (digest == null) digest = digest(address, length);
+			return digest;
+		}
+
+		private static native String digest (int address, int length)/*-{
+			var heapU8 = $wnd.Module.HEAPU8;
+			var fnv = 0x811c9dc5, sdbm = 0;
+			for (var i = address, n = address + length; i < n; i++) {
+				var b = heapU8[i];
+				fnv = Math.imul(fnv ^ b, 0x01000193);
+				sdbm = (b + (sdbm << 6) + (sdbm << 16) - sdbm) | 0;
+			}
+			return length.toString(16) + "-" + (fnv >>> 0).toString(16) + "-" + (sdbm >>> 0).toString(16);
+		}-*/;
+
+		void free () {
+			if (key != null) fontBlobs.remove(key);
+			nativeFree(address);
+		}
+	}
+
+	public static class Library extends Pointer implements Disposable {
+		/** The font data each face was opened from, by face address. */
+		LongMap<FontBlob> fontData = new LongMap<FontBlob>();
+		/** The heap blocks of buffers returned by {@link #map(FileHandle)} that no face has taken over yet. Kept by buffer, as a
+		 * buffer's view of the heap is stale once the heap grows. */
+		IdentityMap<ByteBuffer, FontBlob> mappedData = new IdentityMap<ByteBuffer, FontBlob>();
+		/** Number of holders of the shared library, see {@link FreeType#obtainSharedLibrary()}. Zero for private libraries. */
+		int references;
+		
+		Library (int address) {
+			super(address);
+		}
+
+		/** Frees the library and the font data of all faces that were not disposed. A shared library is only freed once every
+		 * holder has disposed it. */
+		@Override
+		public void dispose () {
+			if (this == sharedLibrary) {
+				if (--references > 0) return;
+				sharedLibrary = null;
+			}
+			doneFreeType(address);
+			for (FontBlob blob : fontData.values()) {
+				blob.release();
+			}
+			for (FontBlob blob : mappedData.values()) {
+				blob.free();
+			}
+		}
+
+		private static native void doneFreeType (int library)/*-{
+			$wnd.Module._c_Library_doneFreeType(library);
+		}-*/;
+
+		/** Opens a face of the file. All faces opened from the same file, by any library, share one copy of its bytes on the heap. A
+		 * file prefetched by {@link FontPrefetcher} under its path is not read again. */
+		public Face newFace(FileHandle fontFile, int faceIndex) {
+			String key = fontFile.type() + ":" + fontFile.path();
+			FontBlob blob = fontBlobs.get(key);
+			if (blob == null) {
+				ArrayBuffer prefetched = FontPrefetcher.take(fontFile.path());
+				blob = prefetched != null ? copyBlob(prefetched, key) : readBlob(fontFile, key);
+			}
+			return newFace(blob, faceIndex);
+		}
+
+		/** Opens a face of downloaded data, e.g. taken from {@link FontPrefetcher}. The data is copied to the heap, the buffer is not
+		 * needed afterwards. */
+		public Face newMemoryFace (ArrayBuffer data, int faceIndex) {
+			return newFace(copyBlob(data, null), faceIndex);
+		}
+
+		private static FontBlob copyBlob (ArrayBuffer data, String key) {
+			int length = data.byteLength();
+			int address = heapAlloc(length);
+			copyToHeap(TypedArrays.createInt8Array(data), address);
+			return new FontBlob(key, address, length);
+		}
+
+		/** Reads the file straight into a block on the FreeType heap, standing in for {@link FileHandle#map()} which the GWT
+		 * backend lacks. Passing the returned buffer to {@link #newMemoryFace(ByteBuffer, int)} hands the block over to the face
+		 * without another copy, also if the face can't be opened. A buffer that is not used for a face is freed by
+		 * {@link #unmap(ByteBuffer)}, or with the library.
+		 * <p>
+		 * The buffer is a view of the heap as it is now. The heap is replaced when it grows, e.g. while faces are opened or glyphs
+		 * rendered, and the view is empty from then on, but the buffer can still be handed to a face or unmapped. */
+		public ByteBuffer map (FileHandle file) {
+			FontBlob blob = readBlob(file, null);
+			ByteBuffer buffer = newHeapBuffer(blob.address, blob.length);
+			mappedData.put(buffer, blob);
+			return buffer;
+		}
+
+		/** Frees a buffer returned by {@link #map(FileHandle)} that was not handed over to a face. */
+		public void unmap (ByteBuffer buffer) {
+			FontBlob blob = mappedData.remove(buffer);
+			if (blob != null) blob.free();
+		}
+
+		private static FontBlob readBlob (FileHandle file, String key) {
+			int length = (int)file.length();
+			int address = 0;
+			InputStream input = file.read();
+			try {
+				if (length == 0) {
+					// The size is unknown, so read the file once to get it.
+					byte[] data = StreamUtils.copyStreamToByteArray(input, 1024 * 16);
+					length = data.length;
+					address = heapAlloc(length);
+					copyToHeap(data, address, length);
+				} else {
+					// Trust the specified file size and stream the file into the block chunk by chunk.
+					address = heapAlloc(length);
+					byte[] chunk = new byte[Math.min(length, 1024 * 16)];
+					int offset = 0;
+					while (offset < length) {
+						int count = input.read(chunk, 0, Math.min(chunk.length, length - offset));
+						if (count == -1) break;
+						copyToHeap(chunk, address + offset, count);
+						offset += count;
+					}
+					length = offset;
+				}
+			} catch (IOException ex) {
+				if (address != 0) nativeFree(address);
+				throw new GdxRuntimeException(ex);
+			} finally {
+				StreamUtils.closeQuietly(input);
+			}
+			return new FontBlob(key, address, length);
+		}
+
+		private static int heapAlloc (int length) {
+			int address = nativeMalloc(length);
+			if (address == 0) throw new GdxRuntimeException("Couldn't allocate " + length + " bytes for the font data");
+			return address;
+		}
+
+		private static native void copyToHeap (byte[] data, int address, int length)/*-{
+			var heap8 = $wnd.Module.HEAP8;
+			for (var i = 0; i < length; i++)
+				heap8[address + i] = data[i];
+		}-*/;
+
+		private static native boolean heapEquals (byte[] data, int address, int length)/*-{
+			var heap8 = $wnd.Module.HEAP8;
+			for (var i = 0; i < length; i++)
+				if (heap8[address + i] != data[i]) return false;
+			return true;
+		}-*/;
+
+		/** Opens a face of the data. Faces opened from equal data, by any library, share one copy of it on the heap. */
+		public Face newMemoryFace(byte[] data, int dataSize, int faceIndex) {
+			int hash = data.length;
+			for (int i = 0, n = data.length; i < n; i++)
+				hash = 31 * hash + data[i];
+			String key = "#" + data.length + ":" + hash;
+			FontBlob blob = fontBlobs.get(key);
+			if (blob != null && (blob.length != data.length || !heapEquals(data, blob.address, data.length))) {
+				key = null; // Hash collision, keep a private copy.
+				blob = null;
+			}
+			if (blob == null) {
+				int address = heapAlloc(data.length);
+				copyToHeap(data, address, data.length);
+				blob = new FontBlob(key, address, data.length);
+			}
+			return newFace(blob, faceIndex);
+		}
+
+		public Face newMemoryFace(ByteBuffer buffer, int faceIndex) {
+			FontBlob mapped = mappedData.remove(buffer);
+			if (mapped != null) {
+				// Already on the heap, the face takes over the block. It is freed if the face can't be opened.
+				return newFace(mapped, faceIndex);
+			}
+			ArrayBufferView buf = ((HasArrayBufferView)buffer).getTypedArray();
+			int length = buf.byteLength();
+			if (length < buffer.capacity())
+				throw new GdxRuntimeException("The buffer's memory is gone, e.g. it was a view of the FreeType heap before it grew.");
+			int address = heapAlloc(length);
+			copyToHeap(buf, address);
+			return newFace(new FontBlob(null, address, length), faceIndex);
+		}
+
+		private static native void copyToHeap (ArrayBufferView data, int address)/*-{
+			$wnd.Module.writeArrayToMemory(data, address);
+		}-*/;
+
+		private Face newFace (FontBlob blob, int faceIndex) {
+			int face = newMemoryFace(address, blob.address, blob.length, faceIndex);
+			if (face == 0) {
+				if (blob.references == 0) blob.free();
+				throw new GdxRuntimeException("Couldn't load font, FreeType error code: " + getLastErrorCode());
+			}
+			blob.references++;
+			fontData.put(face, blob);
+			return new Face(face, this);
+		}
+
+		private static native int newMemoryFace (int library, int address, int dataSize, int faceIndex)/*-{
+			return $wnd.Module._c_Library_newMemoryFace(library, address, dataSize, faceIndex);
+		}-*/;
+
+		public Stroker createStroker() {
+			int stroker = strokerNew(address);
+			if(stroker == 0) throw new GdxRuntimeException("Couldn't create FreeType stroker, FreeType error code: " + getLastErrorCode());
+			return new Stroker(stroker);
+		}
+
+		private static native int strokerNew (int library)/*-{
+			return $wnd.Module._c_Library_strokerNew(library);
+		}-*/;
+	}
+	
+	public static class Face extends Pointer implements Disposable {
+		Library library;
+		// Wrappers are reused so that steady-state glyph generation does not allocate.
+		private GlyphSlot glyph;
+		private Size size;
+		private CharMap charMap;
+		// The size glyphs are scaled with and the one the face was created with, null until first needed. See newSize().
+		Size activeSize, defaultSize;
+		// Sizes created with newSize() and not disposed yet, freed with the face.
+		Array<Size> sizes;
+		
+		public Face (int address, Library library) {
+			super(address);
+			this.library = library;
+		}
+		
+		@Override
+		public void dispose () {
+			doneFace(address);
+			if (sizes != null) {
+				for (Size size : sizes)
+					size.address = 0;
+				sizes = null;
+			}
+			FontBlob blob = library.fontData.remove(address);
+			if (blob != null) blob.release();
+		}
+
+		private static native void doneFace (int face)/*-{
+			$wnd.Module._c_Face_doneFace(face);
+		}-*/;
+
+		public int getFaceFlags() {
+			return getFaceFlags(address);
+		}
+		
+		private static native int getFaceFlags (int face)/*-{
+			return $wnd.Module._c_Face_getFaceFlags(face);
+		}-*/;
+		
+		public int getStyleFlags() {
+			return getStyleFlags(address);
+		}
+		
+		private static native int getStyleFlags (int face)/*-{
+			return $wnd.Module._c_Face_getStyleFlags(face);
+		}-*/;
+
+		
+		public int getNumGlyphs() {
+			return getNumGlyphs(address);
+		}
+		
+		private static native int getNumGlyphs (int face)/*-{
+			return $wnd.Module._c_Face_getNumGlyphs(face);
+		}-*/;
+		
+		public int getAscender() {
+			return getAscender(address);
+		}
+		
+		private static native int getAscender (int face)/*-{
+			return $wnd.Module._c_Face_getAscender(face);
+		}-*/;
+		
+		public int getDescender() {
+			return getDescender(address);
+		}
+		
+		private static native int getDescender (int face)/*-{
+			return $wnd.Module._c_Face_getDescender(face);
+		}-*/;
+		
+		public int getHeight() {
+			return getHeight(address);
+		}
+		
+		private static native int getHeight (int face)/*-{
+			return $wnd.Module._c_Face_getHeight(face);
+		}-*/;
+		
+		public int getMaxAdvanceWidth() {
+			return getMaxAdvanceWidth(address);
+		}
+		
+		private static native int getMaxAdvanceWidth (int face)/*-{
+			return $wnd.Module._c_Face_getMaxAdvanceWidth(face);
+		}-*/;
+		
+		public int getMaxAdvanceHeight() {
+			return getMaxAdvanceHeight(address);
+		}
+		
+		private static native int getMaxAdvanceHeight (int face)/*-{
+			return $wnd.Module._c_Face_getMaxAdvanceHeight(face);
+		}-*/;
+		
+		public int getUnderlinePosition() {
+			return getUnderlinePosition(address);
+		}
+		
+		private static native int getUnderlinePosition (int face)/*-{
+			return $wnd.Module._c_Face_getUnderlinePosition(face);
+		}-*/;
+		
+		public int getUnderlineThickness() {
+			return getUnderlineThickness(address);
+		}
+		
+		private static native int getUnderlineThickness (int face)/*-{
+			return $wnd.Module._c_Face_getUnderlineThickness(face);
+		}-*/;
+		
+		public boolean selectSize(int strikeIndex) {
+			getActiveSize().forgetPixelSizes();
+			return selectSize(address, strikeIndex);
+		}
+
+		private static native boolean selectSize (int face, int strike_index)/*-{
+			return !!$wnd.Module._c_Face_selectSize(face, strike_index);
+		}-*/;
+
+		public boolean setCharSize(int charWidth, int charHeight, int horzResolution, int vertResolution) {
+			getActiveSize().forgetPixelSizes();
+			return setCharSize(address, charWidth, charHeight, horzResolution, vertResolution);
+		}
+
+		private static native boolean setCharSize (int face, int charWidth, int charHeight, int horzResolution,
+				int vertResolution)/*-{
+				return !!$wnd.Module._c_Face_setCharSize(face, charWidth,
+						charHeight, horzResolution, vertResolution);
+		}-*/;
+
+		/** Sets the pixel size of the active size. Does nothing if it already has the requested size, so fonts that each keep
+		 * their own size, see {@link #newSize()}, only pay for scaling once. */
+		public boolean setPixelSizes(int pixelWidth, int pixelHeight) {
+			Size size = getActiveSize();
+			if (pixelWidth == size.pixelWidth && pixelHeight == size.pixelHeight) return true;
+			if (!setPixelSizes(address, pixelWidth, pixelHeight)) {
+				size.forgetPixelSizes();
+				return false;
+			}
+			size.pixelWidth = pixelWidth;
+			size.pixelHeight = pixelHeight;
+			return true;
+		}
+
+		/** Creates another size for this face, which keeps its own scale and metrics. It is used once {@link Size#activate()
+		 * activated}; switching between sizes is much cheaper than setting a different pixel size. Sizes are freed with the face
+		 * or by {@link Size#dispose()}.
+		 * @throws GdxRuntimeException if the loaded FreeType build can't, see {@link Size#isSupported()} */
+		public Size newSize () {
+			if (!Size.isSupported()) throw new GdxRuntimeException("The loaded FreeType build has no FT_New_Size, rebuild it");
+			getActiveSize();
+			int size = newSize(address);
+			if (size == 0) throw new GdxRuntimeException("Couldn't create size, FreeType error code: " + getLastErrorCode());
+			Size newSize = new Size(size, this);
+			if (sizes == null) sizes = new Array<Size>();
+			sizes.add(newSize);
+			return newSize;
+		}
+
+		private static native int newSize (int face)/*-{
+			return $wnd.Module._c_Face_newSize(face);
+		}-*/;
+
+		/** @return the size the face was created with, to go back to it with {@link Size#activate()} */
+		public Size getDefaultSize () {
+			getActiveSize();
+			return defaultSize;
+		}
+
+		private Size getActiveSize () {
+			if (activeSize == null) activeSize = defaultSize = new Size(getSize(address), this);
+			return activeSize;
+		}
+
+		private static native boolean setPixelSizes (int face, int pixelWidth, int pixelHeight)/*-{
+			return !!$wnd.Module._c_Face_setPixelSizes(face, pixelWidth,
+				pixelHeight);
+		}-*/;
+
+		public boolean loadGlyph(int glyphIndex, int loadFlags) {
+			return loadGlyph(address, glyphIndex, loadFlags);
+		}
+
+		private static native boolean loadGlyph (int face, int glyphIndex, int loadFlags)/*-{
+			return !!$wnd.Module._c_Face_loadGlyph(face, glyphIndex, loadFlags);
+		}-*/;
+
+		public boolean loadChar(int charCode, int loadFlags) {
+			return loadChar(address, charCode, loadFlags);
+		}
+
+		private static native boolean loadChar (int face, int charCode, int loadFlags)/*-{
+			return !!$wnd.Module._c_Face_loadChar(face, charCode, loadFlags);
+		}-*/;
+
+		/** @return the glyph slot of this face. The instance is owned by the face and reused by subsequent calls. */
+		public GlyphSlot getGlyph() {
+			int slot = getGlyph(address);
+			if (glyph == null)
+				glyph = new GlyphSlot(slot);
+			else
+				glyph.address = slot;
+			return glyph;
+		}
+		
+		private static native int getGlyph (int face)/*-{
+			return $wnd.Module._c_Face_getGlyph(face);
+		}-*/;
+		
+		/** @return the active size of this face. The instance is owned by the face and reused by subsequent calls. */
+		public Size getSize() {
+			int size = getSize(address);
+			if (this.size == null)
+				this.size = new Size(size);
+			else
+				this.size.address = size;
+			return this.size;
+		}
+		
+		private static native int getSize (int face)/*-{
+			return $wnd.Module._c_Face_getSize(face);
+		}-*/;
+
+		public boolean hasKerning() {
+			return hasKerning(address);
+		}
+
+		private static native boolean hasKerning (int face)/*-{
+			return !!$wnd.Module._c_Face_hasKerning(face);
+		}-*/;
+
+		public int getKerning(int leftGlyph, int rightGlyph, int kernMode) {
+			return getKerning(address, leftGlyph, rightGlyph, kernMode);
+		}
+
+		private static native int getKerning (int face, int leftGlyph, int rightGlyph, int kernMode)/*-{
+			return $wnd.Module._c_Face_getKerning(face, leftGlyph, rightGlyph,
+						kernMode);
+		}-*/;
+
+		/** Returns the kerning of all ordered pairs of the given glyphs in a single call, skipping pairs without kerning. The result
+		 * holds a triple per pair: the positions of the left and right glyph in glyphIndices and the kerning as returned by
+		 * {@link #getKerning(int, int, int)}. Glyph index 0 is ignored. Builds with c_Face_getKerningPairs of emscripten/glue.c
+		 * only look up the pairs of the kern table of TrueType fonts, older ones look up every pair.
+		 * @throws GdxRuntimeException if the pairs don't fit in memory */
+		public int[] getKerningPairs (int[] glyphIndices, int kernMode) {
+			int[] pairs = getKerningPairs(address, glyphIndices, kernMode);
+			if (pairs == null) throw new GdxRuntimeException("Couldn't allocate the kerning pairs");
+			return pairs;
+		}
+
+		private static native int[] getKerningPairs (int face, int[] glyphIndices, int kernMode)/*-{
+			var module = $wnd.Module;
+			var n = glyphIndices.length;
+			if (typeof module._c_Face_getKerningPairs === "function") {
+				var glyphs = module._malloc(Math.max(n, 1) * 4);
+				if (glyphs == 0) return null;
+				module.HEAP32.set(glyphIndices, glyphs >> 2);
+				var block = module._c_Face_getKerningPairs(face, glyphs, n, kernMode);
+				module._free(glyphs);
+				if (block == 0) return null;
+				var heap32 = module.HEAP32, p = block >> 2; // Fetched after the call, which can grow the heap.
+				var length = heap32[p] * 3;
+				var result = @com.badlogic.gdx.graphics.g2d.freetype.FreeType::newIntArray(I)(length);
+				for (var i = 0; i < length; i++)
+					result[i] = heap32[p + 1 + i];
+				module._free(block);
+				return result;
+			}
+			var pairs = [];
+			for (var i = 0; i < n; i++) {
+				var left = glyphIndices[i];
+				if (left == 0) continue;
+				for (var ii = 0; ii < n; ii++) {
+					var right = glyphIndices[ii];
+					if (right == 0) continue;
+					var kerning = module._c_Face_getKerning(face, left, right, kernMode);
+					if (kerning != 0) pairs.push(i, ii, kerning);
+				}
+			}
+			var result = @com.badlogic.gdx.graphics.g2d.freetype.FreeType::newIntArray(I)(pairs.length);
+			for (var i = 0; i < pairs.length; i++)
+				result[i] = pairs[i];
+			return result;
+		}-*/;
+
+		/** Returns the kerning of each given pair of glyphs in a single call, as returned by {@link #getKerning(int, int, int)}.
+		 * @param glyphPairs the left and right glyph index of each pair */
+		public int[] getKerning (int[] glyphPairs, int kernMode) {
+			int[] kerning = new int[glyphPairs.length / 2];
+			getKerning(address, glyphPairs, kernMode, kerning);
+			return kerning;
+		}
+
+		private static native void getKerning (int face, int[] glyphPairs, int kernMode, int[] kerning)/*-{
+			var module = $wnd.Module;
+			for (var i = 0, n = kerning.length; i < n; i++)
+				kerning[i] = module._c_Face_getKerning(face, glyphPairs[i * 2], glyphPairs[i * 2 + 1], kernMode);
+		}-*/;
+
+		public int getCharIndex(int charCode) {
+			return getCharIndex(address, charCode);
+		}
+
+		/** Identifies the font data and the face index, so generated fonts can be cached across sessions. The font data is hashed
+		 * once, when this is first called for it. */
+		public String getDataDigest () {
+			return library.fontData.get(address).getDigest() + "-" + getFaceIndex(address);
+		}
+
+		private static native int getFaceIndex (int face)/*-{
+			return $wnd.Module.HEAP32[(face >> 2) + 1]; // FT_FaceRec::face_index
+		}-*/;
+
+		public int getFaceIndex () {
+			return getFaceIndex(address);
+		}
+
+		/** @return a copy of the font data the face was opened from, e.g. to open it again in a worker */
+		public ArrayBuffer getData () {
+			FontBlob blob = library.fontData.get(address);
+			return copyFromHeap(blob.address, blob.length);
+		}
+
+		private static native ArrayBuffer copyFromHeap (int address, int length)/*-{
+			return $wnd.Module.HEAPU8.slice(address, address + length).buffer;
+		}-*/;
+
+		/** Returns the glyph indices of the face's characters, read from the charmap on demand and cached with the face. */
+		public CharMap getCharMap () {
+			if (charMap == null) charMap = new CharMap(address);
+			return charMap;
+		}
+
+		private static native int getCharIndex (int face, int charCode)/*-{
+			return $wnd.Module._c_Face_getCharIndex(face, charCode);
+		}-*/;
+
+		/** Stores the outline heights of the given characters in font units, 0 for characters that fail to load. The glyphs are
+		 * loaded with FT_LOAD_NO_SCALE, which skips hinting, so this is a cheap way to order glyphs by size before rendering them. */
+		public void getOutlineHeights (int[] charCodes, int[] heights) {
+			getOutlineHeights(address, charCodes, FT_LOAD_NO_SCALE, heights);
+		}
+
+		private static native void getOutlineHeights (int face, int[] charCodes, int loadFlags, int[] heights)/*-{
+			var module = $wnd.Module;
+			for (var i = 0, n = charCodes.length; i < n; i++) {
+				if (!module._c_Face_loadChar(face, charCodes[i], loadFlags)) {
+					heights[i] = 0;
+					continue;
+				}
+				var slot = module._c_Face_getGlyph(face);
+				heights[i] = module.HEAP32[(slot >> 2) + 7]; // metrics.height
+			}
+		}-*/;
+
+		/** Loads and renders all given characters in a single call. The bitmaps are copied into one heap block, so the glyph slot
+		 * can be reused for the next character. Characters that are missing from the face (except 0, the missing glyph) or that
+		 * fail to load or render are marked as not loaded.
+		 * @return the rendered glyphs, which have to be disposed */
+		public RenderedGlyphs renderGlyphs (int[] charCodes, int loadFlags, int renderMode) {
+			int[] table = new int[charCodes.length * RenderedGlyphs.STRIDE];
+			int block = renderGlyphs(address, charCodes, loadFlags, renderMode, table);
+			return new RenderedGlyphs(block, table);
+		}
+
+		private static native int renderGlyphs (int face, int[] charCodes, int loadFlags, int renderMode, int[] table)/*-{
+			var module = $wnd.Module;
+			var stride = @com.badlogic.gdx.graphics.g2d.freetype.FreeType.RenderedGlyphs::STRIDE;
+			var n = charCodes.length;
+			var offsets = [];
+			var capacity = 0, size = 0, block = 0;
+			try {
+				for (var i = 0; i < n; i++) {
+					var c = charCodes[i], row = i * stride;
+					for (var ii = 0; ii < stride; ii++)
+						table[row + ii] = 0;
+					if (c != 0 && module._c_Face_getCharIndex(face, c) == 0) continue;
+					if (!module._c_Face_loadChar(face, c, loadFlags)) continue;
+					var slot = module._c_Face_getGlyph(face);
+					if (!module._c_GlyphSlot_renderGlyph(slot, renderMode)) continue;
+					@com.badlogic.gdx.graphics.g2d.freetype.FreeType.Bitmap::readHeader(I[II)(slot + 76, table, row);
+					var heap32 = module.HEAP32, p = slot >> 2;
+					table[row + 6] = heap32[p + 25]; // bitmap_left
+					table[row + 7] = heap32[p + 26]; // bitmap_top
+					table[row + 8] = heap32[p + 10]; // metrics.horiAdvance
+					table[row + 9] = heap32[p + 7]; // metrics.height
+					table[row + 10] = 1;
+					// Copy the bitmap, rows * |pitch| bytes, to the end of the block.
+					var pitch = Math.abs(table[row + 2]);
+					var length = table[row] * pitch;
+					table[row + 2] = pitch;
+					if (size + length > capacity) {
+						var newCapacity = Math.max(capacity * 2, size + length, 4096);
+						var grown = block == 0 ? module._malloc(newCapacity) : module._realloc(block, newCapacity);
+						// A failed realloc leaves the block as it was, the catch below frees it.
+						if (grown == 0) throw new Error("Couldn't allocate " + newCapacity + " bytes for rendered glyphs");
+						block = grown;
+						capacity = newCapacity;
+					}
+					var heap8 = module.HEAPU8; // Fetched after malloc, which can grow the heap.
+					heap8.set(heap8.subarray(table[row + 3], table[row + 3] + length), block + size);
+					offsets[i] = size;
+					size += length;
+				}
+			} catch (e) {
+				if (block != 0) module._free(block);
+				throw e;
+			}
+			// The block may have moved while growing, so buffer addresses are resolved at the end.
+			for (var i = 0; i < n; i++)
+				if (table[i * stride + 10]) table[i * stride + 3] = block + offsets[i];
+			return block;
+		}-*/;
+
+	}
+	
+	/** The charmap of a face. Glyph indices of the basic multilingual plane are looked up in pages of 256 characters, each filled
+	 * with a single call the first time one of its characters is requested, so lookups are array reads. Other code points are
+	 * looked up directly. */
+	public static class CharMap {
+		private final int face;
+		private final int[][] pages = new int[256][];
+
+		CharMap (int face) {
+			this.face = face;
+		}
+
+		/** @return the glyph index of the code point, 0 if the face has no glyph for it */
+		public int getCharIndex (int c) {
+			if (c >>> 16 != 0) return getCharIndex(face, c);
+			int[] page = pages[c >>> 8];
+			if (page == null) {
+				page = new int[256];
+				getCharIndices(face, c & 0xff00, page);
+				pages[c >>> 8] = page;
+			}
+			return page[c & 0xff];
+		}
+
+		/** @return whether the face has a glyph for the code point */
+		public boolean hasChar (int c) {
+			return getCharIndex(c) != 0;
+		}
+
+		private static native int getCharIndex (int face, int charCode)/*-{
+			return $wnd.Module._c_Face_getCharIndex(face, charCode);
+		}-*/;
+
+		private static native void getCharIndices (int face, int first, int[] out)/*-{
+			var module = $wnd.Module;
+			for (var i = 0; i < 256; i++)
+				out[i] = module._c_Face_getCharIndex(face, first + i);
+		}-*/;
+	}
+
+	public static class Size extends Pointer implements Disposable {
+		private SizeMetrics metrics;
+		// The face of sizes from Face#newSize() and Face#getDefaultSize(), null for the wrapper of Face#getSize().
+		private final Face face;
+		// The pixel size last requested successfully, -1 if the size was set some other way.
+		int pixelWidth = -1, pixelHeight = -1;
+
+		Size (int address) {
+			this(address, null);
+		}
+
+		Size (int address, Face face) {
+			super(address);
+			this.face = face;
+		}
+
+		/** @return true if the loaded FreeType build exports the size functions of emscripten/glue.c. Builds older than them
+		 *         only have each face's default size. */
+		public static native boolean isSupported ()/*-{
+			return typeof $wnd.Module._c_Face_newSize === "function";
+		}-*/;
+
+		void forgetPixelSizes () {
+			pixelWidth = pixelHeight = -1;
+		}
+
+		/** Makes this the size the face loads glyphs with and {@link Face#setPixelSizes(int, int)} sets. Only for sizes of
+		 * {@link Face#newSize()} and {@link Face#getDefaultSize()}. */
+		public boolean activate () {
+			if (face == null) throw new GdxRuntimeException("Only sizes of Face#newSize() can be activated");
+			if (face.activeSize == this) return true;
+			if (address == 0 || !activate(address)) return false;
+			face.activeSize = this;
+			return true;
+		}
+
+		private static native boolean activate (int size)/*-{
+			return !!$wnd.Module._c_Size_activate(size);
+		}-*/;
+
+		/** Frees a size of {@link Face#newSize()}. The face goes back to its default size if this one was active. Does nothing
+		 * once the face is disposed, which frees its sizes. */
+		@Override
+		public void dispose () {
+			if (address == 0) return;
+			if (face == null || this == face.defaultSize)
+				throw new GdxRuntimeException("Only sizes of Face#newSize() can be disposed");
+			if (face.activeSize == this) face.getDefaultSize().activate();
+			done(address);
+			face.sizes.removeValue(this, true);
+			address = 0;
+		}
+
+		private static native void done (int size)/*-{
+			$wnd.Module._c_Size_done(size);
+		}-*/;
+		
+		/** @return the metrics of this size. The instance is owned by the size and reused by subsequent calls. */
+		public SizeMetrics getMetrics() {
+			int metrics = getMetrics(address);
+			if (this.metrics == null)
+				this.metrics = new SizeMetrics(metrics);
+			else
+				this.metrics.address = metrics;
+			return this.metrics;
+		}
+		
+		private static native int getMetrics (int address)/*-{
+			return $wnd.Module._c_Size_getMetrics(address);
+		}-*/;
+	}
+	
+	public static class SizeMetrics extends Pointer {
+		SizeMetrics (int address) {
+			super(address);
+		}
+		
+		public int getXppem() {
+			return getXppem(address);
+		}
+		
+		private static native int getXppem (int metrics)/*-{
+			return $wnd.Module._c_SizeMetrics_getXppem(metrics);
+		}-*/;
+		
+		public int getYppem() {
+			return getYppem(address);
+		}
+		
+		private static native int getYppem (int metrics)/*-{
+			return $wnd.Module._c_SizeMetrics_getYppem(metrics);
+		}-*/;
+		
+		public int getXScale() {
+			return getXscale(address);
+		}
+		
+		private static native int getXscale (int metrics)/*-{
+			return $wnd.Module._c_SizeMetrics_getXscale(metrics);
+		}-*/;
+		
+		public int getYscale() {
+			return getYscale(address);
+		}
+		
+		private static native int getYscale (int metrics)/*-{
+			return $wnd.Module._c_SizeMetrics_getYscale(metrics);
+		}-*/;
+		
+		public int getAscender() {
+			return getAscender(address);
+		}
+		
+		private static native int getAscender (int metrics)/*-{
+			return $wnd.Module._c_SizeMetrics_getAscender(metrics);
+		}-*/;
+		
+		public int getDescender() {
+			return getDescender(address);
+		}
+		
+		private static native int getDescender (int metrics)/*-{
+			return $wnd.Module._c_SizeMetrics_getDescender(metrics);
+		}-*/;
+		
+		public int getHeight() {
+			return getHeight(address);
+		}
+		
+		private static native int getHeight (int metrics)/*-{
+			return $wnd.Module._c_SizeMetrics_getHeight(metrics);
+		}-*/;
+		
+		public int getMaxAdvance() {
+			return getMaxAdvance(address);
+		}
+		
+		private static native int getMaxAdvance (int metrics)/*-{
+			return $wnd.Module._c_SizeMetrics_getMaxAdvance(metrics);
+		}-*/;
+
+		/** Indices into the array filled by {@link #readMetrics(int[])}. */
+		public static final int METRICS_XPPEM = 0, METRICS_YPPEM = 1, METRICS_XSCALE = 2, METRICS_YSCALE = 3,
+			METRICS_ASCENDER = 4, METRICS_DESCENDER = 5, METRICS_HEIGHT = 6, METRICS_MAX_ADVANCE = 7, METRICS_SIZE = 8;
+
+		/** Copies all size metrics into <code>out</code> in a single call.
+		 * @param out an array of at least {@link #METRICS_SIZE} elements, indexed by the <code>METRICS_*</code> constants */
+		public void readMetrics (int[] out) {
+			readMetrics(address, out);
+		}
+
+		// Offsets mirror the _c_SizeMetrics_* accessors.
+		private static native void readMetrics (int metrics, int[] out)/*-{
+			var heap32 = $wnd.Module.HEAP32;
+			var heapu16 = $wnd.Module.HEAPU16;
+			var p = metrics >> 2;
+			out[0] = heapu16[metrics >> 1];
+			out[1] = heapu16[(metrics + 2) >> 1];
+			for (var i = 1; i < 7; i++)
+				out[i + 1] = heap32[p + i];
+		}-*/;
+	}
+	
+	public static class GlyphSlot extends Pointer {
+		private GlyphMetrics metrics;
+		private Bitmap bitmap;
+
+		GlyphSlot (int address) {
+			super(address);
+		}
+		
+		/** @return the metrics of this slot. The instance is owned by the slot and reused by subsequent calls. */
+		public GlyphMetrics getMetrics() {
+			int metrics = getMetrics(address);
+			if (this.metrics == null)
+				this.metrics = new GlyphMetrics(metrics);
+			else
+				this.metrics.address = metrics;
+			return this.metrics;
+		}		
+		
+		private static native int getMetrics (int slot)/*-{
+			return $wnd.Module._c_GlyphSlot_getMetrics(slot);
+		}-*/;
+		
+		public int getLinearHoriAdvance() {
+			return getLinearHoriAdvance(address);
+		}
+		
+		private static native int getLinearHoriAdvance (int slot)/*-{
+			return $wnd.Module._c_GlyphSlot_getLinearHoriAdvance(slot);
+		}-*/;
+		
+		public int getLinearVertAdvance() {
+			return getLinearVertAdvance(address);
+		}
+		
+		private static native int getLinearVertAdvance (int slot)/*-{
+			return $wnd.Module._c_GlyphSlot_getLinearVertAdvance(slot);
+		}-*/;
+		
+		public int getAdvanceX() {
+			return getAdvanceX(address);
+		}
+		
+		private static native int getAdvanceX (int slot)/*-{
+			return $wnd.Module._c_GlyphSlot_getAdvanceX(slot);
+		}-*/;
+		
+		public int getAdvanceY() {
+			return getAdvanceY(address);
+		}
+		
+		private static native int getAdvanceY (int slot)/*-{
+			return $wnd.Module._c_GlyphSlot_getAdvanceY(slot);
+		}-*/;
+		
+		public int getFormat() {
+			return getFormat(address);
+		}
+		
+		private static native int getFormat (int slot)/*-{
+			return $wnd.Module._c_GlyphSlot_getFormat(slot);
+		}-*/;
+		
+		/** @return the bitmap of this slot. The instance is owned by the slot and reused by subsequent calls. */
+		public Bitmap getBitmap() {
+			int bitmap = getBitmap(address);
+			if (this.bitmap == null)
+				this.bitmap = new Bitmap(bitmap);
+			else
+				this.bitmap.address = bitmap;
+			return this.bitmap;
+		}
+		
+		private static native int getBitmap (int slot)/*-{
+			return $wnd.Module._c_GlyphSlot_getBitmap(slot);
+		}-*/;
+		
+		public int getBitmapLeft() {
+			return getBitmapLeft(address);
+		}
+		
+		private static native int getBitmapLeft (int slot)/*-{
+			return $wnd.Module._c_GlyphSlot_getBitmapLeft(slot);
+		}-*/;
+		
+		public int getBitmapTop() {
+			return getBitmapTop(address);
+		}
+		
+		private static native int getBitmapTop (int slot)/*-{
+			return $wnd.Module._c_GlyphSlot_getBitmapTop(slot);
+		}-*/;
+
+		public boolean renderGlyph(int renderMode) {
+			return renderGlyph(address, renderMode);
+		}
+
+		private static native boolean renderGlyph (int slot, int renderMode)/*-{
+			return !!$wnd.Module._c_GlyphSlot_renderGlyph(slot, renderMode);
+		}-*/;
+
+		public Glyph getGlyph() {
+			int glyph = getGlyph(address);
+			if(glyph == 0) throw new GdxRuntimeException("Couldn't get glyph, FreeType error code: " + getLastErrorCode());
+			return new Glyph(glyph);
+		}
+
+		private static native int getGlyph (int glyphSlot)/*-{
+			return $wnd.Module._c_GlyphSlot_getGlyph(glyphSlot);
+		}-*/;
+
+		/** Indices into the array filled by {@link #readMetrics(int[])}. The bitmap header starts at {@link #METRICS_BITMAP} and
+		 * uses the {@link Bitmap} header layout. */
+		public static final int METRICS_WIDTH = 0, METRICS_HEIGHT = 1, METRICS_HORI_BEARING_X = 2, METRICS_HORI_BEARING_Y = 3,
+			METRICS_HORI_ADVANCE = 4, METRICS_VERT_BEARING_X = 5, METRICS_VERT_BEARING_Y = 6, METRICS_VERT_ADVANCE = 7,
+			METRICS_LINEAR_HORI_ADVANCE = 8, METRICS_LINEAR_VERT_ADVANCE = 9, METRICS_ADVANCE_X = 10, METRICS_ADVANCE_Y = 11,
+			METRICS_FORMAT = 12, METRICS_BITMAP = 13, METRICS_BITMAP_LEFT = METRICS_BITMAP + Bitmap.HEADER_SIZE,
+			METRICS_BITMAP_TOP = METRICS_BITMAP_LEFT + 1, METRICS_SIZE = METRICS_BITMAP_TOP + 1;
+
+		/** Copies the glyph metrics, advances, format, bitmap header and bitmap offsets of this slot into <code>out</code> with a
+		 * single read of the heap, instead of one native call per field.
+		 * @param out an array of at least {@link #METRICS_SIZE} elements, indexed by the <code>METRICS_*</code> constants */
+		public void readMetrics (int[] out) {
+			readMetrics(address, out);
+		}
+
+		// Offsets mirror the _c_GlyphSlot_*, _c_GlyphMetrics_* and _c_Bitmap_* accessors.
+		private static native void readMetrics (int slot, int[] out)/*-{
+			var heap32 = $wnd.Module.HEAP32;
+			var p = slot >> 2;
+			for (var i = 0; i < 8; i++)
+				out[i] = heap32[p + 6 + i]; // FT_Glyph_Metrics at +24
+			out[8] = heap32[p + 14];
+			out[9] = heap32[p + 15];
+			out[10] = heap32[p + 16];
+			out[11] = heap32[p + 17];
+			out[12] = heap32[p + 18];
+			@com.badlogic.gdx.graphics.g2d.freetype.FreeType.Bitmap::readHeader(I[II)(slot + 76, out, 13);
+			out[19] = heap32[p + 25];
+			out[20] = heap32[p + 26];
+		}-*/;
+	}
+	
+	public static class Glyph extends Pointer implements Disposable {
+		private boolean rendered;
+		private Bitmap bitmap;
+
+		Glyph (int address) {
+			super(address);
+		}
+
+		@Override
+		public void dispose () {
+			done(address);
+		}
+
+		private static native void done (int glyph)/*-{
+			$wnd.Module._c_Glyph_done(glyph);
+		}-*/;
+		
+		private int bTI (boolean bool) {
+			return bool == true ? 1 : 0;
+		}
+
+		public void strokeBorder(Stroker stroker, boolean inside) {
+			address = strokeBorder(address, stroker.address, bTI(inside));
+		}
+
+		private static native int strokeBorder (int glyph, int stroker, int inside)/*-{
+			return $wnd.Module._c_Glyph_strokeBorder(glyph, stroker, inside);
+		}-*/;
+
+		public void toBitmap(int renderMode) {
+			int bitmap = toBitmap(address, renderMode);
+			if (bitmap == 0) throw new GdxRuntimeException("Couldn't render glyph, FreeType error code: " + getLastErrorCode());
+			address = bitmap;
+			rendered = true;
+		}
+
+		private static native int toBitmap (int glyph, int renderMode)/*-{
+			return $wnd.Module._c_Glyph_toBitmap(glyph, renderMode);
+		}-*/;
+
+		/** @return the bitmap of this rendered glyph. The instance is owned by the glyph and reused by subsequent calls. */
+		public Bitmap getBitmap() {
+			if (!rendered) {
+				throw new GdxRuntimeException("Glyph is not yet rendered");
+			}
+			int bitmap = getBitmap(address);
+			if (this.bitmap == null)
+				this.bitmap = new Bitmap(bitmap);
+			else
+				this.bitmap.address = bitmap;
+			return this.bitmap;
+		}
+
+		private static native int getBitmap (int glyph)/*-{
+			return $wnd.Module._c_Glyph_getBitmap(glyph);
+		}-*/;
+
+		public int getLeft() {
+			if (!rendered) {
+				throw new GdxRuntimeException("Glyph is not yet rendered");
+			}
+			return getLeft(address);
+		}
+
+		private static native int getLeft (int glyph)/*-{
+			return $wnd.Module._c_Glyph_getLeft(glyph);
+		}-*/;
+
+		public int getTop() {
+			if (!rendered) {
+				throw new GdxRuntimeException("Glyph is not yet rendered");
+			}
+			return getTop(address);
+		}
+
+		private static native int getTop (int glyph)/*-{
+			return $wnd.Module._c_Glyph_getTop(glyph);
+		}-*/;
+
+		/** Indices into the array filled by {@link #readBitmap(int[])}, after the {@link Bitmap} header. */
+		public static final int BITMAP_LEFT = Bitmap.HEADER_SIZE, BITMAP_TOP = BITMAP_LEFT + 1, BITMAP_SIZE = BITMAP_TOP + 1;
+
+		/** Copies the bitmap header, left and top of this rendered glyph into <code>out</code> in a single call.
+		 * @param out an array of at least {@link #BITMAP_SIZE} elements, indexed by the <code>Bitmap.HEADER_*</code> constants,
+		 *           {@link #BITMAP_LEFT} and {@link #BITMAP_TOP} */
+		public void readBitmap (int[] out) {
+			if (!rendered) {
+				throw new GdxRuntimeException("Glyph is not yet rendered");
+			}
+			readBitmap(address, out);
+		}
+
+		// Offsets mirror the _c_Glyph_* accessors.
+		private static native void readBitmap (int glyph, int[] out)/*-{
+			@com.badlogic.gdx.graphics.g2d.freetype.FreeType.Bitmap::readHeader(I[II)(glyph + 28, out, 0);
+			var heap32 = $wnd.Module.HEAP32;
+			out[6] = heap32[(glyph + 20) >> 2];
+			out[7] = heap32[(glyph + 24) >> 2];
+		}-*/;
+	}
+
+	public static class Bitmap extends Pointer {
+		private final int[] header = new int[HEADER_SIZE];
+
+		Bitmap (int address) {
+			super(address);
+		}
+		
+		public int getRows() {
+			return getRows(address);
+		}
+		
+		private static native int getRows (int bitmap)/*-{
+			return $wnd.Module._c_Bitmap_getRows(bitmap);
+		}-*/;
+		
+		public int getWidth() {
+			return getWidth(address);
+		}
+		
+		private static native int getWidth (int bitmap)/*-{
+			return $wnd.Module._c_Bitmap_getWidth(bitmap);
+		}-*/;
+		
+		public int getPitch() {
+			return getPitch(address);
+		}
+		
+		private static native int getPitch (int bitmap)/*-{
+			return $wnd.Module._c_Bitmap_getPitch(bitmap);
+		}-*/;
+		
+		/** Indices into the array filled by {@link #readHeader(int[])}. */
+		public static final int HEADER_ROWS = 0, HEADER_WIDTH = 1, HEADER_PITCH = 2, HEADER_BUFFER_ADDRESS = 3,
+			HEADER_NUM_GRAY = 4, HEADER_PIXEL_MODE = 5, HEADER_SIZE = 6;
+
+		/** Copies rows, width, pitch, buffer address, number of grays and pixel mode into <code>out</code> in a single call.
+		 * @param out an array of at least {@link #HEADER_SIZE} elements, indexed by the <code>HEADER_*</code> constants */
+		public void readHeader (int[] out) {
+			readHeader(address, out, 0);
+		}
+
+		// Offsets mirror the _c_Bitmap_* accessors.
+		static native void readHeader (int bitmap, int[] out, int offset)/*-{
+			var heap32 = $wnd.Module.HEAP32;
+			var p = bitmap >> 2;
+			out[offset] = heap32[p];
+			out[offset + 1] = heap32[p + 1];
+			out[offset + 2] = heap32[p + 2];
+			out[offset + 3] = heap32[p + 3];
+			out[offset + 4] = $wnd.Module.HEAPU16[(bitmap + 16) >> 1];
+			out[offset + 5] = $wnd.Module.HEAPU8[bitmap + 18];
+		}-*/;
+
+		public ByteBuffer getBuffer () {
+			readHeader(header);
+			return getBuffer(header, 0);
+		}
+
+		static ByteBuffer getBuffer (int[] header, int offset) {
+			int rows = header[offset + HEADER_ROWS];
+			if (rows == 0)
+				// Issue #768 - CheckJNI frowns upon env->NewDirectByteBuffer with NULL buffer or capacity 0
+				// "JNI WARNING: invalid values for address (0x0) or capacity (0)"
+				// FreeType sets FT_Bitmap::buffer to NULL when the bitmap is empty (e.g. for ' ')
+				// JNICheck is on by default on emulators and might have a point anyway...
+				// So let's avoid this and just return a dummy non-null non-zero buffer
+				return BufferUtils.newByteBuffer(1);
+			int bufferAddress = header[offset + HEADER_BUFFER_ADDRESS];
+			int length = rows * Math.abs(header[offset + HEADER_PITCH]);
+			return newHeapBuffer(bufferAddress, length);
+		}
+
+		// @on
+		public Pixmap getPixmap (Format format, Color color, float gamma) {
+			readHeader(header);
+			return getPixmap(header, 0, format, color, gamma);
+		}
+
+		/** Converts the bitmap described by the header at <code>offset</code> in <code>header</code> to a pixmap. */
+		static Pixmap getPixmap (int[] header, int offset, Format format, Color color, float gamma) {
+			return getPixmap(header, offset, getBuffer(header, offset), format, color, gamma);
+		}
+
+		/** Converts the bitmap described by the header at <code>offset</code> in <code>header</code>, with its pixels in
+		 * <code>src</code>, to a pixmap. */
+		static Pixmap getPixmap (int[] header, int offset, ByteBuffer src, Format format, Color color, float gamma) {
+			int width = header[offset + HEADER_WIDTH], rows = header[offset + HEADER_ROWS];
+			FreeTypePixmap pixmap;
+			ByteBuffer changedPixels;
+			int pixelMode = header[offset + HEADER_PIXEL_MODE];
+			int rowBytes = Math.abs(header[offset + HEADER_PITCH]); // We currently ignore negative pitch.
+			int rgba = Color.rgba8888(color);
+			if (pixelMode == FT_PIXEL_MODE_GRAY && format == Format.Alpha) {
+				// Only coverage was asked for, the color's RGB is dropped (white is implied when drawn).
+				pixmap = new FreeTypePixmap(width, rows, Format.Alpha);
+				changedPixels = pixmap.getRealPixels();
+				if (gamma == 1 && (rgba & 0xff) == 0xff && rowBytes == width)
+					BufferUtils.copy(src, changedPixels, changedPixels.capacity());
+				else {
+					int[] table = getGammaTable(rgba, gamma);
+					byte[] srcRow = new byte[rowBytes];
+					byte[] dstRow = new byte[width];
+					for (int y = 0; y < rows; y++) {
+						src.get(srcRow);
+						for (int x = 0; x < width; x++)
+							dstRow[x] = (byte)table[srcRow[x] & 0xff]; // The low byte is the alpha.
+						changedPixels.put(dstRow);
+					}
+					changedPixels.position(0);
+				}
+			} else {
+				pixmap = new FreeTypePixmap(width, rows, Format.RGBA8888);
+				byte[] srcRow = new byte[rowBytes];
+				int[] dstRow = new int[width];
+				changedPixels = pixmap.getRealPixels();
+				IntBuffer dst = changedPixels.asIntBuffer();
+				if (pixelMode == FT_PIXEL_MODE_MONO) {
+					// Use the specified color for each set bit.
+					for (int y = 0; y < rows; y++) {
+						src.get(srcRow);
+						for (int i = 0, x = 0; x < width; i++, x += 8) {
+							byte b = srcRow[i];
+							for (int ii = 0, n = Math.min(8, width - x); ii < n; ii++) {
+								if ((b & (1 << (7 - ii))) != 0)
+									dstRow[x + ii] = rgba;
+								else
+									dstRow[x + ii] = 0;
+							}
+						}
+						dst.put(dstRow);
+					}
+				} else {
+					// Use the specified color for RGB, blend the FreeType bitmap with alpha.
+					int[] table = getGammaTable(rgba, gamma);
+					for (int y = 0; y < rows; y++) {
+						src.get(srcRow);
+						for (int x = 0; x < width; x++)
+							dstRow[x] = table[srcRow[x] & 0xff];
+						dst.put(dstRow);
+					}
+				}
+			}
+			
+			pixmap.putPixelsBack(changedPixels);
+
+			Pixmap converted = pixmap;
+			if (format != pixmap.getBufferFormat()) {
+				converted = new FreeTypePixmap(pixmap.getWidth(), pixmap.getHeight(), format);
+				converted.setBlending(Blending.None);
+				converted.drawPixmap(pixmap, 0, 0);
+				converted.setBlending(Blending.SourceOver);
+				pixmap.dispose();
+			}
+			return converted;
+		}
+
+		static private final LongMap<int[]> gammaTables = new LongMap<int[]>();
+
+		/** @return the 256 RGBA8888 values for each FreeType gray level with the given color and inverse gamma applied. Tables
+		 *         are cached per (color, gamma) pair, so the generator's glyph and border colors don't evict each other. */
+		static int[] getGammaTable (int rgba, float gamma) {
+			long key = (long)Float.floatToIntBits(gamma) << 32 | (rgba & 0xffffffffL);
+			int[] table = gammaTables.get(key);
+			if (table == null) {
+				if (gammaTables.size >= 32) gammaTables.clear(); // Only a handful of pairs are in use at once.
+				table = new int[256];
+				int rgb = rgba & 0xffffff00;
+				int a = rgba & 0xff;
+				// Zero raised to any power is always zero.
+				// 255 (=one) raised to any power is always one.
+				table[0] = rgb;
+				for (int alpha = 1; alpha < 255; alpha++)
+					table[alpha] = rgb | (int)(a * (float)Math.pow(alpha / 255f, gamma)); // Inverse gamma.
+				table[255] = rgb | a;
+				gammaTables.put(key, table);
+			}
+			return table;
+		}
+		// @off
+
+		public int getNumGray() {
+			return getNumGray(address);
+		}
+		
+		private static native int getNumGray (int bitmap)/*-{
+			return $wnd.Module._c_Bitmap_getNumGray(bitmap);
+		}-*/;
+		
+		public int getPixelMode() {
+			return getPixelMode(address);
+		}
+		
+		private static native int getPixelMode (int bitmap)/*-{
+			return $wnd.Module._c_Bitmap_getPixelMode(bitmap);
+		}-*/;
+	}
+	
+	public static class GlyphMetrics extends Pointer {
+		GlyphMetrics (int address) {
+			super(address);
+		}
+		
+		public int getWidth() {
+			return getWidth(address);
+		}
+		
+		private static native int getWidth (int metrics)/*-{
+			return $wnd.Module._c_GlyphMetrics_getWidth(metrics);
+		}-*/;
+		
+		public int getHeight() {
+			return getHeight(address);
+		}
+		
+		private static native int getHeight (int metrics)/*-{
+			return $wnd.Module._c_GlyphMetrics_getHeight(metrics);
+		}-*/;
+		
+		public int getHoriBearingX() {
+			return getHoriBearingX(address);
+		}
+		
+		private static native int getHoriBearingX (int metrics)/*-{
+			return $wnd.Module._c_GlyphMetrics_getHoriBearingX(metrics);
+		}-*/;
+		
+		public int getHoriBearingY() {
+			return getHoriBearingY(address);
+		}
+		
+		private static native int getHoriBearingY (int metrics)/*-{
+			return $wnd.Module._c_GlyphMetrics_getHoriBearingY(metrics);
+		}-*/;
+		
+		public int getHoriAdvance() {
+			return getHoriAdvance(address);
+		}
+		
+		private static native int getHoriAdvance (int metrics)/*-{
+			return $wnd.Module._c_GlyphMetrics_getHoriAdvance(metrics);
+		}-*/;
+	
+		public int getVertBearingX() {
+			return getVertBearingX(address);
+		}
+		
+		private static native int getVertBearingX (int metrics)/*-{
+			return $wnd.Module._c_GlyphMetrics_getVertBearingX(metrics);
+		}-*/;
+		
+		public int getVertBearingY() {
+			return getVertBearingY(address);
+		}
+	
+		private static native int getVertBearingY (int metrics)/*-{
+			return $wnd.Module._c_GlyphMetrics_getVertBearingY(metrics);
+		}-*/;
+		
+		public int getVertAdvance() {
+			return getVertAdvance(address);
+		}
+	
+		private static native int getVertAdvance (int metrics)/*-{
+			return $wnd.Module._c_GlyphMetrics_getVertAdvance(metrics);
+		}-*/;
+	}
+
+	/** The result of {@link Face#renderGlyphs(int[], int, int)}: the bitmaps of all glyphs packed into one heap block plus a
+	 * dense table with {@link #STRIDE} ints per glyph. Has to be disposed to free the heap block. */
+	public static class RenderedGlyphs extends Pointer implements Disposable {
+		/** Offsets into a glyph's row of {@link #getTable()}. The bitmap header comes first and uses the {@link Bitmap} header
+		 * layout, with {@link Bitmap#HEADER_BUFFER_ADDRESS} pointing into the packed block. */
+		public static final int LEFT = Bitmap.HEADER_SIZE, TOP = LEFT + 1, HORI_ADVANCE = TOP + 1, HEIGHT = HORI_ADVANCE + 1,
+			LOADED = HEIGHT + 1, STRIDE = LOADED + 1;
+
+		final int[] table;
+		// The bitmaps of glyphs rendered off the FreeType heap, or null.
+		private final ArrayBuffer pixels;
+
+		RenderedGlyphs (int address, int[] table) {
+			super(address);
+			this.table = table;
+			pixels = null;
+		}
+
+		/** Glyphs rendered elsewhere, e.g. by a worker, with the same table layout except that
+		 * {@link Bitmap#HEADER_BUFFER_ADDRESS} is the offset of the bitmap in <code>pixels</code>. */
+		public RenderedGlyphs (int[] table, ArrayBuffer pixels) {
+			super(0);
+			this.table = table;
+			this.pixels = pixels;
+		}
+
+		/** @return the number of glyphs, including the ones that could not be loaded */
+		public int size () {
+			return table.length / STRIDE;
+		}
+
+		/** @return the table with {@link #STRIDE} ints per glyph, in the order the char codes were passed */
+		public int[] getTable () {
+			return table;
+		}
+
+		/** @return the bitmaps of glyphs rendered elsewhere, or null if they are on the FreeType heap */
+		public ArrayBuffer getPixels () {
+			return pixels;
+		}
+
+		/** @return false if the glyph is missing from the face or could not be loaded or rendered */
+		public boolean isLoaded (int index) {
+			return table[index * STRIDE + LOADED] != 0;
+		}
+
+		/** Converts the bitmap of the glyph at <code>index</code> to a pixmap, see {@link Bitmap#getPixmap(Format, Color, float)}. */
+		public Pixmap getPixmap (int index, Format format, Color color, float gamma) {
+			int row = index * STRIDE;
+			if (pixels == null) return Bitmap.getPixmap(table, row, format, color, gamma);
+			int length = table[row + Bitmap.HEADER_ROWS] * table[row + Bitmap.HEADER_PITCH];
+			ByteBuffer src = length == 0 ? BufferUtils.newByteBuffer(1)
+				: FreeTypeUtil.newDirectReadWriteByteBuffer(pixels, length, table[row + Bitmap.HEADER_BUFFER_ADDRESS]);
+			return Bitmap.getPixmap(table, row, src, format, color, gamma);
+		}
+
+		@Override
+		public void dispose () {
+			if (address != 0) nativeFree(address);
+			address = 0;
+		}
+	}
+
+	public static class Stroker extends Pointer implements Disposable {
+		Stroker(int address) {
+			super(address);
+		}
+
+		public void set(int radius, int lineCap, int lineJoin, int miterLimit) {
+			set(address, radius, lineCap, lineJoin, miterLimit);
+		}
+
+		private static native void set (int stroker, int radius, int lineCap, int lineJoin, int miterLimit)/*-{
+			$wnd.Module._c_Stroker_set(stroker, radius, lineCap, lineJoin,
+					miterLimit);
+		}-*/;
+
+		@Override
+		public void dispose() {
+			done(address);
+		}
+
+		private static native void done (int stroker)/*-{
+			$wnd.Module._c_Stroker_done(stroker);
+		}-*/;
+	}
+
+   public static int FT_PIXEL_MODE_NONE = 0;
+   public static int FT_PIXEL_MODE_MONO = 1;
+   public static int FT_PIXEL_MODE_GRAY = 2;
+   public static int FT_PIXEL_MODE_GRAY2 = 3;
+   public static int FT_PIXEL_MODE_GRAY4 = 4;
+   public static int FT_PIXEL_MODE_LCD = 5;
+   public static int FT_PIXEL_MODE_LCD_V = 6;
+	
+	private static int encode (char a, char b, char c, char d) {
+		return (a << 24) | (b << 16) | (c << 8) | d;
+	}
+
+	public static int FT_ENCODING_NONE = 0;
+	public static int FT_ENCODING_MS_SYMBOL = encode('s', 'y', 'm', 'b');
+	public static int FT_ENCODING_UNICODE = encode('u', 'n', 'i', 'c');
+	public static int FT_ENCODING_SJIS = encode('s', 'j', 'i', 's');
+	public static int FT_ENCODING_GB2312 = encode('g', 'b', ' ', ' ');
+	public static int FT_ENCODING_BIG5 = encode('b', 'i', 'g', '5');
+	public static int FT_ENCODING_WANSUNG = encode('w', 'a', 'n', 's');
+	public static int FT_ENCODING_JOHAB = encode('j', 'o', 'h', 'a');
+	public static int FT_ENCODING_ADOBE_STANDARD = encode('A', 'D', 'O', 'B');
+	public static int FT_ENCODING_ADOBE_EXPERT = encode('A', 'D', 'B', 'E');
+	public static int FT_ENCODING_ADOBE_CUSTOM = encode('A', 'D', 'B', 'C');
+	public static int FT_ENCODING_ADOBE_LATIN_1 = encode('l', 'a', 't', '1');
+	public static int FT_ENCODING_OLD_LATIN_2 = encode('l', 'a', 't', '2');
+	public static int FT_ENCODING_APPLE_ROMAN = encode('a', 'r', 'm', 'n');
+	
+	public static int FT_FACE_FLAG_SCALABLE          = ( 1 <<  0 );
+	public static int FT_FACE_FLAG_FIXED_SIZES       = ( 1 <<  1 );
+	public static int FT_FACE_FLAG_FIXED_WIDTH       = ( 1 <<  2 );
+	public static int FT_FACE_FLAG_SFNT              = ( 1 <<  3 );
+	public static int FT_FACE_FLAG_HORIZONTAL        = ( 1 <<  4 );
+	public static int FT_FACE_FLAG_VERTICAL          = ( 1 <<  5 );
+	public static int FT_FACE_FLAG_KERNING           = ( 1 <<  6 );
+	public static int FT_FACE_FLAG_FAST_GLYPHS       = ( 1 <<  7 );
+	public static int FT_FACE_FLAG_MULTIPLE_MASTERS  = ( 1 <<  8 );
+	public static int FT_FACE_FLAG_GLYPH_NAMES       = ( 1 <<  9 );
+	public static int FT_FACE_FLAG_EXTERNAL_STREAM   = ( 1 << 10 );
+	public static int FT_FACE_FLAG_HINTER            = ( 1 << 11 );
+	public static int FT_FACE_FLAG_CID_KEYED         = ( 1 << 12 );
+	public static int FT_FACE_FLAG_TRICKY            = ( 1 << 13 );
+	
+	public static int FT_STYLE_FLAG_ITALIC = ( 1 << 0 );
+	public static int FT_STYLE_FLAG_BOLD   = ( 1 << 1 );
+	
+	public static int FT_LOAD_DEFAULT                      = 0x0;
+	public static int FT_LOAD_NO_SCALE                     = 0x1;
+	public static int FT_LOAD_NO_HINTING                   = 0x2;
+	public static int FT_LOAD_RENDER                       = 0x4;
+	public static int FT_LOAD_NO_BITMAP                    = 0x8;
+	public static int FT_LOAD_VERTICAL_LAYOUT              = 0x10;
+	public static int FT_LOAD_FORCE_AUTOHINT               = 0x20;
+	public static int FT_LOAD_CROP_BITMAP                  = 0x40;
+	public static int FT_LOAD_PEDANTIC                     = 0x80;
+	public static int FT_LOAD_IGNORE_GLOBAL_ADVANCE_WIDTH  = 0x200;
+	public static int FT_LOAD_NO_RECURSE                   = 0x400;
+	public static int FT_LOAD_IGNORE_TRANSFORM             = 0x800;
+	public static int FT_LOAD_MONOCHROME                   = 0x1000;
+	public static int FT_LOAD_LINEAR_DESIGN                = 0x2000;
+	public static int FT_LOAD_NO_AUTOHINT                  = 0x8000;
+	
+	public static int FT_LOAD_TARGET_NORMAL                = 0x0;
+	public static int FT_LOAD_TARGET_LIGHT                 = 0x10000;
+	public static int FT_LOAD_TARGET_MONO                  = 0x20000;
+	public static int FT_LOAD_TARGET_LCD                   = 0x30000;
+	public static int FT_LOAD_TARGET_LCD_V                 = 0x40000;
+
+   public static int FT_RENDER_MODE_NORMAL = 0;
+   public static int FT_RENDER_MODE_LIGHT = 1;
+   public static int FT_RENDER_MODE_MONO = 2;
+   public static int FT_RENDER_MODE_LCD = 3;
+   public static int FT_RENDER_MODE_LCD_V = 4;
+   public static int FT_RENDER_MODE_MAX = 5;
+   
+   public static int FT_KERNING_DEFAULT = 0;
+   public static int FT_KERNING_UNFITTED = 1;
+   public static int FT_KERNING_UNSCALED = 2;
+	
+	public static int FT_STROKER_LINECAP_BUTT = 0;
+	public static int FT_STROKER_LINECAP_ROUND = 1;
+	public static int FT_STROKER_LINECAP_SQUARE = 2;
+
+	public static int FT_STROKER_LINEJOIN_ROUND          = 0;
+	public static int FT_STROKER_LINEJOIN_BEVEL          = 1;
+	public static int FT_STROKER_LINEJOIN_MITER_VARIABLE = 2;
+	public static int FT_STROKER_LINEJOIN_MITER          = FT_STROKER_LINEJOIN_MITER_VARIABLE;
+	public static int FT_STROKER_LINEJOIN_MITER_FIXED    = 3;
+
+	static private Library sharedLibrary;
+
+	/** Returns the library shared by all holders, initializing it on first use. One library can own any number of faces, so this
+	 * avoids initializing FreeType and keeping font data maps per generator. Each call has to be balanced by a
+	 * {@link Library#dispose()}; the library is freed with the last one. Use {@link #initFreeType()} for a private library. */
+	public static Library obtainSharedLibrary () {
+		if (sharedLibrary == null) sharedLibrary = initFreeType();
+		sharedLibrary.references++;
+		return sharedLibrary;
+	}
+
+   public static Library initFreeType() {   	
+   	if (!FreetypeInjector.isLoaded())
+   		throw new GdxRuntimeException("FreeType is not loaded yet, wait for FreetypeInjector.inject() to complete.");
+   	int address = initFreeTypeJni();
+   	if(address == 0)
+   		throw new GdxRuntimeException("Couldn't initialize FreeType library, FreeType error code: " + getLastErrorCode());
+   	else
+   		return new Library(address);
+   }
+   
+	private static native int initFreeTypeJni ()/*-{
+		return $wnd.Module._c_FreeType_initFreeTypeJni();
+	}-*/;
+
+	public static int toInt (int value) {
+		return ((value + 63) & -64) >> 6;
+	}
+   
+//	public static void main (String[] args) throws Exception {
+//		FreetypeBuild.main(args);
+//		new SharedLibraryLoader("libs/gdx-freetype-natives.jar").load("gdx-freetype");
+//		String chars = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz1234567890\"!`?'.,;:()[]{}<>|/@\\^$-%+=#_&~*�?�?�?�?�? ¡¢£¤¥¦§¨©ª«¬­®¯°±²³´µ¶·¸¹º»¼½¾¿À�?ÂÃÄÅÆÇÈÉÊËÌ�?Î�?�?ÑÒÓÔÕÖ×ØÙÚÛÜ�?Þßàáâãäåæçèéêëìíîïðñòóôõö÷øùúûüýþÿ";
+//		
+//		Library library = FreeType.initFreeType();
+//		Face face = library.newFace(new FileHandle("arial.ttf"), 0);
+//		face.setPixelSizes(0, 15);
+//		SizeMetrics faceMetrics = face.getSize().getMetrics();
+//		System.out.println(toInt(faceMetrics.getAscender()) + ", " + toInt(faceMetrics.getDescender()) + ", " + toInt(faceMetrics.getHeight()));
+//		
+//		for(int i = 0; i < chars.length(); i++) {
+//			if(!FreeType.loadGlyph(face, FreeType.getCharIndex(face, chars.charAt(i)), 0)) continue;
+//			if(!FreeType.renderGlyph(face.getGlyph(), FT_RENDER_MODE_NORMAL)) continue;
+//			Bitmap bitmap = face.getGlyph().getBitmap();
+//			GlyphMetrics glyphMetrics = face.getGlyph().getMetrics();
+//			System.out.println(toInt(glyphMetrics.getHoriBearingX()) + ", " + toInt(glyphMetrics.getHoriBearingY()));
+//			System.out.println(toInt(glyphMetrics.getWidth()) + ", " + toInt(glyphMetrics.getHeight()) + ", " + toInt(glyphMetrics.getHoriAdvance()));
+//			System.out.println(bitmap.getWidth() + ", " + bitmap.getRows() + ", " + bitmap.getPitch() + ", " + bitmap.getNumGray());
+//			for(int y = 0; y < bitmap.getRows(); y++) {
+//				for(int x = 0; x < bitmap.getWidth(); x++) {
+//					System.out.print(bitmap.getBuffer().get(x + bitmap.getPitch() * y) != 0? "X": " ");
+//				}
+//				System.out.println();
+//			}
+//		}
+//	
+//		face.dispose();
+//		library.dispose();
+//	}
+}
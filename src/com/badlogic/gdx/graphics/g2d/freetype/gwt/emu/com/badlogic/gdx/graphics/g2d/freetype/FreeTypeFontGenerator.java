@@ -1,789 +1,1425 @@
-/*******************************************************************************
- * Copyright 2011 See AUTHORS file.
- * 
- * Licensed under the Apache License, Version 2.0 (the "License");
- * you may not use this file except in compliance with the License.
- * You may obtain a copy of the License at
- * 
- *   http://www.apache.org/licenses/LICENSE-2.0
- * 
- * Unless required by applicable law or agreed to in writing, software
- * distributed under the License is distributed on an "AS IS" BASIS,
- * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
- * See the License for the specific language governing permissions and
- * limitations under the License.
- ******************************************************************************/
-
-package com.badlogic.gdx.graphics.g2d.freetype;
-
-import java.nio.ByteBuffer;
-
-import com.badlogic.gdx.Gdx;
-import com.badlogic.gdx.files.FileHandle;
-import com.badlogic.gdx.graphics.Color;
-import com.badlogic.gdx.graphics.FreeTypePixmap;
-import com.badlogic.gdx.graphics.Pixmap;
-import com.badlogic.gdx.graphics.Pixmap.Blending;
-import com.badlogic.gdx.graphics.Pixmap.Format;
-import com.badlogic.gdx.graphics.Texture.TextureFilter;
-import com.badlogic.gdx.graphics.g2d.BitmapFont;
-import com.badlogic.gdx.graphics.g2d.BitmapFont.BitmapFontData;
-import com.badlogic.gdx.graphics.g2d.BitmapFont.Glyph;
-import com.badlogic.gdx.graphics.g2d.GlyphLayout.GlyphRun;
-import com.badlogic.gdx.graphics.g2d.PixmapPacker;
-import com.badlogic.gdx.graphics.g2d.PixmapPacker.GuillotineStrategy;
-import com.badlogic.gdx.graphics.g2d.PixmapPacker.PackStrategy;
-import com.badlogic.gdx.graphics.g2d.PixmapPacker.SkylineStrategy;
-import com.badlogic.gdx.graphics.g2d.TextureRegion;
-import com.badlogic.gdx.graphics.g2d.freetype.FreeType.Bitmap;
-import com.badlogic.gdx.graphics.g2d.freetype.FreeType.Face;
-import com.badlogic.gdx.graphics.g2d.freetype.FreeType.GlyphMetrics;
-import com.badlogic.gdx.graphics.g2d.freetype.FreeType.GlyphSlot;
-import com.badlogic.gdx.graphics.g2d.freetype.FreeType.Library;
-import com.badlogic.gdx.graphics.g2d.freetype.FreeType.SizeMetrics;
-import com.badlogic.gdx.graphics.g2d.freetype.FreeType.Stroker;
-import com.badlogic.gdx.math.MathUtils;
-import com.badlogic.gdx.math.Rectangle;
-import com.badlogic.gdx.utils.Array;
-import com.badlogic.gdx.utils.Disposable;
-import com.badlogic.gdx.utils.GdxRuntimeException;
-
-/** Generates {@link BitmapFont} and {@link BitmapFontData} instances from TrueType, OTF, and other FreeType supported fonts.
- * </p>
- * 
- * Usage example:
- * 
- * <pre>
- * FreeTypeFontGenerator gen = new FreeTypeFontGenerator(Gdx.files.internal(&quot;myfont.ttf&quot;));
- * BitmapFont font = gen.generateFont(16);
- * gen.dispose(); // Don't dispose if doing incremental glyph generation.
- * </pre>
- * 
- * The generator has to be disposed once it is no longer used. The returned {@link BitmapFont} instances are managed by the user
- * and have to be disposed as usual.
- * 
- * @author mzechner
- * @author Nathan Sweet
- * @author Rob Rendell */
-public class FreeTypeFontGenerator implements Disposable {
-	static public final String DEFAULT_CHARS = "\u0000ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz1234567890\"!`?'.,;:()[]{}<>|/@\\^$€-%+=#_&~*\u0080\u0081\u0082\u0083\u0084\u0085\u0086\u0087\u0088\u0089\u008A\u008B\u008C\u008D\u008E\u008F\u0090\u0091\u0092\u0093\u0094\u0095\u0096\u0097\u0098\u0099\u009A\u009B\u009C\u009D\u009E\u009F\u00A0\u00A1\u00A2\u00A3\u00A4\u00A5\u00A6\u00A7\u00A8\u00A9\u00AA\u00AB\u00AC\u00AD\u00AE\u00AF\u00B0\u00B1\u00B2\u00B3\u00B4\u00B5\u00B6\u00B7\u00B8\u00B9\u00BA\u00BB\u00BC\u00BD\u00BE\u00BF\u00C0\u00C1\u00C2\u00C3\u00C4\u00C5\u00C6\u00C7\u00C8\u00C9\u00CA\u00CB\u00CC\u00CD\u00CE\u00CF\u00D0\u00D1\u00D2\u00D3\u00D4\u00D5\u00D6\u00D7\u00D8\u00D9\u00DA\u00DB\u00DC\u00DD\u00DE\u00DF\u00E0\u00E1\u00E2\u00E3\u00E4\u00E5\u00E6\u00E7\u00E8\u00E9\u00EA\u00EB\u00EC\u00ED\u00EE\u00EF\u00F0\u00F1\u00F2\u00F3\u00F4\u00F5\u00F6\u00F7\u00F8\u00F9\u00FA\u00FB\u00FC\u00FD\u00FE\u00FF";
-
-	/** A hint to scale the texture as needed, without capping it at any maximum size */
-	static public final int NO_MAXIMUM = -1;
-
-	/** The maximum texture size allowed by generateData, when storing in a texture atlas. Multiple texture pages will be created
-	 * if necessary. Default is 1024.
-	 * @see #setMaxTextureSize(int) */
-	static private int maxTextureSize = 1024;
-
-	final Library library;
-	final Face face;
-	final String name;
-	boolean bitmapped = false;
-	private int pixelWidth, pixelHeight;
-
-	/** {@link #FreeTypeFontGenerator(FileHandle, int)} */
-	public FreeTypeFontGenerator (FileHandle fontFile) {
-		this(fontFile, 0);
-	}
-
-	/** Creates a new generator from the given font file. Uses {@link FileHandle#length()} to determine the file size. If the file
-	 * length could not be determined (it was 0), an extra copy of the font bytes is performed. Throws a
-	 * {@link GdxRuntimeException} if loading did not succeed. */
-	public FreeTypeFontGenerator (FileHandle fontFile, int faceIndex) {
-		name = fontFile.nameWithoutExtension();
-		library = FreeType.initFreeType();
-		face = library.newFace(fontFile, faceIndex);
-		if (checkForBitmapFont()) return;
-		setPixelSizes(0, 15);
-	}
-
-	private int getLoadingFlags (FreeTypeFontParameter parameter) {
-		int loadingFlags = FreeType.FT_LOAD_DEFAULT;
-		switch (parameter.hinting) {
-		case None:
-			loadingFlags |= FreeType.FT_LOAD_NO_HINTING;
-			break;
-		case Slight:
-			loadingFlags |= FreeType.FT_LOAD_TARGET_LIGHT;
-			break;
-		case Medium:
-			loadingFlags |= FreeType.FT_LOAD_TARGET_NORMAL;
-			break;
-		case Full:
-			loadingFlags |= FreeType.FT_LOAD_TARGET_MONO;
-			break;
-		case AutoSlight:
-			loadingFlags |= FreeType.FT_LOAD_FORCE_AUTOHINT | FreeType.FT_LOAD_TARGET_LIGHT;
-			break;
-		case AutoMedium:
-			loadingFlags |= FreeType.FT_LOAD_FORCE_AUTOHINT | FreeType.FT_LOAD_TARGET_NORMAL;
-			break;
-		case AutoFull:
-			loadingFlags |= FreeType.FT_LOAD_FORCE_AUTOHINT | FreeType.FT_LOAD_TARGET_MONO;
-			break;
-		}
-		return loadingFlags;
-	}
-
-	private boolean loadChar (int c) {
-		return loadChar(c, FreeType.FT_LOAD_DEFAULT | FreeType.FT_LOAD_FORCE_AUTOHINT);
-	}
-
-	private boolean loadChar (int c, int flags) {
-		return face.loadChar(c, flags);
-	}
-
-	private boolean checkForBitmapFont () {
-		int faceFlags = face.getFaceFlags();
-		if (((faceFlags & FreeType.FT_FACE_FLAG_FIXED_SIZES) == FreeType.FT_FACE_FLAG_FIXED_SIZES)
-			&& ((faceFlags & FreeType.FT_FACE_FLAG_HORIZONTAL) == FreeType.FT_FACE_FLAG_HORIZONTAL)) {
-			if (loadChar(32)) {
-				GlyphSlot slot = face.getGlyph();
-				if (slot.getFormat() == 1651078259) {
-					bitmapped = true;
-				}
-			}
-		}
-		return bitmapped;
-	}
-
-	public BitmapFont generateFont (FreeTypeFontParameter parameter) {
-		return generateFont(parameter, new FreeTypeBitmapFontData());
-	}
-
-	/** Generates a new {@link BitmapFont}. The size is expressed in pixels. Throws a GdxRuntimeException if the font could not be
-	 * generated. Using big sizes might cause such an exception.
-	 * @param parameter configures how the font is generated */
-	public BitmapFont generateFont (FreeTypeFontParameter parameter, FreeTypeBitmapFontData data) {
-		boolean updateTextureRegions = data.regions == null && parameter.packer != null;
-		if (updateTextureRegions) data.regions = new Array();
-		generateData(parameter, data);
-		if (updateTextureRegions)
-			parameter.packer.updateTextureRegions(data.regions, parameter.minFilter, parameter.magFilter, parameter.genMipMaps);
-		if (data.regions.isEmpty()) throw new GdxRuntimeException("Unable to create a font with no texture regions.");
-		BitmapFont font = new BitmapFont(data, data.regions, true);
-		font.setOwnsTexture(parameter.packer == null);
-		return font;
-	}
-
-	/** Uses ascender and descender of font to calculate real height that makes all glyphs to fit in given pixel size. Source:
-	 * http://nothings.org/stb/stb_truetype.h / stbtt_ScaleForPixelHeight */
-	public int scaleForPixelHeight (int height) {
-		setPixelSizes(0, height);
-		SizeMetrics fontMetrics = face.getSize().getMetrics();
-		int ascent = FreeType.toInt(fontMetrics.getAscender());
-		int descent = FreeType.toInt(fontMetrics.getDescender());
-		return height * height / (ascent - descent);
-	}
-
-	/** Uses max advance, ascender and descender of font to calculate real height that makes any n glyphs to fit in given pixel
-	 * width.
-	 * @param width the max width to fit (in pixels)
-	 * @param numChars max number of characters that to fill width */
-	public int scaleForPixelWidth (int width, int numChars) {
-		SizeMetrics fontMetrics = face.getSize().getMetrics();
-		int advance = FreeType.toInt(fontMetrics.getMaxAdvance());
-		int ascent = FreeType.toInt(fontMetrics.getAscender());
-		int descent = FreeType.toInt(fontMetrics.getDescender());
-		int unscaledHeight = ascent - descent;
-		int height = unscaledHeight * width / (advance * numChars);
-		setPixelSizes(0, height);
-		return height;
-	}
-
-	/** Uses max advance, ascender and descender of font to calculate real height that makes any n glyphs to fit in given pixel
-	 * width and height.
-	 * @param width the max width to fit (in pixels)
-	 * @param height the max height to fit (in pixels)
-	 * @param numChars max number of characters that to fill width */
-	public int scaleToFitSquare (int width, int height, int numChars) {
-		return Math.min(scaleForPixelHeight(height), scaleForPixelWidth(width, numChars));
-	}
-
-	public class GlyphAndBitmap {
-		public Glyph glyph;
-		public Bitmap bitmap;
-	}
-
-	/** Returns null if glyph was not found. If there is nothing to render, for example with various space characters, then bitmap
-	 * is null. */
-	public GlyphAndBitmap generateGlyphAndBitmap (int c, int size, boolean flip) {
-		setPixelSizes(0, size);
-
-		SizeMetrics fontMetrics = face.getSize().getMetrics();
-		int baseline = FreeType.toInt(fontMetrics.getAscender());
-
-		// Check if character exists in this font.
-		// 0 means 'undefined character code'
-		if (face.getCharIndex(c) == 0) {
-			return null;
-		}
-
-		// Try to load character
-		if (!loadChar(c)) {
-			throw new GdxRuntimeException("Unable to load character!");
-		}
-
-		GlyphSlot slot = face.getGlyph();
-
-		// Try to render to bitmap
-		Bitmap bitmap;
-		if (bitmapped) {
-			bitmap = slot.getBitmap();
-		} else if (!slot.renderGlyph(FreeType.FT_RENDER_MODE_NORMAL)) {
-			bitmap = null;
-		} else {
-			bitmap = slot.getBitmap();
-		}
-
-		GlyphMetrics metrics = slot.getMetrics();
-
-		Glyph glyph = new Glyph();
-		if (bitmap != null) {
-			glyph.width = bitmap.getWidth();
-			glyph.height = bitmap.getRows();
-		} else {
-			glyph.width = 0;
-			glyph.height = 0;
-		}
-		glyph.xoffset = slot.getBitmapLeft();
-		glyph.yoffset = flip ? -slot.getBitmapTop() + baseline : -(glyph.height - slot.getBitmapTop()) - baseline;
-		glyph.xadvance = FreeType.toInt(metrics.getHoriAdvance());
-		glyph.srcX = 0;
-		glyph.srcY = 0;
-		glyph.id = c;
-
-		GlyphAndBitmap result = new GlyphAndBitmap();
-		result.glyph = glyph;
-		result.bitmap = bitmap;
-		return result;
-	}
-
-	/** Generates a new {@link BitmapFontData} instance, expert usage only. Throws a GdxRuntimeException if something went wrong.
-	 * @param size the size in pixels */
-	public FreeTypeBitmapFontData generateData (int size) {
-		FreeTypeFontParameter parameter = new FreeTypeFontParameter();
-		parameter.size = size;
-		return generateData(parameter);
-	}
-
-	public FreeTypeBitmapFontData generateData (FreeTypeFontParameter parameter) {
-		return generateData(parameter, new FreeTypeBitmapFontData());
-	}
-
-	void setPixelSizes (int pixelWidth, int pixelHeight) {
-		this.pixelWidth = pixelWidth;
-		this.pixelHeight = pixelHeight;
-		if (!bitmapped && !face.setPixelSizes(pixelWidth, pixelHeight)) throw new GdxRuntimeException("Couldn't set size for font");
-	}
-
-	/** Generates a new {@link BitmapFontData} instance, expert usage only. Throws a GdxRuntimeException if something went wrong.
-	 * @param parameter configures how the font is generated */
-	public FreeTypeBitmapFontData generateData (FreeTypeFontParameter parameter, FreeTypeBitmapFontData data) {
-		data.name = name + "-" + parameter.size;
-		parameter = parameter == null ? new FreeTypeFontParameter() : parameter;
-		char[] characters = parameter.characters.toCharArray();
-		int charactersLength = characters.length;
-		boolean incremental = parameter.incremental;
-		int flags = getLoadingFlags(parameter);
-
-		setPixelSizes(0, parameter.size);
-
-		// set general font data
-		SizeMetrics fontMetrics = face.getSize().getMetrics();
-		data.flipped = parameter.flip;
-		data.ascent = FreeType.toInt(fontMetrics.getAscender());
-		data.descent = FreeType.toInt(fontMetrics.getDescender());
-		data.lineHeight = FreeType.toInt(fontMetrics.getHeight());
-		float baseLine = data.ascent;
-
-		// if bitmapped
-		if (bitmapped && (data.lineHeight == 0)) {
-			for (int c = 32; c < (32 + face.getNumGlyphs()); c++) {
-				if (loadChar(c, flags)) {
-					int lh = FreeType.toInt(face.getGlyph().getMetrics().getHeight());
-					data.lineHeight = (lh > data.lineHeight) ? lh : data.lineHeight;
-				}
-			}
-		}
-		data.lineHeight += parameter.spaceY;
-
-		// determine space width
-		if (loadChar(' ', flags) || loadChar('l', flags)) {
-			data.spaceXadvance = FreeType.toInt(face.getGlyph().getMetrics().getHoriAdvance());
-		} else {
-			data.spaceXadvance = face.getMaxAdvanceWidth(); // Possibly very wrong.
-		}
-
-		// determine x-height
-		for (char xChar : data.xChars) {
-			if (!loadChar(xChar, flags)) continue;
-			data.xHeight = FreeType.toInt(face.getGlyph().getMetrics().getHeight());
-			break;
-		}
-		if (data.xHeight == 0) throw new GdxRuntimeException("No x-height character found in font");
-
-		// determine cap height
-		for (char capChar : data.capChars) {
-			if (!loadChar(capChar, flags)) continue;
-			data.capHeight = FreeType.toInt(face.getGlyph().getMetrics().getHeight()) + Math.abs(parameter.shadowOffsetY);
-			break;
-		}
-		if (!bitmapped && data.capHeight == 1) throw new GdxRuntimeException("No cap character found in font");
-
-		data.ascent -= data.capHeight;
-		data.down = -data.lineHeight;
-		if (parameter.flip) {
-			data.ascent = -data.ascent;
-			data.down = -data.down;
-		}
-
-		boolean ownsAtlas = false;
-
-		PixmapPacker packer = parameter.packer;
-
-		if (packer == null) {
-			// Create a packer.
-			int size;
-			PackStrategy packStrategy;
-			if (incremental) {
-				size = maxTextureSize;
-				packStrategy = new GuillotineStrategy();
-			} else {
-				int maxGlyphHeight = (int)Math.ceil(data.lineHeight);
-				size = MathUtils.nextPowerOfTwo((int)Math.sqrt(maxGlyphHeight * maxGlyphHeight * charactersLength));
-				if (maxTextureSize > 0) size = Math.min(size, maxTextureSize);
-				packStrategy = new SkylineStrategy();
-			}
-			ownsAtlas = true;
-			packer = new PixmapPacker(size, size, Format.RGBA8888, 1, false, packStrategy);
-			packer.setTransparentColor(parameter.color);
-			packer.getTransparentColor().a = 0;
-			if (parameter.borderWidth > 0) {
-				packer.setTransparentColor(parameter.borderColor);
-				packer.getTransparentColor().a = 0;
-			}
-		}
-
-		if (incremental) data.glyphs = new Array(charactersLength + 32);
-
-		Stroker stroker = null;
-		if (parameter.borderWidth > 0) {
-			stroker = library.createStroker();
-			stroker.set((int)(parameter.borderWidth * 64f),
-				parameter.borderStraight ? FreeType.FT_STROKER_LINECAP_BUTT : FreeType.FT_STROKER_LINECAP_ROUND,
-				parameter.borderStraight ? FreeType.FT_STROKER_LINEJOIN_MITER_FIXED : FreeType.FT_STROKER_LINEJOIN_ROUND, 0);
-		}
-
-		// Create glyphs largest height first for best packing.
-		int[] heights = new int[charactersLength];
-		for (int i = 0; i < charactersLength; i++) {
-			char c = characters[i];
-
-			int height = loadChar(c, flags) ? FreeType.toInt(face.getGlyph().getMetrics().getHeight()) : 0;
-			heights[i] = height;
-
-			if (c == '\0') {
-				Glyph missingGlyph = createGlyph('\0', data, parameter, stroker, baseLine, packer);
-				if (missingGlyph != null && missingGlyph.width != 0 && missingGlyph.height != 0) {
-					data.setGlyph('\0', missingGlyph);
-					data.missingGlyph = missingGlyph;
-					if (incremental) data.glyphs.add(missingGlyph);
-				}
-			}
-		}
-		int heightsCount = heights.length;
-		while (heightsCount > 0) {
-			int best = 0, maxHeight = heights[0];
-			for (int i = 1; i < heightsCount; i++) {
-				int height = heights[i];
-				if (height > maxHeight) {
-					maxHeight = height;
-					best = i;
-				}
-			}
-
-			char c = characters[best];
-			if (data.getGlyph(c) == null) {
-				Glyph glyph = createGlyph(c, data, parameter, stroker, baseLine, packer);
-				if (glyph != null) {
-					data.setGlyph(c, glyph);
-					if (incremental) data.glyphs.add(glyph);
-				}
-			}
-
-			heightsCount--;
-			heights[best] = heights[heightsCount];
-			char tmpChar = characters[best];
-			characters[best] = characters[heightsCount];
-			characters[heightsCount] = tmpChar;
-		}
-
-		if (stroker != null && !incremental) stroker.dispose();
-
-		if (incremental) {
-			data.generator = this;
-			data.parameter = parameter;
-			data.stroker = stroker;
-			data.packer = packer;
-		}
-
-		// Generate kerning.
-		parameter.kerning &= face.hasKerning();
-		if (parameter.kerning) {
-			for (int i = 0; i < charactersLength; i++) {
-				char firstChar = characters[i];
-				Glyph first = data.getGlyph(firstChar);
-				if (first == null) continue;
-				int firstIndex = face.getCharIndex(firstChar);
-				for (int ii = i; ii < charactersLength; ii++) {
-					char secondChar = characters[ii];
-					Glyph second = data.getGlyph(secondChar);
-					if (second == null) continue;
-					int secondIndex = face.getCharIndex(secondChar);
-
-					int kerning = face.getKerning(firstIndex, secondIndex, 0); // FT_KERNING_DEFAULT (scaled then rounded).
-					if (kerning != 0) first.setKerning(secondChar, FreeType.toInt(kerning));
-
-					kerning = face.getKerning(secondIndex, firstIndex, 0); // FT_KERNING_DEFAULT (scaled then rounded).
-					if (kerning != 0) second.setKerning(firstChar, FreeType.toInt(kerning));
-				}
-			}
-		}
-
-		// Generate texture regions.
-		if (ownsAtlas) {
-			data.regions = new Array();
-			packer.updateTextureRegions(data.regions, parameter.minFilter, parameter.magFilter, parameter.genMipMaps);
-		}
-
-		// Set space glyph.
-		Glyph spaceGlyph = data.getGlyph(' ');
-		if (spaceGlyph == null) {
-			spaceGlyph = new Glyph();
-			spaceGlyph.xadvance = (int)data.spaceXadvance + parameter.spaceX;
-			spaceGlyph.id = (int)' ';
-			data.setGlyph(' ', spaceGlyph);
-		}
-		if (spaceGlyph.width == 0) spaceGlyph.width = (int)(spaceGlyph.xadvance + data.padRight);
-
-		return data;
-	}
-
-	/** @return null if glyph was not found. */
-	Glyph createGlyph (char c, FreeTypeBitmapFontData data, FreeTypeFontParameter parameter, Stroker stroker, float baseLine,
-		PixmapPacker packer) {
-
-		boolean missing = face.getCharIndex(c) == 0 && c != 0;
-		if (missing) return null;
-
-		if (!loadChar(c, getLoadingFlags(parameter))) return null;
-
-		GlyphSlot slot = face.getGlyph();
-		FreeType.Glyph mainGlyph = slot.getGlyph();
-		try {
-			mainGlyph.toBitmap(parameter.mono ? FreeType.FT_RENDER_MODE_MONO : FreeType.FT_RENDER_MODE_NORMAL);
-		} catch (GdxRuntimeException e) {
-			mainGlyph.dispose();
-			Gdx.app.log("FreeTypeFontGenerator", "Couldn't render char: " + c);
-			return null;
-		}
-		Bitmap mainBitmap = mainGlyph.getBitmap();
-		Pixmap mainPixmap = mainBitmap.getPixmap(Format.RGBA8888, parameter.color, parameter.gamma);
-
-		if (mainBitmap.getWidth() != 0 && mainBitmap.getRows() != 0) {
-			int offsetX = 0, offsetY = 0;
-			if (parameter.borderWidth > 0) {
-				// execute stroker; this generates a glyph "extended" along the outline
-				int top = mainGlyph.getTop(), left = mainGlyph.getLeft();
-				FreeType.Glyph borderGlyph = slot.getGlyph();
-				borderGlyph.strokeBorder(stroker, false);
-				borderGlyph.toBitmap(parameter.mono ? FreeType.FT_RENDER_MODE_MONO : FreeType.FT_RENDER_MODE_NORMAL);
-				offsetX = left - borderGlyph.getLeft();
-				offsetY = -(top - borderGlyph.getTop());
-
-				// Render border (pixmap is bigger than main).
-				Bitmap borderBitmap = borderGlyph.getBitmap();
-				Pixmap borderPixmap = borderBitmap.getPixmap(Format.RGBA8888, parameter.borderColor, parameter.borderGamma);
-
-				// Draw main glyph on top of border.
-				for (int i = 0, n = parameter.renderCount; i < n; i++)
-					borderPixmap.drawPixmap(mainPixmap, offsetX, offsetY);
-
-				mainPixmap.dispose();
-				mainGlyph.dispose();
-				mainPixmap = borderPixmap;
-				mainGlyph = borderGlyph;
-			}
-
-			if (parameter.shadowOffsetX != 0 || parameter.shadowOffsetY != 0) {
-				int mainW = mainPixmap.getWidth(), mainH = mainPixmap.getHeight();
-				int shadowOffsetX = Math.max(parameter.shadowOffsetX, 0), shadowOffsetY = Math.max(parameter.shadowOffsetY, 0);
-				int shadowW = mainW + Math.abs(parameter.shadowOffsetX), shadowH = mainH + Math.abs(parameter.shadowOffsetY);
-				Pixmap shadowPixmap = new Pixmap(shadowW, shadowH, mainPixmap.getFormat());
-
-				Color shadowColor = parameter.shadowColor;
-				float a = shadowColor.a;
-				if (a != 0) {
-					byte r = (byte)(shadowColor.r * 255), g = (byte)(shadowColor.g * 255), b = (byte)(shadowColor.b * 255);
-					ByteBuffer mainPixels = ((FreeTypePixmap)mainPixmap).getRealPixels();
-					ByteBuffer shadowPixels = ((FreeTypePixmap)shadowPixmap).getRealPixels();
-					for (int y = 0; y < mainH; y++) {
-						int shadowRow = shadowW * (y + shadowOffsetY) + shadowOffsetX;
-						for (int x = 0; x < mainW; x++) {
-							int mainPixel = (mainW * y + x) * 4;
-							byte mainA = mainPixels.get(mainPixel + 3);
-							if (mainA == 0) continue;
-							int shadowPixel = (shadowRow + x) * 4;
-							shadowPixels.put(shadowPixel, r);
-							shadowPixels.put(shadowPixel + 1, g);
-							shadowPixels.put(shadowPixel + 2, b);
-							shadowPixels.put(shadowPixel + 3, (byte)((mainA & 0xff) * a));
-						}
-					}
-					((FreeTypePixmap)shadowPixmap).putPixelsBack(shadowPixels);
-				}
-
-				// Draw main glyph (with any border) on top of shadow.
-				for (int i = 0, n = parameter.renderCount; i < n; i++)
-					shadowPixmap.drawPixmap(mainPixmap, Math.max(-parameter.shadowOffsetX, 0), Math.max(-parameter.shadowOffsetY, 0));
-				mainPixmap.dispose();
-				mainPixmap = shadowPixmap;
-			} else if (parameter.borderWidth == 0) {
-				// No shadow and no border, draw glyph additional times.
-				for (int i = 0, n = parameter.renderCount - 1; i < n; i++)
-					mainPixmap.drawPixmap(mainPixmap, 0, 0);
-			}
-
-			if (parameter.padTop > 0 || parameter.padLeft > 0 || parameter.padBottom > 0 || parameter.padRight > 0) {
-				Pixmap padPixmap = new Pixmap(mainPixmap.getWidth() + parameter.padLeft + parameter.padRight,
-					mainPixmap.getHeight() + parameter.padTop + parameter.padBottom, mainPixmap.getFormat());
-				padPixmap.setBlending(Blending.None);
-				padPixmap.drawPixmap(mainPixmap, parameter.padLeft, parameter.padTop);
-				mainPixmap.dispose();
-				mainPixmap = padPixmap;
-			}
-		}
-
-		GlyphMetrics metrics = slot.getMetrics();
-		Glyph glyph = new Glyph();
-		glyph.id = c;
-		glyph.width = mainPixmap.getWidth();
-		glyph.height = mainPixmap.getHeight();
-		glyph.xoffset = mainGlyph.getLeft();
-		if (parameter.flip)
-			glyph.yoffset = -mainGlyph.getTop() + (int)baseLine;
-		else
-			glyph.yoffset = -(glyph.height - mainGlyph.getTop()) - (int)baseLine;
-		glyph.xadvance = FreeType.toInt(metrics.getHoriAdvance()) + (int)parameter.borderWidth + parameter.spaceX;
-
-		if (bitmapped) {
-			mainPixmap.setColor(Color.CLEAR);
-			mainPixmap.fill();
-			ByteBuffer buf = mainBitmap.getBuffer();
-			int whiteIntBits = Color.WHITE.toIntBits();
-			int clearIntBits = Color.CLEAR.toIntBits();
-			for (int h = 0; h < glyph.height; h++) {
-				int idx = h * mainBitmap.getPitch();
-				for (int w = 0; w < (glyph.width + glyph.xoffset); w++) {
-					int bit = (buf.get(idx + (w / 8)) >>> (7 - (w % 8))) & 1;
-					mainPixmap.drawPixel(w, h, ((bit == 1) ? whiteIntBits : clearIntBits));
-				}
-			}
-		}
-
-		Rectangle rect = packer.pack(mainPixmap);
-		glyph.page = packer.getPages().size - 1; // Glyph is always packed into the last page for now.
-		glyph.srcX = (int)rect.x;
-		glyph.srcY = (int)rect.y;
-
-		// If a page was added, create a new texture region for the incrementally added glyph.
-		if (parameter.incremental && data.regions != null && data.regions.size <= glyph.page)
-			packer.updateTextureRegions(data.regions, parameter.minFilter, parameter.magFilter, parameter.genMipMaps);
-
-		mainPixmap.dispose();
-		mainGlyph.dispose();
-
-		return glyph;
-	}
-
-	public String toString () {
-		return name;
-	}
-
-	/** Cleans up all resources of the generator. Call this if you no longer use the generator. */
-	@Override
-	public void dispose () {
-		face.dispose();
-		library.dispose();
-	}
-
-	/** Sets the maximum size that will be used when generating texture atlases for glyphs with <tt>generateData()</tt>. The
-	 * default is 1024. By specifying {@link #NO_MAXIMUM}, the texture atlas will scale as needed.
-	 * 
-	 * The power-of-two square texture size will be capped to the given <tt>texSize</tt>. It's recommended that a power-of-two
-	 * value be used here.
-	 * 
-	 * Multiple pages may be used to fit all the generated glyphs. You can query the resulting number of pages by calling
-	 * <tt>bitmapFont.getRegions().length</tt> or <tt>freeTypeBitmapFontData.getTextureRegions().length</tt>.
-	 * 
-	 * If PixmapPacker is specified when calling generateData, this parameter is ignored.
-	 * 
-	 * @param texSize the maximum texture size for one page of glyphs */
-	public static void setMaxTextureSize (int texSize) {
-		maxTextureSize = texSize;
-	}
-
-	/** Returns the maximum texture size that will be used by generateData() when creating a texture atlas for the glyphs.
-	 * @return the power-of-two max texture size */
-	public static int getMaxTextureSize () {
-		return maxTextureSize;
-	}
-
-	/** {@link BitmapFontData} used for fonts generated via the {@link FreeTypeFontGenerator}. The texture storing the glyphs is
-	 * held in memory, thus the {@link #getImagePaths()} and {@link #getFontFile()} methods will return null.
-	 * @author mzechner
-	 * @author Nathan Sweet */
-	static public class FreeTypeBitmapFontData extends BitmapFontData implements Disposable {
-		public Array<TextureRegion> regions;
-
-		// Fields for incremental glyph generation.
-		FreeTypeFontGenerator generator;
-		FreeTypeFontParameter parameter;
-		Stroker stroker;
-		PixmapPacker packer;
-		Array<Glyph> glyphs;
-		private boolean dirty;
-
-		@Override
-		public Glyph getGlyph (char ch) {
-			Glyph glyph = super.getGlyph(ch);
-			if (glyph == null && generator != null) {
-				generator.setPixelSizes(0, parameter.size);
-				float baseline = ((flipped ? -ascent : ascent) + capHeight) / scaleY;
-				glyph = generator.createGlyph(ch, this, parameter, stroker, baseline, packer);
-				if (glyph == null) return missingGlyph;
-
-				setGlyphRegion(glyph, regions.get(glyph.page));
-				setGlyph(ch, glyph);
-				glyphs.add(glyph);
-				dirty = true;
-
-				Face face = generator.face;
-				if (parameter.kerning) {
-					int glyphIndex = face.getCharIndex(ch);
-					for (int i = 0, n = glyphs.size; i < n; i++) {
-						Glyph other = glyphs.get(i);
-						int otherIndex = face.getCharIndex(other.id);
-
-						int kerning = face.getKerning(glyphIndex, otherIndex, 0);
-						if (kerning != 0) glyph.setKerning(other.id, FreeType.toInt(kerning));
-
-						kerning = face.getKerning(otherIndex, glyphIndex, 0);
-						if (kerning != 0) other.setKerning(ch, FreeType.toInt(kerning));
-					}
-				}
-			}
-			return glyph;
-		}
-
-		public void getGlyphs (GlyphRun run, CharSequence str, int start, int end, Glyph lastGlyph) {
-			if (packer != null) packer.setPackToTexture(true); // All glyphs added after this are packed directly to the texture.
-			super.getGlyphs(run, str, start, end, lastGlyph);
-			if (dirty) {
-				dirty = false;
-				packer.updateTextureRegions(regions, parameter.minFilter, parameter.magFilter, parameter.genMipMaps);
-			}
-		}
-
-		@Override
-		public void dispose () {
-			if (stroker != null) stroker.dispose();
-			if (packer != null) packer.dispose();
-		}
-	}
-
-	/** Font smoothing algorithm. */
-	public static enum Hinting {
-		/** Disable hinting. Generated glyphs will look blurry. */
-		None,
-		/** Light hinting with fuzzy edges, but close to the original shape */
-		Slight,
-		/** Average hinting */
-		Medium,
-		/** Strong hinting with crisp edges at the expense of shape fidelity */
-		Full,
-		/** Light hinting with fuzzy edges, but close to the original shape. Uses the FreeType auto-hinter. */
-		AutoSlight,
-		/** Average hinting. Uses the FreeType auto-hinter. */
-		AutoMedium,
-		/** Strong hinting with crisp edges at the expense of shape fidelity. Uses the FreeType auto-hinter. */
-		AutoFull,
-	}
-
-	/** Parameter container class that helps configure how {@link FreeTypeBitmapFontData} and {@link BitmapFont} instances are
-	 * generated.
-	 * 
-	 * The packer field is for advanced usage, where it is necessary to pack multiple BitmapFonts (i.e. styles, sizes, families)
-	 * into a single Texture atlas. If no packer is specified, the generator will use its own PixmapPacker to pack the glyphs into
-	 * a power-of-two sized texture, and the resulting {@link FreeTypeBitmapFontData} will have a valid {@link TextureRegion} which
-	 * can be used to construct a new {@link BitmapFont}.
-	 * 
-	 * @author siondream
-	 * @author Nathan Sweet */
-	public static class FreeTypeFontParameter {
-		/** The size in pixels */
-		public int size = 16;
-		/** If true, font smoothing is disabled. */
-		public boolean mono;
-		/** Strength of hinting */
-		public Hinting hinting = Hinting.AutoMedium;
-		/** Foreground color (required for non-black borders) */
-		public Color color = Color.WHITE;
-		/** Glyph gamma. Values > 1 reduce antialiasing. */
-		public float gamma = 1.8f;
-		/** Number of times to render the glyph. Useful with a shadow or border, so it doesn't show through the glyph. */
-		public int renderCount = 2;
-		/** Border width in pixels, 0 to disable */
-		public float borderWidth = 0;
-		/** Border color; only used if borderWidth > 0 */
-		public Color borderColor = Color.BLACK;
-		/** true for straight (mitered), false for rounded borders */
-		public boolean borderStraight = false;
-		/** Values < 1 increase the border size. */
-		public float borderGamma = 1.8f;
-		/** Offset of text shadow on X axis in pixels, 0 to disable */
-		public int shadowOffsetX = 0;
-		/** Offset of text shadow on Y axis in pixels, 0 to disable */
-		public int shadowOffsetY = 0;
-		/** Shadow color; only used if shadowOffset > 0. If alpha component is 0, no shadow is drawn but characters are still offset
-		 * by shadowOffset. */
-		public Color shadowColor = new Color(0, 0, 0, 0.75f);
-		/** Pixels to add to glyph spacing when text is rendered. Can be negative. */
-		public int spaceX, spaceY;
-		/** Pixels to add to the glyph in the texture. Cannot be negative. */
-		public int padTop, padLeft, padBottom, padRight;
-		/** The characters the font should contain. If '\0' is not included then {@link BitmapFontData#missingGlyph} is not set. */
-		public String characters = DEFAULT_CHARS;
-		/** Whether the font should include kerning */
-		public boolean kerning = true;
-		/** The optional PixmapPacker to use for packing multiple fonts into a single texture.
-		 * @see FreeTypeFontParameter */
-		public PixmapPacker packer = null;
-		/** Whether to flip the font vertically */
-		public boolean flip = false;
-		/** Whether to generate mip maps for the resulting texture */
-		public boolean genMipMaps = false;
-		/** Minification filter */
-		public TextureFilter minFilter = TextureFilter.Nearest;
-		/** Magnification filter */
-		public TextureFilter magFilter = TextureFilter.Nearest;
-		/** When true, glyphs are rendered on the fly to the font's glyph page textures as they are needed. The
-		 * FreeTypeFontGenerator must not be disposed until the font is no longer needed. The FreeTypeBitmapFontData must be
-		 * disposed (separately from the generator) when the font is no longer needed. The FreeTypeFontParameter should not be
-		 * modified after creating a font. If a PixmapPacker is not specified, the font glyph page textures will use
-		 * {@link FreeTypeFontGenerator#getMaxTextureSize()}. */
-		public boolean incremental;
-	}
-}
+/*******************************************************************************
+ * Copyright 2011 See AUTHORS file.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package com.badlogic.gdx.graphics.g2d.freetype;
+
+import java.nio.ByteBuffer;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.FreeTypePixmap;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Pixmap.Blending;
+import com.badlogic.gdx.graphics.Pixmap.Format;
+import com.badlogic.gdx.graphics.Texture.TextureFilter;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.BitmapFont.BitmapFontData;
+import com.badlogic.gdx.graphics.g2d.BitmapFont.Glyph;
+import com.badlogic.gdx.graphics.g2d.GlyphLayout.GlyphRun;
+import com.badlogic.gdx.graphics.g2d.PixmapPacker;
+import com.badlogic.gdx.graphics.g2d.PixmapPacker.GuillotineStrategy;
+import com.badlogic.gdx.graphics.g2d.PixmapPacker.PackStrategy;
+import com.badlogic.gdx.graphics.g2d.PixmapPacker.Page;
+import com.badlogic.gdx.graphics.g2d.PixmapPacker.SkylineStrategy;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.graphics.g2d.freetype.FreeType.Bitmap;
+import com.badlogic.gdx.graphics.g2d.freetype.FreeType.CharMap;
+import com.badlogic.gdx.graphics.g2d.freetype.FreeType.Face;
+import com.badlogic.gdx.graphics.g2d.freetype.FreeType.GlyphSlot;
+import com.badlogic.gdx.graphics.g2d.freetype.FreeType.Library;
+import com.badlogic.gdx.graphics.g2d.freetype.FreeType.RenderedGlyphs;
+import com.badlogic.gdx.graphics.g2d.freetype.FreeType.Size;
+import com.badlogic.gdx.graphics.g2d.freetype.FreeType.SizeMetrics;
+import com.badlogic.gdx.graphics.g2d.freetype.FreeType.Stroker;
+import com.badlogic.gdx.graphics.g2d.freetype.gwt.cache.FontCache;
+import com.badlogic.gdx.graphics.g2d.freetype.gwt.inject.OnCompletion;
+import com.badlogic.gdx.graphics.g2d.freetype.gwt.worker.FreeTypeWorker;
+import com.badlogic.gdx.graphics.g2d.freetype.gwt.worker.FreeTypeWorkerPool;
+import com.badlogic.gdx.graphics.g2d.freetype.gwt.worker.GlyphRenderer;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.CharArray;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.IntSet;
+import com.google.gwt.core.client.Callback;
+
+/** Generates {@link BitmapFont} and {@link BitmapFontData} instances from TrueType, OTF, and other FreeType supported fonts.
+ * </p>
+ * 
+ * Usage example:
+ * 
+ * <pre>
+ * FreeTypeFontGenerator gen = new FreeTypeFontGenerator(Gdx.files.internal(&quot;myfont.ttf&quot;));
+ * BitmapFont font = gen.generateFont(16);
+ * gen.dispose(); // Don't dispose if doing incremental glyph generation.
+ * </pre>
+ * 
+ * The generator has to be disposed once it is no longer used. The returned {@link BitmapFont} instances are managed by the user
+ * and have to be disposed as usual.
+ * 
+ * @author mzechner
+ * @author Nathan Sweet
+ * @author Rob Rendell */
+public class FreeTypeFontGenerator implements Disposable {
+	static public final String DEFAULT_CHARS = "\u0000ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz1234567890\"!`?'.,;:()[]{}<>|/@\\^$€-%+=#_&~*\u0080\u0081\u0082\u0083\u0084\u0085\u0086\u0087\u0088\u0089\u008A\u008B\u008C\u008D\u008E\u008F\u0090\u0091\u0092\u0093\u0094\u0095\u0096\u0097\u0098\u0099\u009A\u009B\u009C\u009D\u009E\u009F\u00A0\u00A1\u00A2\u00A3\u00A4\u00A5\u00A6\u00A7\u00A8\u00A9\u00AA\u00AB\u00AC\u00AD\u00AE\u00AF\u00B0\u00B1\u00B2\u00B3\u00B4\u00B5\u00B6\u00B7\u00B8\u00B9\u00BA\u00BB\u00BC\u00BD\u00BE\u00BF\u00C0\u00C1\u00C2\u00C3\u00C4\u00C5\u00C6\u00C7\u00C8\u00C9\u00CA\u00CB\u00CC\u00CD\u00CE\u00CF\u00D0\u00D1\u00D2\u00D3\u00D4\u00D5\u00D6\u00D7\u00D8\u00D9\u00DA\u00DB\u00DC\u00DD\u00DE\u00DF\u00E0\u00E1\u00E2\u00E3\u00E4\u00E5\u00E6\u00E7\u00E8\u00E9\u00EA\u00EB\u00EC\u00ED\u00EE\u00EF\u00F0\u00F1\u00F2\u00F3\u00F4\u00F5\u00F6\u00F7\u00F8\u00F9\u00FA\u00FB\u00FC\u00FD\u00FE\u00FF";
+
+	/** A hint to scale the texture as needed, without capping it at any maximum size */
+	static public final int NO_MAXIMUM = -1;
+
+	/** The maximum texture size allowed by generateData, when storing in a texture atlas. Multiple texture pages will be created
+	 * if necessary. Default is 1024.
+	 * @see #setMaxTextureSize(int) */
+	static private int maxTextureSize = 1024;
+
+	static private FontCache fontCache;
+
+	final Library library;
+	final Face face;
+	/** Cached glyph indices of {@link #face}, see {@link Face#getCharMap()}. */
+	final CharMap charMap;
+	final String name;
+	boolean bitmapped = false;
+	private int pixelWidth, pixelHeight;
+	/** Reused buffers for the batched struct reads, see {@link GlyphSlot#readMetrics(int[])}. */
+	private final int[] slotMetrics = new int[GlyphSlot.METRICS_SIZE];
+	private final int[] sizeMetrics = new int[SizeMetrics.METRICS_SIZE];
+	private final int[] glyphBitmap = new int[FreeType.Glyph.BITMAP_SIZE];
+	/** The character set of the last kerned font and its pairs with kerning, see {@link #getKerningPairs(String)}. */
+	private String kerningCharacters;
+	private int[] kerningChars, kerningGlyphs;
+
+	/** {@link #FreeTypeFontGenerator(FileHandle, int)} */
+	public FreeTypeFontGenerator (FileHandle fontFile) {
+		this(fontFile, 0);
+	}
+
+	/** {@link #FreeTypeFontGenerator(FileHandle, int, boolean)} using the shared FreeType library. */
+	public FreeTypeFontGenerator (FileHandle fontFile, int faceIndex) {
+		this(fontFile, faceIndex, false);
+	}
+
+	/** Creates a new generator from the given font file. Uses {@link FileHandle#length()} to determine the file size. If the file
+	 * length could not be determined (it was 0), an extra copy of the font bytes is performed. Throws a
+	 * {@link GdxRuntimeException} if loading did not succeed.
+	 * @param privateLibrary if true, the generator initializes its own FreeType library instead of holding the shared one, see
+	 *           {@link FreeType#obtainSharedLibrary()} */
+	public FreeTypeFontGenerator (FileHandle fontFile, int faceIndex, boolean privateLibrary) {
+		name = fontFile.nameWithoutExtension();
+		library = privateLibrary ? FreeType.initFreeType() : FreeType.obtainSharedLibrary();
+		try {
+			face = library.newFace(fontFile, faceIndex);
+		} catch (RuntimeException ex) {
+			library.dispose();
+			throw ex;
+		}
+		charMap = face.getCharMap();
+		if (checkForBitmapFont()) return;
+		setPixelSizes(0, 15);
+	}
+
+	private int getLoadingFlags (FreeTypeFontParameter parameter) {
+		int loadingFlags = FreeType.FT_LOAD_DEFAULT;
+		switch (parameter.hinting) {
+		case None:
+			loadingFlags |= FreeType.FT_LOAD_NO_HINTING;
+			break;
+		case Slight:
+			loadingFlags |= FreeType.FT_LOAD_TARGET_LIGHT;
+			break;
+		case Medium:
+			loadingFlags |= FreeType.FT_LOAD_TARGET_NORMAL;
+			break;
+		case Full:
+			loadingFlags |= FreeType.FT_LOAD_TARGET_MONO;
+			break;
+		case AutoSlight:
+			loadingFlags |= FreeType.FT_LOAD_FORCE_AUTOHINT | FreeType.FT_LOAD_TARGET_LIGHT;
+			break;
+		case AutoMedium:
+			loadingFlags |= FreeType.FT_LOAD_FORCE_AUTOHINT | FreeType.FT_LOAD_TARGET_NORMAL;
+			break;
+		case AutoFull:
+			loadingFlags |= FreeType.FT_LOAD_FORCE_AUTOHINT | FreeType.FT_LOAD_TARGET_MONO;
+			break;
+		}
+		return loadingFlags;
+	}
+
+	private int getRenderMode (FreeTypeFontParameter parameter) {
+		return parameter.mono ? FreeType.FT_RENDER_MODE_MONO : FreeType.FT_RENDER_MODE_NORMAL;
+	}
+
+	private boolean loadChar (int c) {
+		return loadChar(c, FreeType.FT_LOAD_DEFAULT | FreeType.FT_LOAD_FORCE_AUTOHINT);
+	}
+
+	private boolean loadChar (int c, int flags) {
+		return face.loadChar(c, flags);
+	}
+
+	/** Reads the metrics of the glyph slot after a {@link #loadChar(int, int)} in one call. */
+	private int[] readSlotMetrics () {
+		face.getGlyph().readMetrics(slotMetrics);
+		return slotMetrics;
+	}
+
+	private int[] readSizeMetrics () {
+		face.getSize().getMetrics().readMetrics(sizeMetrics);
+		return sizeMetrics;
+	}
+
+	private boolean checkForBitmapFont () {
+		int faceFlags = face.getFaceFlags();
+		if (((faceFlags & FreeType.FT_FACE_FLAG_FIXED_SIZES) == FreeType.FT_FACE_FLAG_FIXED_SIZES)
+			&& ((faceFlags & FreeType.FT_FACE_FLAG_HORIZONTAL) == FreeType.FT_FACE_FLAG_HORIZONTAL)) {
+			if (loadChar(32)) {
+				if (readSlotMetrics()[GlyphSlot.METRICS_FORMAT] == 1651078259) {
+					bitmapped = true;
+				}
+			}
+		}
+		return bitmapped;
+	}
+
+	public BitmapFont generateFont (FreeTypeFontParameter parameter) {
+		return generateFont(parameter, new FreeTypeBitmapFontData());
+	}
+
+	/** Generates a new {@link BitmapFont}. The size is expressed in pixels. Throws a GdxRuntimeException if the font could not be
+	 * generated. Using big sizes might cause such an exception.
+	 * @param parameter configures how the font is generated */
+	public BitmapFont generateFont (FreeTypeFontParameter parameter, FreeTypeBitmapFontData data) {
+		GenerationTask task = new GenerationTask(parameter, data, true);
+		task.update(0);
+		return task.getFont();
+	}
+
+	/** Generates a font like {@link #generateFont(FreeTypeFontParameter)}, rendering the glyphs with the shared
+	 * {@link FreeTypeWorkerPool} where the browser supports workers, see
+	 * {@link #generateFontAsync(FreeTypeFontParameter, GlyphRenderer, Callback)}. */
+	public void generateFontAsync (FreeTypeFontParameter parameter, Callback<BitmapFont, Throwable> callback) {
+		generateFontAsync(parameter, FreeTypeWorker.isSupported() ? FreeTypeWorkerPool.getShared() : null, callback);
+	}
+
+	/** Generates a new {@link BitmapFont} with the glyphs rendered in workers, so the main thread only measures, packs and kerns
+	 * them. The font is passed to the callback on the main thread. Incremental fonts keep rendering new glyphs with the
+	 * renderer, see {@link FreeTypeBitmapFontData#requestGlyphs(CharSequence, OnCompletion)}. The generator has to stay alive
+	 * until then.
+	 * <p>
+	 * Fonts with a border, which needs the glyph outlines, and bitmap fonts are generated right away on the main thread, as are
+	 * all fonts if the renderer fails.
+	 * @param renderer a {@link FreeTypeWorker} or {@link FreeTypeWorkerPool}, or null to generate the font right away on the
+	 *           main thread */
+	public void generateFontAsync (FreeTypeFontParameter parameter, GlyphRenderer renderer,
+		Callback<BitmapFont, Throwable> callback) {
+		new GenerationTask(parameter, new FreeTypeBitmapFontData(), true).generateAsync(renderer, callback);
+	}
+
+	/** Generates the glyphs once, in white, and returns one {@link BitmapFont} per color that shares the glyph atlas and applies
+	 * its color at draw time. See {@link FreeTypeFontParameter#tint}. The first font owns the atlas texture (unless a packer was
+	 * given), so it has to be disposed last.
+	 * @param parameter configures how the font is generated, {@link FreeTypeFontParameter#color} is ignored */
+	public BitmapFont[] generateFonts (FreeTypeFontParameter parameter, Color... colors) {
+		if (colors.length == 0) throw new IllegalArgumentException("At least one color is required.");
+		boolean tint = parameter.tint;
+		Color color = parameter.color;
+		parameter.tint = true;
+		parameter.color = colors[0];
+		BitmapFont first;
+		try {
+			first = generateFont(parameter);
+		} finally {
+			parameter.tint = tint;
+			parameter.color = color;
+		}
+		BitmapFont[] fonts = new BitmapFont[colors.length];
+		fonts[0] = first;
+		for (int i = 1; i < colors.length; i++) {
+			BitmapFont font = new BitmapFont(first.getData(), first.getRegions(), true);
+			font.setOwnsTexture(false);
+			font.setColor(colors[i]);
+			fonts[i] = font;
+		}
+		return fonts;
+	}
+
+	/** Generates one {@link BitmapFont} per size, all packed into one atlas. The glyphs of all sizes are packed in one order,
+	 * tallest first, as if they were the glyphs of one font. The order comes from the unhinted outline heights scaled to each
+	 * size, so it can be off by a pixel of hinting. The sizes share one stroker, and the kerning pairs of the characters are only
+	 * searched once. Unless a packer was given, the font of the smallest size owns the atlas texture, so it has to be disposed
+	 * last. Incremental fonts each keep their own atlas and are generated one after the other.
+	 * @param parameter configures how the fonts are generated, {@link FreeTypeFontParameter#size} is ignored. Each font gets a
+	 *           copy with its size.
+	 * @return the fonts in the order of the sizes */
+	public BitmapFont[] generateFontSizes (FreeTypeFontParameter parameter, int... sizes) {
+		if (sizes.length == 0) throw new IllegalArgumentException("At least one size is required.");
+		int count = sizes.length;
+		BitmapFont[] fonts = new BitmapFont[count];
+		if (parameter.incremental) {
+			for (int i = 0; i < count; i++)
+				fonts[i] = generateFont(copyParameter(parameter, sizes[i]));
+			return fonts;
+		}
+
+		int smallest = 0;
+		for (int i = 1; i < count; i++)
+			if (sizes[i] < sizes[smallest]) smallest = i;
+		PixmapPacker packer = parameter.packer;
+		boolean ownsAtlas = packer == null;
+		if (ownsAtlas) {
+			int area = 0, charactersLength = parameter.characters.length();
+			for (int i = 0; i < count; i++) {
+				setPixelSizes(0, sizes[i]);
+				int lineHeight = Math.max(FreeType.toInt(readSizeMetrics()[SizeMetrics.METRICS_HEIGHT]), sizes[i]);
+				area += lineHeight * lineHeight * charactersLength;
+			}
+			int atlasSize = MathUtils.nextPowerOfTwo((int)Math.sqrt(area));
+			if (maxTextureSize > 0) atlasSize = Math.min(atlasSize, maxTextureSize);
+			packer = newPacker(parameter, atlasSize, new SkylineStrategy());
+		}
+
+		Stroker stroker = newStroker(parameter);
+		GenerationTask[] tasks = new GenerationTask[count];
+		try {
+			for (int i = 0; i < count; i++) {
+				FreeTypeFontParameter sizeParameter = copyParameter(parameter, sizes[i]);
+				sizeParameter.packer = packer;
+				GenerationTask task = new GenerationTask(sizeParameter, new FreeTypeBitmapFontData(), true);
+				tasks[i] = task;
+				task.stroker = stroker;
+				task.sharedStroker = true;
+				// Its own size keeps the scale while the sizes take turns.
+				if (!bitmapped && Size.isSupported()) task.faceSize = face.newSize();
+				task.started = true;
+				task.start();
+			}
+			// Continue with the size whose next glyph is tallest, up to the next glyph of the other sizes.
+			while (true) {
+				int best = -1;
+				long bestHeight = -1, nextHeight = -1;
+				for (int i = 0; i < count; i++) {
+					long height = tasks[i].nextHeight();
+					if (height > bestHeight) {
+						nextHeight = bestHeight;
+						bestHeight = height;
+						best = i;
+					} else if (height > nextHeight)
+						nextHeight = height;
+				}
+				if (best == -1) break;
+				tasks[best].generateGlyphs(nextHeight);
+			}
+			for (int i = 0; i < count; i++) {
+				tasks[i].complete();
+				fonts[i] = tasks[i].getFont();
+			}
+		} finally {
+			if (stroker != null) stroker.dispose();
+			for (GenerationTask task : tasks)
+				if (task != null && task.faceSize != null) task.faceSize.dispose();
+		}
+		// Every font has regions for all atlas pages, as they are created once all glyphs are packed.
+		if (ownsAtlas) fonts[smallest].setOwnsTexture(true);
+		return fonts;
+	}
+
+	/** @return a copy of the parameter with the size, so fonts generated together don't share the parameter later */
+	static private FreeTypeFontParameter copyParameter (FreeTypeFontParameter parameter, int size) {
+		FreeTypeFontParameter copy = new FreeTypeFontParameter();
+		copy.size = size;
+		copy.mono = parameter.mono;
+		copy.hinting = parameter.hinting;
+		copy.color = parameter.color;
+		copy.tint = parameter.tint;
+		copy.gamma = parameter.gamma;
+		copy.renderCount = parameter.renderCount;
+		copy.borderWidth = parameter.borderWidth;
+		copy.borderColor = parameter.borderColor;
+		copy.borderStraight = parameter.borderStraight;
+		copy.borderGamma = parameter.borderGamma;
+		copy.shadowOffsetX = parameter.shadowOffsetX;
+		copy.shadowOffsetY = parameter.shadowOffsetY;
+		copy.shadowColor = parameter.shadowColor;
+		copy.spaceX = parameter.spaceX;
+		copy.spaceY = parameter.spaceY;
+		copy.padTop = parameter.padTop;
+		copy.padLeft = parameter.padLeft;
+		copy.padBottom = parameter.padBottom;
+		copy.padRight = parameter.padRight;
+		copy.characters = parameter.characters;
+		copy.kerning = parameter.kerning;
+		copy.packer = parameter.packer;
+		copy.flip = parameter.flip;
+		copy.genMipMaps = parameter.genMipMaps;
+		copy.minFilter = parameter.minFilter;
+		copy.magFilter = parameter.magFilter;
+		copy.incremental = parameter.incremental;
+		return copy;
+	}
+
+	PixmapPacker newPacker (FreeTypeFontParameter parameter, int size, PackStrategy packStrategy) {
+		PixmapPacker packer = new PixmapPacker(size, size, Format.RGBA8888, 1, false, packStrategy);
+		packer.setTransparentColor(getGlyphColor(parameter));
+		packer.getTransparentColor().a = 0;
+		if (parameter.borderWidth > 0) {
+			packer.setTransparentColor(parameter.borderColor);
+			packer.getTransparentColor().a = 0;
+		}
+		return packer;
+	}
+
+	/** @return the stroker for the border of the glyphs, or null if they have no border */
+	Stroker newStroker (FreeTypeFontParameter parameter) {
+		if (parameter.borderWidth <= 0) return null;
+		Stroker stroker = library.createStroker();
+		stroker.set((int)(parameter.borderWidth * 64f),
+			parameter.borderStraight ? FreeType.FT_STROKER_LINECAP_BUTT : FreeType.FT_STROKER_LINECAP_ROUND,
+			parameter.borderStraight ? FreeType.FT_STROKER_LINEJOIN_MITER_FIXED : FreeType.FT_STROKER_LINEJOIN_ROUND, 0);
+		return stroker;
+	}
+
+	/** @return the color glyphs are rendered with, white if the color is applied at draw time */
+	static private Color getGlyphColor (FreeTypeFontParameter parameter) {
+		return parameter.tint ? Color.WHITE : parameter.color;
+	}
+
+	/** @return the format of glyph pixmaps; coverage alone suffices for tinted glyphs without border and shadow */
+	static private Format getGlyphFormat (FreeTypeFontParameter parameter) {
+		if (parameter.tint && parameter.borderWidth == 0 && parameter.shadowOffsetX == 0 && parameter.shadowOffsetY == 0)
+			return Format.Alpha;
+		return Format.RGBA8888;
+	}
+
+	/** Uses ascender and descender of font to calculate real height that makes all glyphs to fit in given pixel size. Source:
+	 * http://nothings.org/stb/stb_truetype.h / stbtt_ScaleForPixelHeight */
+	public int scaleForPixelHeight (int height) {
+		setPixelSizes(0, height);
+		int[] fontMetrics = readSizeMetrics();
+		int ascent = FreeType.toInt(fontMetrics[SizeMetrics.METRICS_ASCENDER]);
+		int descent = FreeType.toInt(fontMetrics[SizeMetrics.METRICS_DESCENDER]);
+		return height * height / (ascent - descent);
+	}
+
+	/** Uses max advance, ascender and descender of font to calculate real height that makes any n glyphs to fit in given pixel
+	 * width.
+	 * @param width the max width to fit (in pixels)
+	 * @param numChars max number of characters that to fill width */
+	public int scaleForPixelWidth (int width, int numChars) {
+		int[] fontMetrics = readSizeMetrics();
+		int advance = FreeType.toInt(fontMetrics[SizeMetrics.METRICS_MAX_ADVANCE]);
+		int ascent = FreeType.toInt(fontMetrics[SizeMetrics.METRICS_ASCENDER]);
+		int descent = FreeType.toInt(fontMetrics[SizeMetrics.METRICS_DESCENDER]);
+		int unscaledHeight = ascent - descent;
+		int height = unscaledHeight * width / (advance * numChars);
+		setPixelSizes(0, height);
+		return height;
+	}
+
+	/** Uses max advance, ascender and descender of font to calculate real height that makes any n glyphs to fit in given pixel
+	 * width and height.
+	 * @param width the max width to fit (in pixels)
+	 * @param height the max height to fit (in pixels)
+	 * @param numChars max number of characters that to fill width */
+	public int scaleToFitSquare (int width, int height, int numChars) {
+		return Math.min(scaleForPixelHeight(height), scaleForPixelWidth(width, numChars));
+	}
+
+	public class GlyphAndBitmap {
+		public Glyph glyph;
+		public Bitmap bitmap;
+	}
+
+	/** Returns null if glyph was not found. If there is nothing to render, for example with various space characters, then bitmap
+	 * is null. */
+	public GlyphAndBitmap generateGlyphAndBitmap (int c, int size, boolean flip) {
+		setPixelSizes(0, size);
+
+		int baseline = FreeType.toInt(readSizeMetrics()[SizeMetrics.METRICS_ASCENDER]);
+
+		// Check if character exists in this font.
+		// 0 means 'undefined character code'
+		if (!charMap.hasChar(c)) {
+			return null;
+		}
+
+		// Try to load character
+		if (!loadChar(c)) {
+			throw new GdxRuntimeException("Unable to load character!");
+		}
+
+		GlyphSlot slot = face.getGlyph();
+
+		// Try to render to bitmap
+		Bitmap bitmap;
+		if (bitmapped) {
+			bitmap = slot.getBitmap();
+		} else if (!slot.renderGlyph(FreeType.FT_RENDER_MODE_NORMAL)) {
+			bitmap = null;
+		} else {
+			bitmap = slot.getBitmap();
+		}
+
+		int[] metrics = slotMetrics;
+		slot.readMetrics(metrics);
+
+		Glyph glyph = new Glyph();
+		if (bitmap != null) {
+			glyph.width = metrics[GlyphSlot.METRICS_BITMAP + Bitmap.HEADER_WIDTH];
+			glyph.height = metrics[GlyphSlot.METRICS_BITMAP + Bitmap.HEADER_ROWS];
+		} else {
+			glyph.width = 0;
+			glyph.height = 0;
+		}
+		int top = metrics[GlyphSlot.METRICS_BITMAP_TOP];
+		glyph.xoffset = metrics[GlyphSlot.METRICS_BITMAP_LEFT];
+		glyph.yoffset = flip ? -top + baseline : -(glyph.height - top) - baseline;
+		glyph.xadvance = FreeType.toInt(metrics[GlyphSlot.METRICS_HORI_ADVANCE]);
+		glyph.srcX = 0;
+		glyph.srcY = 0;
+		glyph.id = c;
+
+		GlyphAndBitmap result = new GlyphAndBitmap();
+		result.glyph = glyph;
+		result.bitmap = bitmap;
+		return result;
+	}
+
+	/** Generates a new {@link BitmapFontData} instance, expert usage only. Throws a GdxRuntimeException if something went wrong.
+	 * @param size the size in pixels */
+	public FreeTypeBitmapFontData generateData (int size) {
+		FreeTypeFontParameter parameter = new FreeTypeFontParameter();
+		parameter.size = size;
+		return generateData(parameter);
+	}
+
+	public FreeTypeBitmapFontData generateData (FreeTypeFontParameter parameter) {
+		return generateData(parameter, new FreeTypeBitmapFontData());
+	}
+
+	void setPixelSizes (int pixelWidth, int pixelHeight) {
+		setPixelSizes(null, pixelWidth, pixelHeight);
+	}
+
+	/** Sets the pixel size of a size of the face, activating it first.
+	 * @param size a size of {@link Face#newSize()}, or null for the face's default size */
+	void setPixelSizes (Size size, int pixelWidth, int pixelHeight) {
+		this.pixelWidth = pixelWidth;
+		this.pixelHeight = pixelHeight;
+		if (bitmapped) return;
+		if (size == null) size = face.getDefaultSize();
+		if (!size.activate() || !face.setPixelSizes(pixelWidth, pixelHeight))
+			throw new GdxRuntimeException("Couldn't set size for font");
+	}
+
+	/** Generates a new {@link BitmapFontData} instance, expert usage only. Throws a GdxRuntimeException if something went wrong.
+	 * @param parameter configures how the font is generated */
+	public FreeTypeBitmapFontData generateData (FreeTypeFontParameter parameter, FreeTypeBitmapFontData data) {
+		new GenerationTask(parameter, data, false).update(0);
+		return data;
+	}
+
+	/** Starts generating a font in steps, so a loading screen can keep rendering while the glyphs are generated. Call
+	 * {@link GenerationTask#update(int)} until it returns true, then get the font with {@link GenerationTask#getFont()}. The
+	 * generator has to stay alive until then, but may generate other fonts in between.
+	 * @param parameter configures how the font is generated */
+	public GenerationTask newGenerationTask (FreeTypeFontParameter parameter) {
+		return new GenerationTask(parameter, new FreeTypeBitmapFontData(), true);
+	}
+
+	/** Generates the data of a font a few glyphs at a time. {@link #generateData(FreeTypeFontParameter, FreeTypeBitmapFontData)}
+	 * runs it in one go. */
+	public class GenerationTask {
+		/** Glyphs generated between checks of the time budget. */
+		static private final int BATCH_SIZE = 16;
+
+		private final FreeTypeFontParameter parameter;
+		private final FreeTypeBitmapFontData data;
+		private final boolean font, updateTextureRegions;
+		private boolean started, done;
+
+		private char[] characters;
+		private int[] heights;
+		private int heightsCount;
+		private int flags;
+		private boolean incremental, cached, ownsAtlas, renderBatches;
+		private float baseLine;
+		private PixmapPacker packer;
+		private Stroker stroker;
+		// True if the stroker belongs to generateFontSizes(), which disposes it.
+		private boolean sharedStroker;
+		// The size of the face the glyphs are scaled with, null for the face's default size. See generateFontSizes().
+		private Size faceSize;
+
+		GenerationTask (FreeTypeFontParameter parameter, FreeTypeBitmapFontData data, boolean font) {
+			data.name = name + "-" + parameter.size;
+			this.parameter = parameter == null ? new FreeTypeFontParameter() : parameter;
+			this.data = data;
+			this.font = font;
+			updateTextureRegions = font && data.regions == null && this.parameter.packer != null;
+			if (updateTextureRegions) data.regions = new Array();
+		}
+
+		/** Generates glyphs until the font data is complete or the time is up.
+		 * @param millis the time to spend, which is exceeded by at most one small batch of glyphs, or 0 to finish in one call
+		 * @return true if the font data is complete */
+		public boolean update (int millis) {
+			if (done) return true;
+			long end = millis > 0 ? System.currentTimeMillis() + millis : Long.MAX_VALUE;
+			if (!started) {
+				started = true;
+				if (start()) return done = true;
+			} else
+				setPixelSizes(faceSize, 0, parameter.size); // The generator may have been used for another size in between.
+			while (heightsCount > 0) {
+				generateGlyphs(millis > 0 ? BATCH_SIZE : heightsCount);
+				if (System.currentTimeMillis() >= end) return false;
+			}
+			finish();
+			return done = true;
+		}
+
+		/** @return the fraction of the glyphs generated so far, between 0 and 1 */
+		public float getProgress () {
+			if (done) return 1;
+			if (characters == null || characters.length == 0) return 0;
+			return 1 - heightsCount / (float)characters.length;
+		}
+
+		/** @return the font data, which is only complete once {@link #update(int)} returned true */
+		public FreeTypeBitmapFontData getData () {
+			return data;
+		}
+
+		/** Creates the font of the generated data, see {@link FreeTypeFontGenerator#generateFont(FreeTypeFontParameter)}. */
+		public BitmapFont getFont () {
+			if (!done) throw new IllegalStateException("The font is not generated yet.");
+			if (!font) throw new IllegalStateException("Only the data of the font is generated.");
+			if (updateTextureRegions)
+				parameter.packer.updateTextureRegions(data.regions, parameter.minFilter, parameter.magFilter, parameter.genMipMaps);
+			if (data.regions.isEmpty()) throw new GdxRuntimeException("Unable to create a font with no texture regions.");
+			BitmapFont font = new BitmapFont(data, data.regions, true);
+			font.setOwnsTexture(parameter.packer == null);
+			if (parameter.tint) font.setColor(parameter.color);
+			return font;
+		}
+
+		/** Computes the font metrics and prepares the glyphs for generation.
+		 * @return true if the font was found in the cache and is complete */
+		private boolean start () {
+			FreeTypeFontParameter parameter = this.parameter;
+			FreeTypeBitmapFontData data = this.data;
+			characters = parameter.characters.toCharArray();
+			int charactersLength = characters.length;
+			incremental = parameter.incremental;
+			flags = getLoadingFlags(parameter);
+
+			FontCache fontCache = FreeTypeFontGenerator.fontCache;
+			cached = fontCache != null && !incremental && parameter.packer == null;
+			if (cached && fontCache.get(face.getDataDigest(), parameter, data)) return true;
+
+			setPixelSizes(faceSize, 0, parameter.size);
+
+			// set general font data
+			int[] fontMetrics = readSizeMetrics();
+			data.flipped = parameter.flip;
+			data.ascent = FreeType.toInt(fontMetrics[SizeMetrics.METRICS_ASCENDER]);
+			data.descent = FreeType.toInt(fontMetrics[SizeMetrics.METRICS_DESCENDER]);
+			data.lineHeight = FreeType.toInt(fontMetrics[SizeMetrics.METRICS_HEIGHT]);
+			baseLine = data.ascent;
+
+			// if bitmapped
+			if (bitmapped && (data.lineHeight == 0)) {
+				for (int c = 32; c < (32 + face.getNumGlyphs()); c++) {
+					if (loadChar(c, flags)) {
+						int lh = FreeType.toInt(readSlotMetrics()[GlyphSlot.METRICS_HEIGHT]);
+						data.lineHeight = (lh > data.lineHeight) ? lh : data.lineHeight;
+					}
+				}
+			}
+			data.lineHeight += parameter.spaceY;
+
+			// determine space width
+			if (loadChar(' ', flags) || loadChar('l', flags)) {
+				data.spaceXadvance = FreeType.toInt(readSlotMetrics()[GlyphSlot.METRICS_HORI_ADVANCE]);
+			} else {
+				data.spaceXadvance = face.getMaxAdvanceWidth(); // Possibly very wrong.
+			}
+
+			// determine x-height
+			for (char xChar : data.xChars) {
+				if (!loadChar(xChar, flags)) continue;
+				data.xHeight = FreeType.toInt(readSlotMetrics()[GlyphSlot.METRICS_HEIGHT]);
+				break;
+			}
+			if (data.xHeight == 0) throw new GdxRuntimeException("No x-height character found in font");
+
+			// determine cap height
+			for (char capChar : data.capChars) {
+				if (!loadChar(capChar, flags)) continue;
+				data.capHeight = FreeType.toInt(readSlotMetrics()[GlyphSlot.METRICS_HEIGHT]) + Math.abs(parameter.shadowOffsetY);
+				break;
+			}
+			if (!bitmapped && data.capHeight == 1) throw new GdxRuntimeException("No cap character found in font");
+
+			data.ascent -= data.capHeight;
+			data.down = -data.lineHeight;
+			if (parameter.flip) {
+				data.ascent = -data.ascent;
+				data.down = -data.down;
+			}
+
+			packer = parameter.packer;
+			if (packer == null) {
+				// Create a packer.
+				int size;
+				PackStrategy packStrategy;
+				if (incremental) {
+					size = maxTextureSize;
+					packStrategy = new GuillotineStrategy();
+				} else {
+					int maxGlyphHeight = (int)Math.ceil(data.lineHeight);
+					size = MathUtils.nextPowerOfTwo((int)Math.sqrt(maxGlyphHeight * maxGlyphHeight * charactersLength));
+					if (maxTextureSize > 0) size = Math.min(size, maxTextureSize);
+					packStrategy = new SkylineStrategy();
+				}
+				ownsAtlas = true;
+				packer = newPacker(parameter, size, packStrategy);
+			}
+
+			if (incremental) data.glyphs = new Array(charactersLength + 32);
+
+			if (!sharedStroker) stroker = newStroker(parameter);
+
+			// Without a border the glyphs need no outline, so for non-incremental fonts each batch of glyphs is rendered in one call.
+			renderBatches = !incremental && stroker == null && !bitmapped;
+
+			// Glyphs are created largest height first for best packing. The heights only order the glyphs, so they come from the
+			// unscaled outlines, which avoids hinting every glyph twice.
+			heights = new int[charactersLength];
+			heightsCount = charactersLength;
+			if (!bitmapped) {
+				int[] charCodes = new int[charactersLength];
+				for (int i = 0; i < charactersLength; i++)
+					charCodes[i] = characters[i];
+				face.getOutlineHeights(charCodes, heights);
+			} else {
+				for (int i = 0; i < charactersLength; i++)
+					heights[i] = loadChar(characters[i], flags) ? FreeType.toInt(readSlotMetrics()[GlyphSlot.METRICS_HEIGHT]) : 0;
+			}
+
+			for (int i = 0; i < charactersLength; i++) {
+				if (characters[i] == '\0') {
+					Glyph missingGlyph = createGlyph('\0', data, parameter, stroker, baseLine, packer);
+					if (missingGlyph != null && missingGlyph.width != 0 && missingGlyph.height != 0) {
+						data.setGlyph('\0', missingGlyph);
+						data.missingGlyph = missingGlyph;
+						if (incremental) data.glyphs.add(missingGlyph);
+					}
+					break;
+				}
+			}
+			return false;
+		}
+
+		/** Generates the font with the glyphs rendered by the worker, then passes it to the callback. */
+		void generateAsync (final GlyphRenderer worker, final Callback<BitmapFont, Throwable> callback) {
+			try {
+				started = true;
+				if (start()) {
+					done = true;
+					callback.onSuccess(getFont());
+					return;
+				}
+			} catch (RuntimeException ex) {
+				callback.onFailure(ex);
+				return;
+			}
+			if (worker == null || stroker != null || bitmapped) {
+				completeAsync(null, nextBatch(heightsCount), null, callback);
+				return;
+			}
+			// All glyphs are rendered in one request and created in the same order as by update(), so they are packed the same
+			// however the renderer splits the request.
+			final char[] batch = nextBatch(heightsCount);
+			int[] charCodes = new int[batch.length];
+			for (int i = 0; i < batch.length; i++)
+				charCodes[i] = batch[i];
+			worker.renderGlyphs(face, parameter.size, charCodes, flags, getRenderMode(parameter),
+				new Callback<RenderedGlyphs, String>() {
+					@Override
+					public void onSuccess (RenderedGlyphs rendered) {
+						completeAsync(worker, batch, rendered, callback);
+					}
+
+					@Override
+					public void onFailure (String reason) {
+						Gdx.app.error("FreeTypeFontGenerator", "Couldn't render glyphs in the worker, generating them here: " + reason);
+						completeAsync(null, batch, null, callback);
+					}
+				});
+		}
+
+		/** Creates the glyphs of the characters, rendered by the worker or, without <code>rendered</code>, here. */
+		private void completeAsync (GlyphRenderer worker, char[] batch, RenderedGlyphs rendered,
+			Callback<BitmapFont, Throwable> callback) {
+			BitmapFont font;
+			try {
+				setPixelSizes(faceSize, 0, parameter.size); // The generator may have been used for another size in between.
+				createGlyphs(batch, rendered);
+				finish();
+				if (incremental) data.worker = worker;
+				done = true;
+				font = getFont();
+			} catch (RuntimeException ex) {
+				callback.onFailure(ex);
+				return;
+			}
+			callback.onSuccess(font);
+		}
+
+		/** Creates the glyphs of the next characters, tallest first. */
+		private void generateGlyphs (int count) {
+			char[] batch = nextBatch(count);
+			RenderedGlyphs rendered = null;
+			if (renderBatches) {
+				int[] charCodes = new int[batch.length];
+				for (int n = 0; n < batch.length; n++)
+					charCodes[n] = batch[n];
+				rendered = face.renderGlyphs(charCodes, flags, getRenderMode(parameter));
+			}
+			createGlyphs(batch, rendered);
+		}
+
+		/** @return the outline height of the next glyph scaled to the size, to order the glyphs of several sizes, or -1 if all
+		 *         glyphs are generated */
+		long nextHeight () {
+			if (heightsCount == 0) return -1;
+			int maxHeight = heights[0];
+			for (int i = 1; i < heightsCount; i++)
+				maxHeight = Math.max(maxHeight, heights[i]);
+			return scaleHeight(maxHeight);
+		}
+
+		/** Creates the next glyphs, tallest first, that are taller than the height scaled like {@link #nextHeight()}, and at least
+		 * one. */
+		void generateGlyphs (long height) {
+			setPixelSizes(faceSize, 0, parameter.size);
+			int count = 0;
+			for (int i = 0; i < heightsCount; i++)
+				if (scaleHeight(heights[i]) >= height) count++;
+			generateGlyphs(Math.max(count, 1));
+		}
+
+		// Outline heights are in font units, the heights of bitmap fonts are in pixels already.
+		private long scaleHeight (int height) {
+			return bitmapped ? height : (long)height * parameter.size;
+		}
+
+		/** Completes the font data once {@link #generateGlyphs(long)} created all glyphs. */
+		void complete () {
+			setPixelSizes(faceSize, 0, parameter.size); // Kerning is scaled to the current size.
+			finish();
+			done = true;
+		}
+
+		/** Removes the next characters to generate, tallest first. The order only depends on the heights, not on the count. */
+		private char[] nextBatch (int count) {
+			count = Math.min(count, heightsCount);
+			char[] characters = this.characters;
+			int[] heights = this.heights;
+			char[] batch = new char[count];
+			for (int n = 0; n < count; n++) {
+				int best = 0, maxHeight = heights[0];
+				for (int i = 1; i < heightsCount; i++) {
+					int height = heights[i];
+					if (height > maxHeight) {
+						maxHeight = height;
+						best = i;
+					}
+				}
+				batch[n] = characters[best];
+
+				heightsCount--;
+				heights[best] = heights[heightsCount];
+				characters[best] = characters[heightsCount];
+				characters[heightsCount] = batch[n];
+			}
+			return batch;
+		}
+
+		/** Creates the glyphs of the characters, from the rendered bitmaps if given. */
+		private void createGlyphs (char[] batch, RenderedGlyphs rendered) {
+			for (int n = 0; n < batch.length; n++) {
+				char c = batch[n];
+				if (data.getGlyph(c) != null) continue;
+				Glyph glyph = rendered != null ? createGlyph(c, data, parameter, baseLine, packer, rendered, n)
+					: createGlyph(c, data, parameter, stroker, baseLine, packer);
+				if (glyph != null) {
+					data.setGlyph(c, glyph);
+					if (incremental) data.glyphs.add(glyph);
+				}
+			}
+			if (rendered != null) rendered.dispose();
+		}
+
+		private void finish () {
+			FreeTypeFontParameter parameter = this.parameter;
+			FreeTypeBitmapFontData data = this.data;
+			if (stroker != null && !incremental && !sharedStroker) stroker.dispose();
+
+			if (incremental) {
+				data.generator = FreeTypeFontGenerator.this;
+				data.parameter = parameter;
+				data.stroker = stroker;
+				data.packer = packer;
+				// Its own size keeps the scale, so glyphs added later don't rescale the face when fonts of other sizes take turns.
+				if (!bitmapped && Size.isSupported()) {
+					data.size = face.newSize();
+					setPixelSizes(data.size, 0, parameter.size);
+				}
+			}
+
+			// Generate kerning.
+			parameter.kerning &= face.hasKerning();
+			if (parameter.kerning) {
+				getKerningPairs(parameter.characters);
+				int[] kerning = face.getKerning(kerningGlyphs, 0); // FT_KERNING_DEFAULT (scaled then rounded).
+				for (int i = 0, n = kerning.length; i < n; i++) {
+					if (kerning[i] == 0) continue;
+					Glyph first = data.getGlyph((char)kerningChars[i * 2]);
+					char second = (char)kerningChars[i * 2 + 1];
+					if (first != null && data.getGlyph(second) != null) first.setKerning(second, FreeType.toInt(kerning[i]));
+				}
+			}
+
+			// Generate texture regions.
+			if (ownsAtlas) {
+				data.regions = new Array();
+				packer.updateTextureRegions(data.regions, parameter.minFilter, parameter.magFilter, parameter.genMipMaps);
+			}
+
+			// Set space glyph.
+			Glyph spaceGlyph = data.getGlyph(' ');
+			if (spaceGlyph == null) {
+				spaceGlyph = new Glyph();
+				spaceGlyph.xadvance = (int)data.spaceXadvance + parameter.spaceX;
+				spaceGlyph.id = (int)' ';
+				data.setGlyph(' ', spaceGlyph);
+			}
+			if (spaceGlyph.width == 0) spaceGlyph.width = (int)(spaceGlyph.xadvance + data.padRight);
+
+			if (cached) fontCache.put(face.getDataDigest(), parameter, data);
+		}
+	}
+
+	/** Finds the pairs of the characters that have kerning at all, stored as character and glyph index pairs. Which pairs have
+	 * kerning does not depend on the size, so they are kept for the next font with the same characters. */
+	private void getKerningPairs (String characters) {
+		if (characters.equals(kerningCharacters)) return;
+		int n = characters.length();
+		int[] glyphIndices = new int[n];
+		for (int i = 0; i < n; i++)
+			glyphIndices[i] = charMap.getCharIndex(characters.charAt(i));
+		int[] pairs = face.getKerningPairs(glyphIndices, FreeType.FT_KERNING_UNSCALED);
+		int pairCount = pairs.length / 3;
+		kerningChars = new int[pairCount * 2];
+		kerningGlyphs = new int[pairCount * 2];
+		for (int i = 0, ii = 0; i < pairCount; i++, ii += 2) {
+			int first = pairs[i * 3], second = pairs[i * 3 + 1];
+			kerningChars[ii] = characters.charAt(first);
+			kerningChars[ii + 1] = characters.charAt(second);
+			kerningGlyphs[ii] = glyphIndices[first];
+			kerningGlyphs[ii + 1] = glyphIndices[second];
+		}
+		kerningCharacters = characters;
+	}
+
+	/** @return null if glyph was not found. */
+	Glyph createGlyph (char c, FreeTypeBitmapFontData data, FreeTypeFontParameter parameter, Stroker stroker, float baseLine,
+		PixmapPacker packer) {
+
+		boolean missing = !charMap.hasChar(c) && c != 0;
+		if (missing) return null;
+
+		if (!loadChar(c, getLoadingFlags(parameter))) return null;
+
+		GlyphSlot slot = face.getGlyph();
+		// Only the advance is needed from the slot, read it before the slot is reused by the border glyph.
+		slot.readMetrics(slotMetrics);
+		int horiAdvance = slotMetrics[GlyphSlot.METRICS_HORI_ADVANCE];
+		FreeType.Glyph mainGlyph = slot.getGlyph();
+		try {
+			mainGlyph.toBitmap(parameter.mono ? FreeType.FT_RENDER_MODE_MONO : FreeType.FT_RENDER_MODE_NORMAL);
+		} catch (GdxRuntimeException e) {
+			mainGlyph.dispose();
+			Gdx.app.log("FreeTypeFontGenerator", "Couldn't render char: " + c);
+			return null;
+		}
+		Bitmap mainBitmap = mainGlyph.getBitmap();
+		Pixmap mainPixmap = mainBitmap.getPixmap(getGlyphFormat(parameter), getGlyphColor(parameter), parameter.gamma);
+		int[] glyphBitmap = this.glyphBitmap;
+		mainGlyph.readBitmap(glyphBitmap);
+		int mainPitch = glyphBitmap[Bitmap.HEADER_PITCH];
+
+		boolean empty = glyphBitmap[Bitmap.HEADER_WIDTH] == 0 || glyphBitmap[Bitmap.HEADER_ROWS] == 0;
+		if (!empty && parameter.borderWidth > 0) {
+			// execute stroker; this generates a glyph "extended" along the outline
+			int top = glyphBitmap[FreeType.Glyph.BITMAP_TOP], left = glyphBitmap[FreeType.Glyph.BITMAP_LEFT];
+			FreeType.Glyph borderGlyph = slot.getGlyph();
+			borderGlyph.strokeBorder(stroker, false);
+			borderGlyph.toBitmap(parameter.mono ? FreeType.FT_RENDER_MODE_MONO : FreeType.FT_RENDER_MODE_NORMAL);
+			borderGlyph.readBitmap(glyphBitmap);
+			int offsetX = left - glyphBitmap[FreeType.Glyph.BITMAP_LEFT];
+			int offsetY = -(top - glyphBitmap[FreeType.Glyph.BITMAP_TOP]);
+
+			// Render border (pixmap is bigger than main).
+			Bitmap borderBitmap = borderGlyph.getBitmap();
+			Pixmap borderPixmap = borderBitmap.getPixmap(Format.RGBA8888, parameter.borderColor, parameter.borderGamma);
+
+			// Draw main glyph on top of border.
+			for (int i = 0, n = parameter.renderCount; i < n; i++)
+				borderPixmap.drawPixmap(mainPixmap, offsetX, offsetY);
+
+			mainPixmap.dispose();
+			mainGlyph.dispose();
+			mainPixmap = borderPixmap;
+			mainGlyph = borderGlyph;
+		}
+
+		// glyphBitmap now holds the left and top of the border glyph, if one was rendered.
+		Glyph glyph = finishGlyph(c, data, parameter, baseLine, packer, mainPixmap, empty,
+			glyphBitmap[FreeType.Glyph.BITMAP_LEFT], glyphBitmap[FreeType.Glyph.BITMAP_TOP], horiAdvance,
+			bitmapped ? mainBitmap : null, mainPitch);
+		mainGlyph.dispose();
+
+		return glyph;
+	}
+
+	/** Creates a glyph from one of the bitmaps rendered by {@link Face#renderGlyphs(int[], int, int)}. Borders are not supported,
+	 * as stroking needs the glyph outline.
+	 * @return null if glyph was not found. */
+	Glyph createGlyph (char c, FreeTypeBitmapFontData data, FreeTypeFontParameter parameter, float baseLine, PixmapPacker packer,
+		RenderedGlyphs rendered, int index) {
+		if (!rendered.isLoaded(index)) {
+			// Characters missing from the face are skipped quietly, like createGlyph() does.
+			if (c == 0 || charMap.hasChar(c)) Gdx.app.log("FreeTypeFontGenerator", "Couldn't render char: " + c);
+			return null;
+		}
+
+		int[] table = rendered.getTable();
+		int row = index * RenderedGlyphs.STRIDE;
+		Pixmap mainPixmap = rendered.getPixmap(index, getGlyphFormat(parameter), getGlyphColor(parameter), parameter.gamma);
+		boolean empty = table[row + Bitmap.HEADER_WIDTH] == 0 || table[row + Bitmap.HEADER_ROWS] == 0;
+		return finishGlyph(c, data, parameter, baseLine, packer, mainPixmap, empty, table[row + RenderedGlyphs.LEFT],
+			table[row + RenderedGlyphs.TOP], table[row + RenderedGlyphs.HORI_ADVANCE], null, 0);
+	}
+
+	/** Adds the shadow and padding to the rendered (and possibly bordered) glyph pixmap, then packs and disposes it.
+	 * @param monoBitmap for bitmap fonts, the FreeType bitmap that is redrawn bit by bit, else null */
+	private Glyph finishGlyph (char c, FreeTypeBitmapFontData data, FreeTypeFontParameter parameter, float baseLine,
+		PixmapPacker packer, Pixmap mainPixmap, boolean empty, int left, int top, int horiAdvance, Bitmap monoBitmap,
+		int monoPitch) {
+		if (!empty) {
+			if (parameter.shadowOffsetX != 0 || parameter.shadowOffsetY != 0) {
+				int mainW = mainPixmap.getWidth(), mainH = mainPixmap.getHeight();
+				int shadowOffsetX = Math.max(parameter.shadowOffsetX, 0), shadowOffsetY = Math.max(parameter.shadowOffsetY, 0);
+				int shadowW = mainW + Math.abs(parameter.shadowOffsetX), shadowH = mainH + Math.abs(parameter.shadowOffsetY);
+				Pixmap shadowPixmap = new FreeTypePixmap(shadowW, shadowH, mainPixmap.getFormat());
+
+				Color shadowColor = parameter.shadowColor;
+				float a = shadowColor.a;
+				if (a != 0) {
+					byte r = (byte)(shadowColor.r * 255), g = (byte)(shadowColor.g * 255), b = (byte)(shadowColor.b * 255);
+					ByteBuffer mainPixels = ((FreeTypePixmap)mainPixmap).getRealPixels();
+					ByteBuffer shadowPixels = ((FreeTypePixmap)shadowPixmap).getRealPixels();
+					for (int y = 0; y < mainH; y++) {
+						int shadowRow = shadowW * (y + shadowOffsetY) + shadowOffsetX;
+						for (int x = 0; x < mainW; x++) {
+							int mainPixel = (mainW * y + x) * 4;
+							byte mainA = mainPixels.get(mainPixel + 3);
+							if (mainA == 0) continue;
+							int shadowPixel = (shadowRow + x) * 4;
+							shadowPixels.put(shadowPixel, r);
+							shadowPixels.put(shadowPixel + 1, g);
+							shadowPixels.put(shadowPixel + 2, b);
+							shadowPixels.put(shadowPixel + 3, (byte)((mainA & 0xff) * a));
+						}
+					}
+					((FreeTypePixmap)shadowPixmap).putPixelsBack(shadowPixels);
+				}
+
+				// Draw main glyph (with any border) on top of shadow.
+				for (int i = 0, n = parameter.renderCount; i < n; i++)
+					shadowPixmap.drawPixmap(mainPixmap, Math.max(-parameter.shadowOffsetX, 0), Math.max(-parameter.shadowOffsetY, 0));
+				mainPixmap.dispose();
+				mainPixmap = shadowPixmap;
+			} else if (parameter.borderWidth == 0) {
+				// No shadow and no border, draw glyph additional times.
+				for (int i = 0, n = parameter.renderCount - 1; i < n; i++)
+					mainPixmap.drawPixmap(mainPixmap, 0, 0);
+			}
+
+			if (parameter.padTop > 0 || parameter.padLeft > 0 || parameter.padBottom > 0 || parameter.padRight > 0) {
+				Pixmap padPixmap = new Pixmap(mainPixmap.getWidth() + parameter.padLeft + parameter.padRight,
+					mainPixmap.getHeight() + parameter.padTop + parameter.padBottom, mainPixmap.getFormat());
+				padPixmap.setBlending(Blending.None);
+				padPixmap.drawPixmap(mainPixmap, parameter.padLeft, parameter.padTop);
+				mainPixmap.dispose();
+				mainPixmap = padPixmap;
+			}
+		}
+
+		Glyph glyph = new Glyph();
+		glyph.id = c;
+		glyph.width = mainPixmap.getWidth();
+		glyph.height = mainPixmap.getHeight();
+		glyph.xoffset = left;
+		if (parameter.flip)
+			glyph.yoffset = -top + (int)baseLine;
+		else
+			glyph.yoffset = -(glyph.height - top) - (int)baseLine;
+		glyph.xadvance = FreeType.toInt(horiAdvance) + (int)parameter.borderWidth + parameter.spaceX;
+
+		if (monoBitmap != null) {
+			mainPixmap.setColor(Color.CLEAR);
+			mainPixmap.fill();
+			ByteBuffer buf = monoBitmap.getBuffer();
+			int whiteIntBits = Color.WHITE.toIntBits();
+			int clearIntBits = Color.CLEAR.toIntBits();
+			for (int h = 0; h < glyph.height; h++) {
+				int idx = h * monoPitch;
+				for (int w = 0; w < (glyph.width + glyph.xoffset); w++) {
+					int bit = (buf.get(idx + (w / 8)) >>> (7 - (w % 8))) & 1;
+					mainPixmap.drawPixel(w, h, ((bit == 1) ? whiteIntBits : clearIntBits));
+				}
+			}
+		}
+
+		Rectangle rect = packer.pack(mainPixmap);
+		glyph.page = data.pageOffset + packer.getPages().size - 1; // Glyph is always packed into the last page for now.
+		glyph.srcX = (int)rect.x;
+		glyph.srcY = (int)rect.y;
+
+		// If a page was added, create a new texture region for the incrementally added glyph.
+		if (parameter.incremental && data.regions != null && data.regions.size <= glyph.page) data.updateTextureRegions();
+
+		mainPixmap.dispose();
+
+		return glyph;
+	}
+
+	public String toString () {
+		return name;
+	}
+
+	/** Cleans up all resources of the generator, releasing its hold on the shared library. Call this if you no longer use the
+	 * generator. */
+	@Override
+	public void dispose () {
+		face.dispose();
+		library.dispose();
+	}
+
+	/** Sets the maximum size that will be used when generating texture atlases for glyphs with <tt>generateData()</tt>. The
+	 * default is 1024. By specifying {@link #NO_MAXIMUM}, the texture atlas will scale as needed.
+	 * 
+	 * The power-of-two square texture size will be capped to the given <tt>texSize</tt>. It's recommended that a power-of-two
+	 * value be used here.
+	 * 
+	 * Multiple pages may be used to fit all the generated glyphs. You can query the resulting number of pages by calling
+	 * <tt>bitmapFont.getRegions().length</tt> or <tt>freeTypeBitmapFontData.getTextureRegions().length</tt>.
+	 * 
+	 * If PixmapPacker is specified when calling generateData, this parameter is ignored.
+	 * 
+	 * @param texSize the maximum texture size for one page of glyphs */
+	public static void setMaxTextureSize (int texSize) {
+		maxTextureSize = texSize;
+	}
+
+	/** Sets the cache that generateData() looks fonts up in before rasterizing them, and stores them in afterwards. Only fonts that
+	 * are not incremental and have their own atlas are cached. The cache only hits once it is loaded, see
+	 * {@link FontCache#load(com.badlogic.gdx.graphics.g2d.freetype.gwt.inject.OnCompletion)}. Fonts are keyed by
+	 * {@link FreeType.Face#getDataDigest()}, so a hit still needs FreeType and the generator's face.
+	 * @param cache null to disable caching */
+	public static void setFontCache (FontCache cache) {
+		fontCache = cache;
+	}
+
+	/** Returns the maximum texture size that will be used by generateData() when creating a texture atlas for the glyphs.
+	 * @return the power-of-two max texture size */
+	public static int getMaxTextureSize () {
+		return maxTextureSize;
+	}
+
+	/** {@link BitmapFontData} used for fonts generated via the {@link FreeTypeFontGenerator}. The texture storing the glyphs is
+	 * held in memory, thus the {@link #getImagePaths()} and {@link #getFontFile()} methods will return null.
+	 * @author mzechner
+	 * @author Nathan Sweet */
+	static public class FreeTypeBitmapFontData extends BitmapFontData implements Disposable {
+		public Array<TextureRegion> regions;
+
+		// Fields for incremental glyph generation.
+		FreeTypeFontGenerator generator;
+		FreeTypeFontParameter parameter;
+		Stroker stroker;
+		PixmapPacker packer;
+		Array<Glyph> glyphs;
+		// The font's own size of the generator's face, null for bitmap fonts or if FreeType can't create sizes.
+		Size size;
+		// Index of the first region that belongs to the packer, regions before it are pages the font was created with.
+		int pageOffset;
+		// Renders new glyphs for fonts generated by generateFontAsync(), or null.
+		GlyphRenderer worker;
+		// Characters asked from the worker, and the ones not sent yet.
+		private final IntSet requested = new IntSet();
+		private final CharArray pending = new CharArray();
+		private boolean dirty;
+		// Character pairs whose kerning has been resolved, as first << 16 | second.
+		private final IntSet kernedPairs = new IntSet();
+
+		@Override
+		public Glyph getGlyph (char ch) {
+			Glyph glyph = super.getGlyph(ch);
+			if (glyph == null && generator != null) {
+				if (worker != null) {
+					// Drawn as the missing glyph until the worker rendered it.
+					if (requested.add(ch)) pending.add(ch);
+					return missingGlyph;
+				}
+				generator.setPixelSizes(size, 0, parameter.size);
+				float baseline = ((flipped ? -ascent : ascent) + capHeight) / scaleY;
+				glyph = generator.createGlyph(ch, this, parameter, stroker, baseline, packer);
+				if (glyph == null) return missingGlyph;
+
+				setGlyphRegion(glyph, regions.get(glyph.page));
+				setGlyph(ch, glyph);
+				glyphs.add(glyph);
+				dirty = true;
+			}
+			return glyph;
+		}
+
+		public void getGlyphs (GlyphRun run, CharSequence str, int start, int end, Glyph lastGlyph) {
+			if (packer != null) packer.setPackToTexture(true); // All glyphs added after this are packed directly to the texture.
+			if (generator != null && parameter.kerning) kern(str, start, end, lastGlyph);
+			super.getGlyphs(run, str, start, end, lastGlyph);
+			if (dirty) {
+				dirty = false;
+				updateTextureRegions();
+			}
+			if (pending.size > 0) renderPending(null);
+		}
+
+		/** Generates the glyphs of the characters that have none yet. Fonts generated by
+		 * {@link FreeTypeFontGenerator#generateFontAsync(FreeTypeFontParameter, GlyphRenderer, Callback)} with
+		 * {@link FreeTypeFontParameter#incremental} have them rendered by the worker, and draw them as the missing glyph until
+		 * then, so text laid out before the callback has to be laid out again. Other incremental fonts generate them right away.
+		 * @param oc run once the glyphs are added, and any requested before, may be null */
+		public void requestGlyphs (CharSequence characters, OnCompletion oc) {
+			for (int i = 0, n = characters.length(); i < n; i++)
+				getGlyph(characters.charAt(i));
+			if (worker != null) {
+				// Sent even if empty, the answer comes after those of earlier requests.
+				renderPending(oc);
+				return;
+			}
+			if (dirty) {
+				dirty = false;
+				updateTextureRegions();
+			}
+			if (oc != null) oc.run();
+		}
+
+		private void renderPending (final OnCompletion oc) {
+			final char[] characters = pending.toArray();
+			pending.clear();
+			int[] charCodes = new int[characters.length];
+			for (int i = 0; i < characters.length; i++)
+				charCodes[i] = characters[i];
+			final GlyphRenderer worker = this.worker;
+			worker.renderGlyphs(generator.face, parameter.size, charCodes, generator.getLoadingFlags(parameter),
+				generator.getRenderMode(parameter), new Callback<RenderedGlyphs, String>() {
+					@Override
+					public void onSuccess (RenderedGlyphs rendered) {
+						// Skipped if the font was disposed or the worker failed since.
+						if (FreeTypeBitmapFontData.this.worker == worker) addGlyphs(characters, rendered);
+						if (oc != null) oc.run();
+					}
+
+					@Override
+					public void onFailure (String reason) {
+						if (FreeTypeBitmapFontData.this.worker == worker) {
+							Gdx.app.error("FreeTypeFontGenerator", "Couldn't render glyphs in the worker, generating them here: " + reason);
+							FreeTypeBitmapFontData.this.worker = null;
+							addGlyphs(characters, null);
+						}
+						if (oc != null) oc.run();
+					}
+				});
+		}
+
+		/** Adds the glyphs of the characters, rendered by the worker or, without <code>rendered</code>, generated here. */
+		private void addGlyphs (char[] characters, RenderedGlyphs rendered) {
+			float baseline = ((flipped ? -ascent : ascent) + capHeight) / scaleY;
+			if (rendered == null) generator.setPixelSizes(size, 0, parameter.size);
+			for (int i = 0; i < characters.length; i++) {
+				char ch = characters[i];
+				if (super.getGlyph(ch) != null) continue;
+				Glyph glyph = rendered != null ? generator.createGlyph(ch, this, parameter, baseline, packer, rendered, i)
+					: generator.createGlyph(ch, this, parameter, stroker, baseline, packer);
+				if (glyph == null) continue;
+				setGlyphRegion(glyph, regions.get(glyph.page));
+				setGlyph(ch, glyph);
+				glyphs.add(glyph);
+			}
+			updateTextureRegions();
+		}
+
+		/** Updates the textures of the packer's pages and adds a region for each page that has none yet. */
+		void updateTextureRegions () {
+			packer.updatePageTextures(parameter.minFilter, parameter.magFilter, parameter.genMipMaps);
+			Array<Page> pages = packer.getPages();
+			while (regions.size < pageOffset + pages.size)
+				regions.add(new TextureRegion(pages.get(regions.size - pageOffset).getTexture()));
+		}
+
+		/** Resolves the kerning of the character pairs that {@link #getGlyphs(GlyphRun, CharSequence, int, int, Glyph)} lays out,
+		 * each pair only the first time it is seen. This keeps adding a glyph independent of the number of glyphs. */
+		private void kern (CharSequence str, int start, int end, Glyph lastGlyph) {
+			Face face = generator.face;
+			while (start < end) {
+				char ch = str.charAt(start++);
+				if (ch == '\r') continue;
+				Glyph glyph = getGlyph(ch);
+				if (glyph == null) {
+					if (missingGlyph == null) continue;
+					glyph = missingGlyph;
+				}
+				if (lastGlyph != null && kernedPairs.add(lastGlyph.id << 16 | ch)) {
+					generator.setPixelSizes(size, 0, parameter.size); // Kerning is scaled to the current size.
+					CharMap charMap = generator.charMap;
+					int kerning = face.getKerning(charMap.getCharIndex(lastGlyph.id), charMap.getCharIndex(ch), 0);
+					if (kerning != 0) lastGlyph.setKerning(ch, FreeType.toInt(kerning));
+				}
+				lastGlyph = glyph;
+				// "[[" is an escaped left square bracket, skip second character.
+				if (markupEnabled && ch == '[' && start < end && str.charAt(start) == '[') start++;
+			}
+		}
+
+		@Override
+		public void dispose () {
+			worker = null;
+			if (size != null) {
+				size.dispose();
+				size = null;
+			}
+			if (stroker != null) stroker.dispose();
+			if (packer != null) packer.dispose();
+		}
+	}
+
+	/** Font smoothing algorithm. */
+	public static enum Hinting {
+		/** Disable hinting. Generated glyphs will look blurry. */
+		None,
+		/** Light hinting with fuzzy edges, but close to the original shape */
+		Slight,
+		/** Average hinting */
+		Medium,
+		/** Strong hinting with crisp edges at the expense of shape fidelity */
+		Full,
+		/** Light hinting with fuzzy edges, but close to the original shape. Uses the FreeType auto-hinter. */
+		AutoSlight,
+		/** Average hinting. Uses the FreeType auto-hinter. */
+		AutoMedium,
+		/** Strong hinting with crisp edges at the expense of shape fidelity. Uses the FreeType auto-hinter. */
+		AutoFull,
+	}
+
+	/** Parameter container class that helps configure how {@link FreeTypeBitmapFontData} and {@link BitmapFont} instances are
+	 * generated.
+	 * 
+	 * The packer field is for advanced usage, where it is necessary to pack multiple BitmapFonts (i.e. styles, sizes, families)
+	 * into a single Texture atlas. If no packer is specified, the generator will use its own PixmapPacker to pack the glyphs into
+	 * a power-of-two sized texture, and the resulting {@link FreeTypeBitmapFontData} will have a valid {@link TextureRegion} which
+	 * can be used to construct a new {@link BitmapFont}.
+	 * 
+	 * @author siondream
+	 * @author Nathan Sweet */
+	public static class FreeTypeFontParameter {
+		/** The size in pixels */
+		public int size = 16;
+		/** If true, font smoothing is disabled. */
+		public boolean mono;
+		/** Strength of hinting */
+		public Hinting hinting = Hinting.AutoMedium;
+		/** Foreground color (required for non-black borders) */
+		public Color color = Color.WHITE;
+		/** If true, glyphs are rendered in white and {@link #color} is set as the {@link BitmapFont} color, so it is applied at draw
+		 * time and fonts that differ only in color can share one atlas, see
+		 * {@link FreeTypeFontGenerator#generateFonts(FreeTypeFontParameter, Color...)}. Without border and shadow only coverage is
+		 * rendered. A border or shadow keeps its baked color, which the draw color multiplies, so black ones stay black. */
+		public boolean tint;
+		/** Glyph gamma. Values > 1 reduce antialiasing. */
+		public float gamma = 1.8f;
+		/** Number of times to render the glyph. Useful with a shadow or border, so it doesn't show through the glyph. */
+		public int renderCount = 2;
+		/** Border width in pixels, 0 to disable */
+		public float borderWidth = 0;
+		/** Border color; only used if borderWidth > 0 */
+		public Color borderColor = Color.BLACK;
+		/** true for straight (mitered), false for rounded borders */
+		public boolean borderStraight = false;
+		/** Values < 1 increase the border size. */
+		public float borderGamma = 1.8f;
+		/** Offset of text shadow on X axis in pixels, 0 to disable */
+		public int shadowOffsetX = 0;
+		/** Offset of text shadow on Y axis in pixels, 0 to disable */
+		public int shadowOffsetY = 0;
+		/** Shadow color; only used if shadowOffset > 0. If alpha component is 0, no shadow is drawn but characters are still offset
+		 * by shadowOffset. */
+		public Color shadowColor = new Color(0, 0, 0, 0.75f);
+		/** Pixels to add to glyph spacing when text is rendered. Can be negative. */
+		public int spaceX, spaceY;
+		/** Pixels to add to the glyph in the texture. Cannot be negative. */
+		public int padTop, padLeft, padBottom, padRight;
+		/** The characters the font should contain. If '\0' is not included then {@link BitmapFontData#missingGlyph} is not set. */
+		public String characters = DEFAULT_CHARS;
+		/** Whether the font should include kerning */
+		public boolean kerning = true;
+		/** The optional PixmapPacker to use for packing multiple fonts into a single texture.
+		 * @see FreeTypeFontParameter */
+		public PixmapPacker packer = null;
+		/** Whether to flip the font vertically */
+		public boolean flip = false;
+		/** Whether to generate mip maps for the resulting texture */
+		public boolean genMipMaps = false;
+		/** Minification filter */
+		public TextureFilter minFilter = TextureFilter.Nearest;
+		/** Magnification filter */
+		public TextureFilter magFilter = TextureFilter.Nearest;
+		/** When true, glyphs are rendered on the fly to the font's glyph page textures as they are needed. The
+		 * FreeTypeFontGenerator must not be disposed until the font is no longer needed. The FreeTypeBitmapFontData must be
+		 * disposed (separately from the generator) when the font is no longer needed. The FreeTypeFontParameter should not be
+		 * modified after creating a font. If a PixmapPacker is not specified, the font glyph page textures will use
+		 * {@link FreeTypeFontGenerator#getMaxTextureSize()}. */
+		public boolean incremental;
+	}
+}
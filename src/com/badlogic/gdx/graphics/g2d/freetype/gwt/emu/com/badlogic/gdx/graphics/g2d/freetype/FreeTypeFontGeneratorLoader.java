@@ -22,9 +22,12 @@ import com.badlogic.gdx.assets.AssetManager;
 import com.badlogic.gdx.assets.loaders.FileHandleResolver;
 import com.badlogic.gdx.assets.loaders.SynchronousAssetLoader;
 import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.g2d.freetype.gwt.FreetypeInjector;
 import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.GdxRuntimeException;
 
-/** Makes {@link FreeTypeFontGenerator} managable via {@link AssetManager}.
+/** Makes {@link FreeTypeFontGenerator} managable via {@link AssetManager}. If FreeType is not loaded yet, it is injected and the
+ * asset manager keeps polling this loader until it is, so loading does not block the game.
  * <p>
  * Do
  * {@code assetManager.setLoader(FreeTypeFontGenerator.class, new FreeTypeFontGeneratorLoader(new InternalFileHandleResolver()))}
@@ -41,6 +44,11 @@ public class FreeTypeFontGeneratorLoader extends
 	@Override
 	public FreeTypeFontGenerator load (AssetManager assetManager, String fileName, FileHandle file,
 		FreeTypeFontGeneratorParameters parameter) {
+		if (!FreetypeInjector.isLoaded()) {
+			if (FreetypeInjector.isError()) throw new GdxRuntimeException("Couldn't load FreeType for " + fileName);
+			FreetypeInjector.injectLazily();
+			return null; // Asked again on the next update.
+		}
 		FreeTypeFontGenerator generator = null;
 		if (file.extension().equals("gen")) {
 			generator = new FreeTypeFontGenerator(file.sibling(file.nameWithoutExtension()));
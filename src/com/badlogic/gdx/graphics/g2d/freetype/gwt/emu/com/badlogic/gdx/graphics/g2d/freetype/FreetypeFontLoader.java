@@ -10,12 +10,19 @@ import com.badlogic.gdx.graphics.g2d.BitmapFont;
 import com.badlogic.gdx.graphics.g2d.BitmapFont.BitmapFontData;
 import com.badlogic.gdx.graphics.g2d.freetype.FreeTypeFontGenerator.FreeTypeBitmapFontData;
 import com.badlogic.gdx.graphics.g2d.freetype.FreeTypeFontGenerator.FreeTypeFontParameter;
+import com.badlogic.gdx.graphics.g2d.freetype.FreeTypeFontGenerator.GenerationTask;
 import com.badlogic.gdx.utils.Array;
 
 /**
  * Creates {@link BitmapFont} instances from FreeType font files. Requires a {@link FreeTypeFontLoaderParameter} to be
  * passed to {@link AssetManager#load(String, Class, AssetLoaderParameters)} which specifies the name of the TTF
  * file as well the parameters used to generate the BitmapFont (size, characters, etc.) 
+ * <p>
+ * The font depends on its generator, which {@link FreeTypeFontGeneratorLoader} only loads once FreeType is injected, so fonts
+ * can be queued before FreeType is loaded. 
+ * <p>
+ * The glyphs are generated a few at a time, {@link FreeTypeFontLoaderParameter#millisPerUpdate} per
+ * {@link AssetManager#update()}, so a loading screen keeps rendering. {@link #getProgress()} tells how far the current font is.
  */
 public class FreetypeFontLoader extends AsynchronousAssetLoader<BitmapFont, FreetypeFontLoader.FreeTypeFontLoaderParameter>{
 	public FreetypeFontLoader (FileHandleResolver resolver) {
@@ -27,8 +34,16 @@ public class FreetypeFontLoader extends AsynchronousAssetLoader<BitmapFont, Free
 		public String fontFileName;
 		/** the parameters used to generate the font, e.g. size, characters, etc. **/
 		public FreeTypeFontParameter fontParameters = new FreeTypeFontParameter();
+		/** the milliseconds spent generating glyphs per update of the asset manager, or 0 to generate the whole font at once **/
+		public int millisPerUpdate = 8;
 	}
 
+	private GenerationTask task;
+	// What the task was started for, it is only resumed for the same font, generator and parameters.
+	private String taskFileName;
+	private FreeTypeFontGenerator taskGenerator;
+	private FreeTypeFontParameter taskParameters;
+
 	@Override
 	public void loadAsync (AssetManager manager, String fileName, FileHandle file, FreeTypeFontLoaderParameter parameter) {
 		if(parameter == null) throw new RuntimeException("FreetypeFontParameter must be set in AssetManager#load to point at a TTF file!");		
@@ -38,8 +53,34 @@ public class FreetypeFontLoader extends AsynchronousAssetLoader<BitmapFont, Free
 	public BitmapFont loadSync (AssetManager manager, String fileName, FileHandle file, FreeTypeFontLoaderParameter parameter) {
 		if(parameter == null) throw new RuntimeException("FreetypeFontParameter must be set in AssetManager#load to point at a TTF file!");
 		FreeTypeFontGenerator generator = manager.get(parameter.fontFileName + ".gen", FreeTypeFontGenerator.class);
-		BitmapFont font = generator.generateFont(parameter.fontParameters);
-		return font;
+		// A task left by a load that was unloaded midway may belong to a generator that was disposed since.
+		if (task == null || !fileName.equals(taskFileName) || generator != taskGenerator
+			|| parameter.fontParameters != taskParameters) {
+			task = generator.newGenerationTask(parameter.fontParameters);
+			taskFileName = fileName;
+			taskGenerator = generator;
+			taskParameters = parameter.fontParameters;
+		}
+		boolean pending = false;
+		try {
+			if (task.update(parameter.millisPerUpdate)) return task.getFont();
+			pending = true;
+			return null; // The asset manager calls again on its next update.
+		} finally {
+			// A failed task is not resumed.
+			if (!pending) {
+				task = null;
+				taskFileName = null;
+				taskGenerator = null;
+				taskParameters = null;
+			}
+		}
+	}
+
+	/** @return the fraction of the glyphs of the font being loaded that are generated, between 0 and 1, or 0 if no font is being
+	 *         generated */
+	public float getProgress () {
+		return task == null ? 0 : task.getProgress();
 	}
 
 	@Override
@@ -0,0 +1,237 @@
+/*******************************************************************************
+ * Copyright 2011 See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package com.badlogic.gdx.graphics.g2d.freetype;
+
+import java.io.IOException;
+
+import com.badlogic.gdx.assets.AssetDescriptor;
+import com.badlogic.gdx.assets.AssetLoaderParameters;
+import com.badlogic.gdx.assets.AssetManager;
+import com.badlogic.gdx.assets.loaders.AsynchronousAssetLoader;
+import com.badlogic.gdx.assets.loaders.FileHandleResolver;
+import com.badlogic.gdx.assets.loaders.TextureLoader.TextureParameter;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.Texture.TextureFilter;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.BitmapFont.Glyph;
+import com.badlogic.gdx.graphics.g2d.PixmapPacker.GuillotineStrategy;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.graphics.g2d.freetype.FreeTypeFontGenerator.FreeTypeBitmapFontData;
+import com.badlogic.gdx.graphics.g2d.freetype.FreeTypeFontGenerator.FreeTypeFontParameter;
+import com.badlogic.gdx.graphics.g2d.freetype.FreeTypeFontGenerator.Hinting;
+import com.badlogic.gdx.graphics.g2d.freetype.gwt.FreetypeInjector;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.DataInput;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.StreamUtils;
+
+/** Loads {@link BitmapFont} instances from the glyph tables and page images written by the <tt>bakeFonts</tt> task, without
+ * running FreeType. If a {@link PrebakedFontParameter#fallbackFontFileName} is given, glyphs that were not baked are generated
+ * from that font the first time they are needed. Until FreeType is injected, which is started then, they are drawn as the
+ * missing glyph.
+ * <p>
+ * Do
+ * {@code assetManager.setLoader(BitmapFont.class, ".ftb", new PrebakedFontLoader(new InternalFileHandleResolver()))}
+ * to register it.
+ * </p> */
+public class PrebakedFontLoader extends AsynchronousAssetLoader<BitmapFont, PrebakedFontLoader.PrebakedFontParameter> {
+	/** "GFTB", must match the font baker. */
+	static public final int MAGIC = 0x47465442;
+	static public final int VERSION = 1;
+
+	private PrebakedFontData data;
+
+	public PrebakedFontLoader (FileHandleResolver resolver) {
+		super(resolver);
+	}
+
+	@Override
+	public Array<AssetDescriptor> getDependencies (String fileName, FileHandle file, PrebakedFontParameter parameter) {
+		data = read(file);
+		FreeTypeFontParameter fontParameter = data.parameter;
+		Array<AssetDescriptor> deps = new Array();
+		for (int i = 0; i < data.imagePaths.length; i++) {
+			TextureParameter textureParameter = new TextureParameter();
+			textureParameter.genMipMaps = fontParameter.genMipMaps;
+			textureParameter.minFilter = fontParameter.minFilter;
+			textureParameter.magFilter = fontParameter.magFilter;
+			deps.add(new AssetDescriptor(resolve(data.imagePaths[i]), Texture.class, textureParameter));
+		}
+		return deps;
+	}
+
+	@Override
+	public void loadAsync (AssetManager manager, String fileName, FileHandle file, PrebakedFontParameter parameter) {
+	}
+
+	@Override
+	public BitmapFont loadSync (AssetManager manager, String fileName, FileHandle file, PrebakedFontParameter parameter) {
+		final PrebakedFontData data = this.data;
+		this.data = null;
+		Array<TextureRegion> regions = new Array(data.imagePaths.length);
+		for (int i = 0; i < data.imagePaths.length; i++)
+			regions.add(new TextureRegion(manager.get(data.imagePaths[i], Texture.class)));
+		data.regions = regions;
+		if (parameter != null && parameter.fallbackFontFileName != null)
+			data.fallbackFont = resolve(parameter.fallbackFontFileName);
+		BitmapFont font = new BitmapFont(data, regions, true) {
+			public void dispose () {
+				super.dispose();
+				data.dispose();
+			}
+		};
+		// Tinted glyphs are white, the color is applied at draw time like for generated fonts.
+		if (data.parameter.tint) font.setColor(data.parameter.color);
+		return font;
+	}
+
+	/** Reads a glyph table written by the font baker. The page images are not loaded.
+	 * @param file the .ftb file, the page images are expected next to it */
+	static public PrebakedFontData read (FileHandle file) {
+		DataInput input = new DataInput(file.read());
+		try {
+			if (input.readInt() != MAGIC) throw new GdxRuntimeException("Not a pre-baked font: " + file);
+			int version = input.readInt(true);
+			if (version != VERSION) throw new GdxRuntimeException("Unsupported pre-baked font version " + version + ": " + file);
+
+			PrebakedFontData data = new PrebakedFontData();
+			data.name = input.readString();
+			data.fontFile = file;
+
+			// The parameters the font was baked with, fallback glyphs are generated the same way.
+			FreeTypeFontParameter parameter = new FreeTypeFontParameter();
+			parameter.size = input.readInt(true);
+			parameter.mono = input.readBoolean();
+			parameter.hinting = Hinting.valueOf(input.readString());
+			parameter.color = new Color(input.readInt());
+			parameter.tint = input.readBoolean();
+			parameter.gamma = input.readFloat();
+			parameter.renderCount = input.readInt(true);
+			parameter.borderWidth = input.readFloat();
+			parameter.borderColor = new Color(input.readInt());
+			parameter.borderStraight = input.readBoolean();
+			parameter.borderGamma = input.readFloat();
+			parameter.shadowOffsetX = input.readInt(false);
+			parameter.shadowOffsetY = input.readInt(false);
+			parameter.shadowColor = new Color(input.readInt());
+			parameter.spaceX = input.readInt(false);
+			parameter.spaceY = input.readInt(false);
+			parameter.padTop = input.readInt(true);
+			parameter.padLeft = input.readInt(true);
+			parameter.padBottom = input.readInt(true);
+			parameter.padRight = input.readInt(true);
+			parameter.kerning = input.readBoolean();
+			parameter.flip = input.readBoolean();
+			parameter.genMipMaps = input.readBoolean();
+			parameter.minFilter = TextureFilter.valueOf(input.readString());
+			parameter.magFilter = TextureFilter.valueOf(input.readString());
+			parameter.incremental = true;
+			data.parameter = parameter;
+
+			data.flipped = parameter.flip;
+			data.padTop = input.readFloat();
+			data.padLeft = input.readFloat();
+			data.padBottom = input.readFloat();
+			data.padRight = input.readFloat();
+			data.lineHeight = input.readFloat();
+			data.capHeight = input.readFloat();
+			data.ascent = input.readFloat();
+			data.descent = input.readFloat();
+			data.down = input.readFloat();
+			data.spaceXadvance = input.readFloat();
+			data.xHeight = input.readFloat();
+
+			int pageCount = input.readInt(true);
+			data.imagePaths = new String[pageCount];
+			for (int i = 0; i < pageCount; i++)
+				data.imagePaths[i] = file.parent().child(input.readString()).path().replaceAll("\\\\", "/");
+
+			int missingGlyph = input.readInt(true) - 1;
+			for (int i = 0, n = input.readInt(true); i < n; i++) {
+				Glyph glyph = new Glyph();
+				glyph.id = input.readInt(true);
+				glyph.srcX = input.readInt(true);
+				glyph.srcY = input.readInt(true);
+				glyph.width = input.readInt(true);
+				glyph.height = input.readInt(true);
+				glyph.xoffset = input.readInt(false);
+				glyph.yoffset = input.readInt(false);
+				glyph.xadvance = input.readInt(false);
+				glyph.page = input.readInt(true);
+				for (int ii = 0, nn = input.readInt(true); ii < nn; ii++)
+					glyph.setKerning(input.readInt(true), input.readInt(false));
+				data.setGlyph(glyph.id, glyph);
+				if (glyph.id == missingGlyph) data.missingGlyph = glyph;
+			}
+			return data;
+		} catch (IOException ex) {
+			throw new GdxRuntimeException("Error reading pre-baked font: " + file, ex);
+		} finally {
+			StreamUtils.closeQuietly(input);
+		}
+	}
+
+	/** Font data read from a pre-baked glyph table. Glyphs that were not baked are generated from the fallback font, if any,
+	 * onto pages after the baked ones. */
+	static public class PrebakedFontData extends FreeTypeBitmapFontData {
+		/** The font glyphs missing from the baked pages are generated from, or null. */
+		public FileHandle fallbackFont;
+
+		@Override
+		public Glyph getGlyph (char ch) {
+			Glyph glyph = super.getGlyph(ch);
+			if (glyph == null && generator == null && fallbackFont != null) {
+				if (!FreetypeInjector.isLoaded()) {
+					FreetypeInjector.injectLazily();
+					return null;
+				}
+				startFallback();
+				glyph = super.getGlyph(ch);
+			}
+			return glyph;
+		}
+
+		private void startFallback () {
+			FreeTypeFontGenerator generator = new FreeTypeFontGenerator(fallbackFont);
+			int size = FreeTypeFontGenerator.getMaxTextureSize();
+			if (size <= 0) size = 1024;
+			packer = generator.newPacker(parameter, size, new GuillotineStrategy());
+			stroker = generator.newStroker(parameter);
+			glyphs = new Array();
+			pageOffset = regions.size;
+			this.generator = generator;
+		}
+
+		@Override
+		public void dispose () {
+			super.dispose();
+			if (generator == null) return;
+			// The baked pages belong to the asset manager, the fallback pages to this font.
+			for (int i = pageOffset; i < regions.size; i++)
+				regions.get(i).getTexture().dispose();
+			generator.dispose();
+			generator = null;
+		}
+	}
+
+	static public class PrebakedFontParameter extends AssetLoaderParameters<BitmapFont> {
+		/** The font to generate glyphs from that were not baked, or null to use the missing glyph for them. **/
+		public String fallbackFontFileName;
+	}
+}
@@ -0,0 +1,108 @@
+/*******************************************************************************
+ * Copyright 2011 See AUTHORS file.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+
+package com.badlogic.gdx.graphics.g2d.freetype.gwt.inject;
+
+import java.util.HashMap;
+
+import com.badlogic.gdx.graphics.g2d.freetype.gwt.inject.JsInjector.Injectable;
+import com.google.gwt.core.client.GWT;
+import com.google.gwt.typedarrays.shared.ArrayBuffer;
+import com.google.gwt.xhr.client.ReadyStateChangeHandler;
+import com.google.gwt.xhr.client.XMLHttpRequest;
+import com.google.gwt.xhr.client.XMLHttpRequest.ResponseType;
+
+/** Downloads font files into ArrayBuffers, typically while FreeType is injected, see
+ * {@link com.badlogic.gdx.graphics.g2d.freetype.gwt.FreetypeInjector#inject(OnCompletion, String...)}. Opening a face of a
+ * prefetched file takes its buffer instead of reading the file again. A file that can't be fetched is read as usual later. */
+public class FontPrefetcher implements Injectable {
+	private static final HashMap<String, ArrayBuffer> buffers = new HashMap<String, ArrayBuffer>();
+	private static String baseUrl;
+
+	private final String[] paths;
+	private int pending;
+	private boolean success;
+	private boolean error;
+
+	/** @param paths the paths of the font files, relative to the assets folder like internal file handles, or absolute URLs */
+	public FontPrefetcher (String... paths) {
+		this.paths = paths;
+	}
+
+	@Override
+	public void inject (final OnCompletion oc) {
+		pending = paths.length;
+		if (pending == 0) {
+			success = true;
+			if (oc != null) oc.run();
+			return;
+		}
+		for (final String path : paths) {
+			final String url = getUrl(path);
+			final XMLHttpRequest request = XMLHttpRequest.create();
+			request.open("GET", url);
+			request.setResponseType(ResponseType.ArrayBuffer);
+			request.setOnReadyStateChange(new ReadyStateChangeHandler() {
+				@Override
+				public void onReadyStateChange (XMLHttpRequest xhr) {
+					if (xhr.getReadyState() != XMLHttpRequest.DONE) return;
+					xhr.clearOnReadyStateChange();
+					if (xhr.getStatus() == 200)
+						buffers.put(path, xhr.getResponseArrayBuffer());
+					else {
+						error = true;
+						GWT.log("Couldn't prefetch " + url + ", status " + xhr.getStatus());
+					}
+					if (--pending == 0) {
+						success = !error;
+						if (oc != null) oc.run();
+					}
+				}
+			});
+			request.send();
+		}
+	}
+
+	@Override
+	public boolean isSuccess () {
+		return success;
+	}
+
+	@Override
+	public boolean isError () {
+		return error;
+	}
+
+	/** Removes the prefetched contents of the file and returns them.
+	 * @param path the path the file was prefetched with
+	 * @return null if the file was not prefetched, or was taken already */
+	public static ArrayBuffer take (String path) {
+		return buffers.remove(path);
+	}
+
+	/** Sets the URL relative paths are resolved against. Defaults to the assets folder next to the host page, where the GWT
+	 * backend's preloader loads assets from. */
+	public static void setBaseUrl (String url) {
+		baseUrl = url;
+	}
+
+	private static String getUrl (String path) {
+		if (path.startsWith("/") || path.contains("://")) return path;
+		if (baseUrl == null) baseUrl = GWT.getHostPageBaseURL() + "assets/";
+		return baseUrl + path;
+	}
+}
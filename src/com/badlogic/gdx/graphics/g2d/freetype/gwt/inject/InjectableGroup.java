@@ -0,0 +1,63 @@
+/*******************************************************************************
+ * Copyright 2011 See AUTHORS file.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+
+package com.badlogic.gdx.graphics.g2d.freetype.gwt.inject;
+
+import com.badlogic.gdx.graphics.g2d.freetype.gwt.inject.JsInjector.Injectable;
+
+/** Injects several {@link Injectable}s at once and completes when all of them have, so their downloads overlap. */
+public class InjectableGroup implements Injectable {
+	private final Injectable[] injectables;
+	private int pending;
+
+	public InjectableGroup (Injectable... injectables) {
+		this.injectables = injectables;
+	}
+
+	@Override
+	public void inject (final OnCompletion oc) {
+		pending = injectables.length;
+		if (pending == 0) {
+			if (oc != null) oc.run();
+			return;
+		}
+		OnCompletion completion = new OnCompletion() {
+			@Override
+			public void run () {
+				if (--pending == 0 && oc != null) oc.run();
+			}
+		};
+		for (Injectable injectable : injectables)
+			injectable.inject(completion);
+	}
+
+	/** @return true if all injections succeeded */
+	@Override
+	public boolean isSuccess () {
+		for (Injectable injectable : injectables)
+			if (!injectable.isSuccess()) return false;
+		return true;
+	}
+
+	/** @return true if any injection failed */
+	@Override
+	public boolean isError () {
+		for (Injectable injectable : injectables)
+			if (injectable.isError()) return true;
+		return false;
+	}
+}
@@ -0,0 +1,226 @@
+/*******************************************************************************
+ * Copyright 2011 See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package com.badlogic.gdx.graphics.g2d.freetype.gwt.worker;
+
+import com.badlogic.gdx.graphics.g2d.freetype.FreeType.Face;
+import com.badlogic.gdx.graphics.g2d.freetype.FreeType.RenderedGlyphs;
+import com.badlogic.gdx.graphics.g2d.freetype.gwt.FreetypeInjector;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.IntMap;
+import com.badlogic.gdx.utils.ObjectSet;
+import com.google.gwt.core.client.Callback;
+import com.google.gwt.core.client.GWT;
+import com.google.gwt.core.client.JavaScriptObject;
+import com.google.gwt.typedarrays.shared.ArrayBuffer;
+
+/** Renders glyphs with a copy of the FreeType module running in a Web Worker, so rasterizing doesn't hold up the main thread.
+ * Faces are opened in the worker from the font bytes of faces opened on the main thread, and the bitmaps come back as
+ * transferred buffers. The worker loads the same build as {@link FreetypeInjector}, which has to be loaded first. See
+ * freetype-worker.js in the public folder for the protocol.
+ * <p>
+ * Requests are answered in order. If the worker can't be started or fails, all pending and later requests fail. */
+public class FreeTypeWorker implements GlyphRenderer, Disposable {
+	private static FreeTypeWorker shared;
+
+	private final JavaScriptObject worker;
+	private final IntMap<Callback<JavaScriptObject, String>> callbacks = new IntMap<Callback<JavaScriptObject, String>>();
+	// Keys of the faces opened in the worker, see Face#getDataDigest().
+	private final ObjectSet<String> faces = new ObjectSet<String>();
+	private int nextId;
+	private String failure;
+
+	/** Starts a worker and loads FreeType in it. Requests can be made right away, they are answered once it is loaded. */
+	public FreeTypeWorker () {
+		if (!FreetypeInjector.isLoaded())
+			throw new IllegalStateException("FreeType is not loaded yet, wait for FreetypeInjector.inject() to complete.");
+		worker = create(GWT.getModuleBaseForStaticFiles() + "freetype-worker.js");
+		post(init(FreetypeInjector.getScriptUrl(), FreetypeInjector.getModule()), new Callback<JavaScriptObject, String>() {
+			@Override
+			public void onSuccess (JavaScriptObject reply) {
+			}
+
+			@Override
+			public void onFailure (String reason) {
+				fail(reason);
+			}
+		});
+	}
+
+	/** @return the worker shared by generators that are not given one, started on first use */
+	public static FreeTypeWorker getShared () {
+		if (shared == null) shared = new FreeTypeWorker();
+		return shared;
+	}
+
+	/** @return true if the browser can run workers */
+	public static native boolean isSupported ()/*-{
+		return typeof $wnd.Worker === "function";
+	}-*/;
+
+	/** Renders the characters in the worker. The rendered glyphs' pixels are not on the FreeType heap. */
+	@Override
+	public void renderGlyphs (Face face, int size, int[] charCodes, int loadFlags, int renderMode,
+		final Callback<RenderedGlyphs, String> callback) {
+		String key = openFace(face);
+		post(renderRequest(key, size, charCodes, loadFlags, renderMode), new Callback<JavaScriptObject, String>() {
+			@Override
+			public void onSuccess (JavaScriptObject reply) {
+				int[] table = new int[tableLength(reply)];
+				readTable(reply, table);
+				callback.onSuccess(new RenderedGlyphs(table, pixels(reply)));
+			}
+
+			@Override
+			public void onFailure (String reason) {
+				callback.onFailure(reason);
+			}
+		});
+	}
+
+	/** Opens the face in the worker, if it isn't already. Faces of the same font data and index are opened once.
+	 * @return the key of the face in the worker */
+	String openFace (Face face) {
+		String key = face.getDataDigest();
+		if (!faces.contains(key)) openFace(key, face.getData(), face.getFaceIndex());
+		return key;
+	}
+
+	/** Opens a face in the worker from font data that may be shared with other workers.
+	 * @param data an ArrayBuffer, which is copied, or a SharedArrayBuffer */
+	void openFace (String key, Object data, int faceIndex) {
+		faces.add(key);
+		post(openRequest(key, data, faceIndex), null);
+	}
+
+	boolean hasFace (String key) {
+		return faces.contains(key);
+	}
+
+	/** Closes the face in the worker. Faces opened from the same font data share the worker's face. */
+	@Override
+	public void closeFace (Face face) {
+		String key = face.getDataDigest();
+		if (faces.remove(key)) post(closeRequest(key), null);
+	}
+
+	/** Terminates the worker. Pending requests fail. */
+	@Override
+	public void dispose () {
+		terminate(worker);
+		fail("The worker was disposed.");
+		if (shared == this) shared = null;
+	}
+
+	/** Sends a request. Without a callback, failures are only logged. */
+	private void post (JavaScriptObject request, Callback<JavaScriptObject, String> callback) {
+		int id = ++nextId;
+		if (failure != null) {
+			if (callback != null) callback.onFailure(failure);
+			return;
+		}
+		if (callback != null) callbacks.put(id, callback);
+		post(worker, id, request);
+	}
+
+	private void received (JavaScriptObject reply) {
+		int id = getId(reply);
+		String error = getError(reply);
+		Callback<JavaScriptObject, String> callback = callbacks.remove(id);
+		if (error != null) {
+			if (callback != null)
+				callback.onFailure(error);
+			else
+				GWT.log("FreeType worker: " + error);
+		} else if (callback != null) callback.onSuccess(reply);
+	}
+
+	private void fail (String reason) {
+		if (failure != null) return;
+		failure = reason;
+		GWT.log("FreeType worker failed: " + reason);
+		for (Callback<JavaScriptObject, String> callback : callbacks.values().toArray())
+			callback.onFailure(reason);
+		callbacks.clear();
+		faces.clear();
+	}
+
+	private native JavaScriptObject create (String url)/*-{
+		var self = this;
+		var worker = new $wnd.Worker(url);
+		worker.onmessage = $entry(function (event) {
+			self.@com.badlogic.gdx.graphics.g2d.freetype.gwt.worker.FreeTypeWorker::received(Lcom/google/gwt/core/client/JavaScriptObject;)(event.data);
+		});
+		worker.onerror = $entry(function (event) {
+			if (event.preventDefault) event.preventDefault();
+			self.@com.badlogic.gdx.graphics.g2d.freetype.gwt.worker.FreeTypeWorker::fail(Ljava/lang/String;)(event.message || "Error in " + url);
+		});
+		return worker;
+	}-*/;
+
+	private static native void post (JavaScriptObject worker, int id, JavaScriptObject request)/*-{
+		request.id = id;
+		var transfer = request.transfer || [];
+		delete request.transfer;
+		worker.postMessage(request, transfer);
+	}-*/;
+
+	private static native void terminate (JavaScriptObject worker)/*-{
+		worker.terminate();
+	}-*/;
+
+	private static native JavaScriptObject init (String script, JavaScriptObject module)/*-{
+		return {type: "init", script: script, module: module};
+	}-*/;
+
+	// The font data is copied to the worker, not transferred, so it can be sent to other workers as well.
+	private static native JavaScriptObject openRequest (String key, Object data, int faceIndex)/*-{
+		return {type: "openFace", key: key, data: data, faceIndex: faceIndex};
+	}-*/;
+
+	private static native JavaScriptObject closeRequest (String key)/*-{
+		return {type: "closeFace", key: key};
+	}-*/;
+
+	private static native JavaScriptObject renderRequest (String key, int size, int[] charCodes, int loadFlags,
+		int renderMode)/*-{
+		var codes = new Int32Array(charCodes);
+		return {type: "renderGlyphs", key: key, size: size, charCodes: codes, loadFlags: loadFlags, renderMode: renderMode,
+			transfer: [codes.buffer]};
+	}-*/;
+
+	private static native int getId (JavaScriptObject reply)/*-{
+		return reply.id;
+	}-*/;
+
+	private static native String getError (JavaScriptObject reply)/*-{
+		return reply.error === undefined ? null : reply.error;
+	}-*/;
+
+	private static native int tableLength (JavaScriptObject reply)/*-{
+		return reply.table.length;
+	}-*/;
+
+	private static native void readTable (JavaScriptObject reply, int[] out)/*-{
+		var table = reply.table;
+		for (var i = 0, n = table.length; i < n; i++)
+			out[i] = table[i];
+	}-*/;
+
+	private static native ArrayBuffer pixels (JavaScriptObject reply)/*-{
+		return reply.pixels;
+	}-*/;
+}
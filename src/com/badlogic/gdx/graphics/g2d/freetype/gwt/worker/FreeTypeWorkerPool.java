@@ -0,0 +1,200 @@
+/*******************************************************************************
+ * Copyright 2011 See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package com.badlogic.gdx.graphics.g2d.freetype.gwt.worker;
+
+import com.badlogic.gdx.graphics.g2d.freetype.FreeType.Bitmap;
+import com.badlogic.gdx.graphics.g2d.freetype.FreeType.Face;
+import com.badlogic.gdx.graphics.g2d.freetype.FreeType.RenderedGlyphs;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Disposable;
+import com.google.gwt.core.client.Callback;
+import com.google.gwt.typedarrays.shared.ArrayBuffer;
+
+/** Renders glyphs with several {@link FreeTypeWorker}s at once. The characters of a request are dealt out to the workers in
+ * turn, so each gets a similar mix of tall and short glyphs, and the results are merged back into the order of the request.
+ * The merged glyphs are the same as one worker renders, so fonts are packed the same no matter how many workers there are.
+ * <p>
+ * Each worker keeps its own copy of the font data. Where the page is cross-origin isolated, the data is posted to all workers
+ * as one SharedArrayBuffer instead of being copied for each. */
+public class FreeTypeWorkerPool implements GlyphRenderer, Disposable {
+	/** Requests with fewer characters per worker than this are split across fewer workers. */
+	static private final int MIN_PARTITION = 16;
+	static private final int MAX_WORKERS = 8;
+
+	private static FreeTypeWorkerPool shared;
+
+	private final FreeTypeWorker[] workers;
+	// Requests in the order they were made, answered from the front as they complete.
+	private final Array<Request> requests = new Array<Request>();
+	private int nextWorker;
+
+	/** Starts one worker per core, but at most 8. */
+	public FreeTypeWorkerPool () {
+		this(Math.min(getHardwareConcurrency(), MAX_WORKERS));
+	}
+
+	/** Starts the workers, which load FreeType right away. */
+	public FreeTypeWorkerPool (int size) {
+		if (size < 1) throw new IllegalArgumentException("size must be at least 1: " + size);
+		workers = new FreeTypeWorker[size];
+		for (int i = 0; i < size; i++)
+			workers[i] = new FreeTypeWorker();
+	}
+
+	/** @return the pool shared by generators that are not given a renderer, started on first use */
+	public static FreeTypeWorkerPool getShared () {
+		if (shared == null) shared = new FreeTypeWorkerPool();
+		return shared;
+	}
+
+	/** @return the number of workers */
+	public int getSize () {
+		return workers.length;
+	}
+
+	@Override
+	public void renderGlyphs (Face face, int size, int[] charCodes, int loadFlags, int renderMode,
+		Callback<RenderedGlyphs, String> callback) {
+		int count = charCodes.length;
+		int partitions = Math.max(1, Math.min(workers.length, count / MIN_PARTITION));
+		openFace(face, partitions);
+
+		final Request request = new Request(callback, count, partitions);
+		requests.add(request);
+		for (int p = 0; p < partitions; p++) {
+			int[] partition = new int[(count - p + partitions - 1) / partitions];
+			for (int i = p, ii = 0; i < count; i += partitions, ii++)
+				partition[ii] = charCodes[i];
+			final int index = p;
+			FreeTypeWorker worker = workers[(nextWorker + p) % workers.length];
+			worker.renderGlyphs(face, size, partition, loadFlags, renderMode, new Callback<RenderedGlyphs, String>() {
+				@Override
+				public void onSuccess (RenderedGlyphs rendered) {
+					request.parts[index] = rendered;
+					request.remaining--;
+					answer();
+				}
+
+				@Override
+				public void onFailure (String reason) {
+					if (request.failure == null) request.failure = reason;
+					request.remaining--;
+					answer();
+				}
+			});
+		}
+		nextWorker = (nextWorker + partitions) % workers.length;
+	}
+
+	/** Opens the face in the workers that will be used and don't have it yet, sharing one copy of the font data if possible. */
+	private void openFace (Face face, int partitions) {
+		String key = face.getDataDigest();
+		Object data = null;
+		for (int p = 0; p < partitions; p++) {
+			FreeTypeWorker worker = workers[(nextWorker + p) % workers.length];
+			if (worker.hasFace(key)) continue;
+			if (data == null) data = share(face.getData());
+			worker.openFace(key, data, face.getFaceIndex());
+		}
+	}
+
+	/** Answers the completed requests at the front, so requests are answered in order even if a later one finishes first. */
+	private void answer () {
+		while (requests.size > 0 && requests.first().remaining == 0) {
+			Request request = requests.removeIndex(0);
+			if (request.failure != null)
+				request.callback.onFailure(request.failure);
+			else
+				request.callback.onSuccess(merge(request));
+		}
+	}
+
+	/** Interleaves the tables of the parts back into the order of the request and concatenates their pixels. */
+	private RenderedGlyphs merge (Request request) {
+		RenderedGlyphs[] parts = request.parts;
+		int partitions = parts.length;
+		if (partitions == 1) return parts[0];
+		int stride = RenderedGlyphs.STRIDE;
+		int[] table = new int[request.count * stride];
+		int[] offsets = new int[partitions];
+		ArrayBuffer[] buffers = new ArrayBuffer[partitions];
+		for (int p = 0, offset = 0; p < partitions; p++) {
+			offsets[p] = offset;
+			buffers[p] = parts[p].getPixels();
+			offset += buffers[p].byteLength();
+		}
+		for (int i = 0; i < request.count; i++) {
+			int p = i % partitions, row = i * stride;
+			System.arraycopy(parts[p].getTable(), (i / partitions) * stride, table, row, stride);
+			table[row + Bitmap.HEADER_BUFFER_ADDRESS] += offsets[p];
+		}
+		return new RenderedGlyphs(table, concat(buffers));
+	}
+
+	@Override
+	public void closeFace (Face face) {
+		for (FreeTypeWorker worker : workers)
+			worker.closeFace(face);
+	}
+
+	/** Terminates the workers. Pending requests fail. */
+	@Override
+	public void dispose () {
+		for (FreeTypeWorker worker : workers)
+			worker.dispose();
+		if (shared == this) shared = null;
+	}
+
+	private static native int getHardwareConcurrency ()/*-{
+		return Math.max(1, $wnd.navigator.hardwareConcurrency || 1);
+	}-*/;
+
+	/** Copies the data to a SharedArrayBuffer where the page may use them, else returns it as is. */
+	private static native Object share (ArrayBuffer data)/*-{
+		if (typeof $wnd.SharedArrayBuffer !== "function" || !$wnd.crossOriginIsolated) return data;
+		var shared = new $wnd.SharedArrayBuffer(data.byteLength);
+		new Uint8Array(shared).set(new Uint8Array(data));
+		return shared;
+	}-*/;
+
+	private static native ArrayBuffer concat (ArrayBuffer[] buffers)/*-{
+		var length = 0;
+		for (var i = 0; i < buffers.length; i++)
+			length += buffers[i].byteLength;
+		var bytes = new Uint8Array(length);
+		for (var i = 0, offset = 0; i < buffers.length; i++) {
+			bytes.set(new Uint8Array(buffers[i]), offset);
+			offset += buffers[i].byteLength;
+		}
+		return bytes.buffer;
+	}-*/;
+
+	static private class Request {
+		final Callback<RenderedGlyphs, String> callback;
+		final int count;
+		final RenderedGlyphs[] parts;
+		int remaining;
+		String failure;
+
+		Request (Callback<RenderedGlyphs, String> callback, int count, int partitions) {
+			this.callback = callback;
+			this.count = count;
+			parts = new RenderedGlyphs[partitions];
+			remaining = partitions;
+		}
+	}
+}
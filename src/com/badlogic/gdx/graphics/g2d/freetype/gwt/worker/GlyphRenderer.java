@@ -0,0 +1,35 @@
+/*******************************************************************************
+ * Copyright 2011 See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package com.badlogic.gdx.graphics.g2d.freetype.gwt.worker;
+
+import com.badlogic.gdx.graphics.g2d.freetype.FreeType.Face;
+import com.badlogic.gdx.graphics.g2d.freetype.FreeType.RenderedGlyphs;
+import com.google.gwt.core.client.Callback;
+
+/** Renders glyphs off the main thread, see {@link FreeTypeWorker} and {@link FreeTypeWorkerPool}. */
+public interface GlyphRenderer {
+	/** Renders the characters like {@link Face#renderGlyphs(int[], int, int)}, opening the face first if needed. Requests are
+	 * answered in the order they were made.
+	 * @param size the pixel height
+	 * @param callback gets the rendered glyphs, in the order of the char codes */
+	public void renderGlyphs (Face face, int size, int[] charCodes, int loadFlags, int renderMode,
+		Callback<RenderedGlyphs, String> callback);
+
+	/** Closes the face, freeing the renderer's copy of the font data. Glyphs of the face that are still pending are rendered
+	 * first. */
+	public void closeFace (Face face);
+}
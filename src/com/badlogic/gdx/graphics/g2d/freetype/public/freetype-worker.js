@@ -0,0 +1,240 @@
+/*******************************************************************************
+ * Copyright 2011 See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+/* Runs a FreeType module of emscripten/build.sh in a worker for FreeTypeWorker.java. Every request is an object with an id and
+ * a type, and is answered in order by an object with the same id and either the results or an error message:
+ *
+ *   init         {script, module}             Browser only, has to come first: loads the FreeType script, instantiating the
+ *                                             compiled WebAssembly module if one is given. Answered once FreeType runs.
+ *   openFace     {key, data, faceIndex}       Opens a face from the font bytes (an ArrayBuffer or SharedArrayBuffer) under key.
+ *   closeFace    {key}                        Closes the face and frees its bytes.
+ *   renderGlyphs {key, size, charCodes,       Renders the characters of an Int32Array at the pixel size, like
+ *                 loadFlags, renderMode}      FreeType.Face#renderGlyphs(), and answers {table, pixels}: STRIDE ints per
+ *                                             character in an Int32Array, and the bitmaps in one ArrayBuffer. Both are
+ *                                             transferred.
+ *
+ * The same file runs under Node's worker_threads, where it exports the protocol instead of waiting for init, see listen(). */
+(function () {
+	"use strict";
+
+	/* Ints per character in a renderGlyphs answer, the layout of FreeType.RenderedGlyphs: rows, width, pitch, offset of the
+	 * bitmap in pixels, number of grays, pixel mode, left, top, horizontal advance, height, and 1 if the glyph was rendered. */
+	var STRIDE = 11;
+
+	/* Returns a function that handles one request with the given FreeType module and returns {reply, transfer}. */
+	function createHandler (Module) {
+		var library = 0;
+		var faces = {};
+
+		function getFace (key) {
+			var face = faces[key];
+			if (!face) throw new Error("No face opened as " + key);
+			return face;
+		}
+
+		var handlers = {
+			openFace: function (request) {
+				if (faces[request.key]) return {};
+				if (!library) {
+					library = Module._c_FreeType_initFreeTypeJni();
+					if (!library) throw new Error("Couldn't initialize FreeType library, FreeType error code: "
+						+ Module._c_FreeType_getLastErrorCode());
+				}
+				var data = new Uint8Array(request.data);
+				var address = Module._malloc(data.length);
+				if (!address) throw new Error("Couldn't allocate " + data.length + " bytes for the font");
+				Module.HEAPU8.set(data, address);
+				var face = Module._c_Library_newMemoryFace(library, address, data.length, request.faceIndex);
+				if (!face) {
+					Module._free(address);
+					throw new Error("Couldn't load font, FreeType error code: " + Module._c_FreeType_getLastErrorCode());
+				}
+				faces[request.key] = {address: face, data: address};
+				return {};
+			},
+
+			closeFace: function (request) {
+				var face = faces[request.key];
+				if (!face) return {};
+				delete faces[request.key];
+				Module._c_Face_doneFace(face.address);
+				Module._free(face.data);
+				return {};
+			},
+
+			renderGlyphs: function (request) {
+				var face = getFace(request.key).address;
+				if (!Module._c_Face_setPixelSizes(face, 0, request.size)) throw new Error("Couldn't set size for font");
+				var charCodes = request.charCodes, loadFlags = request.loadFlags, renderMode = request.renderMode;
+				var n = charCodes.length;
+				var table = new Int32Array(n * STRIDE);
+				var pixels = new Uint8Array(4096), size = 0;
+				for (var i = 0; i < n; i++) {
+					var c = charCodes[i], row = i * STRIDE;
+					if (c != 0 && Module._c_Face_getCharIndex(face, c) == 0) continue;
+					if (!Module._c_Face_loadChar(face, c, loadFlags)) continue;
+					var slot = Module._c_Face_getGlyph(face);
+					if (!Module._c_GlyphSlot_renderGlyph(slot, renderMode)) continue;
+					// The heap is fetched after the calls, which can grow it. Offsets mirror FreeType.java's struct reads.
+					var heap32 = Module.HEAP32, heapU8 = Module.HEAPU8, p = slot >> 2, bitmap = slot + 76, b = bitmap >> 2;
+					var rows = heap32[b], pitch = Math.abs(heap32[b + 2]), buffer = heap32[b + 3];
+					table[row] = rows;
+					table[row + 1] = heap32[b + 1];
+					table[row + 2] = pitch;
+					table[row + 3] = size;
+					table[row + 4] = Module.HEAPU16[(bitmap + 16) >> 1];
+					table[row + 5] = heapU8[bitmap + 18];
+					table[row + 6] = heap32[p + 25]; // bitmap_left
+					table[row + 7] = heap32[p + 26]; // bitmap_top
+					table[row + 8] = heap32[p + 10]; // metrics.horiAdvance
+					table[row + 9] = heap32[p + 7]; // metrics.height
+					table[row + 10] = 1;
+					var length = rows * pitch;
+					if (size + length > pixels.length) {
+						var grown = new Uint8Array(Math.max(pixels.length * 2, size + length));
+						grown.set(pixels.subarray(0, size));
+						pixels = grown;
+					}
+					pixels.set(heapU8.subarray(buffer, buffer + length), size);
+					size += length;
+				}
+				// Only the used part is sent, the copy is cheap next to the rendering.
+				var sent = pixels.slice(0, size).buffer;
+				return {table: table, pixels: sent, transfer: [table.buffer, sent]};
+			}
+		};
+
+		return function (request) {
+			var handler = handlers[request.type];
+			var result;
+			try {
+				if (!handler) throw new Error("Unknown request type: " + request.type);
+				result = handler(request);
+			} catch (e) {
+				return {reply: {id: request.id, error: "" + (e && e.message ? e.message : e)}, transfer: []};
+			}
+			var transfer = result.transfer || [];
+			delete result.transfer;
+			result.id = request.id;
+			return {reply: result, transfer: transfer};
+		};
+	}
+
+	/* Calls back once the Emscripten runtime of the module is initialized. */
+	function whenReady (Module, callback) {
+		if (Module.calledRun) {
+			callback();
+			return;
+		}
+		var initialized = Module.onRuntimeInitialized;
+		Module.onRuntimeInitialized = function () {
+			if (initialized) initialized();
+			callback();
+		};
+	}
+
+	/* Answers the requests of a port with postMessage(message, transfer), such as a worker_threads parentPort or a
+	 * MessageChannel port. Requests that arrive before the module is ready are queued.
+	 * @return the function that receives a request */
+	function listen (post, Module) {
+		var handle = null, queue = [];
+		function receive (request) {
+			if (!handle) {
+				queue.push(request);
+				return;
+			}
+			var result = handle(request);
+			post(result.reply, result.transfer);
+		}
+		whenReady(Module, function () {
+			handle = createHandler(Module);
+			for (var i = 0; i < queue.length; i++)
+				receive(queue[i]);
+			queue = null;
+		});
+		return receive;
+	}
+
+	if (typeof module === "object" && module.exports) {
+		module.exports = {STRIDE: STRIDE, createHandler: createHandler, whenReady: whenReady, listen: listen};
+		// Started as a worker with workerData.freetype naming a Node build of FreeType, serve the parent right away.
+		var threads = require("worker_threads");
+		if (!threads.isMainThread && threads.workerData && threads.workerData.freetype) {
+			var port = threads.parentPort;
+			var receive = listen(function (message, transfer) {
+				port.postMessage(message, transfer);
+			}, require(threads.workerData.freetype));
+			port.on("message", receive);
+		}
+		return;
+	}
+
+	if (typeof importScripts !== "function") return;
+
+	// Browser worker: everything waits for init, which loads the FreeType script.
+	var pending = [], receive = null, failure = null;
+	function post (message, transfer) {
+		self.postMessage(message, transfer);
+	}
+	function fail (request, reason) {
+		failure = reason;
+		post({id: request.id, error: reason}, []);
+		for (var i = 0; i < pending.length; i++)
+			post({id: pending[i].id, error: reason}, []);
+		pending = [];
+	}
+	self.onmessage = function (event) {
+		var request = event.data;
+		if (failure) {
+			post({id: request.id, error: failure}, []);
+			return;
+		}
+		if (receive) {
+			receive(request);
+			return;
+		}
+		if (request.type != "init") {
+			pending.push(request);
+			return;
+		}
+		var compiled = request.module;
+		self.Module = {};
+		if (compiled) {
+			self.Module.instantiateWasm = function (imports, receiveInstance) {
+				WebAssembly.instantiate(compiled, imports).then(function (instance) {
+					receiveInstance(instance, compiled);
+				}, function (reason) {
+					fail(request, "Couldn't instantiate FreeType: " + reason);
+				});
+				return {};
+			};
+		}
+		try {
+			importScripts(request.script);
+		} catch (e) {
+			fail(request, "Couldn't load " + request.script + ": " + (e && e.message ? e.message : e));
+			return;
+		}
+		// Registered first so init is answered before the queued requests.
+		whenReady(self.Module, function () {
+			post({id: request.id}, []);
+		});
+		receive = listen(post, self.Module);
+		for (var i = 0; i < pending.length; i++)
+			receive(pending[i]);
+		pending = [];
+	};
+})();
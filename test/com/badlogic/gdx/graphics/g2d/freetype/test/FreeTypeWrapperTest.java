@@ -0,0 +1,154 @@
+/*******************************************************************************
+ * Copyright 2011 See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package com.badlogic.gdx.graphics.g2d.freetype.test;
+
+import com.badlogic.gdx.graphics.g2d.freetype.FreeType;
+import com.badlogic.gdx.graphics.g2d.freetype.FreeType.Bitmap;
+import com.badlogic.gdx.graphics.g2d.freetype.FreeType.Face;
+import com.badlogic.gdx.graphics.g2d.freetype.FreeType.Glyph;
+import com.badlogic.gdx.graphics.g2d.freetype.FreeType.GlyphMetrics;
+import com.badlogic.gdx.graphics.g2d.freetype.FreeType.GlyphSlot;
+import com.badlogic.gdx.graphics.g2d.freetype.FreeType.Library;
+import com.badlogic.gdx.graphics.g2d.freetype.FreeType.Size;
+import com.badlogic.gdx.graphics.g2d.freetype.FreeType.SizeMetrics;
+import com.badlogic.gdx.graphics.g2d.freetype.gwt.FreetypeInjector;
+import com.badlogic.gdx.graphics.g2d.freetype.gwt.inject.OnCompletion;
+import com.google.gwt.core.client.GWT;
+import com.google.gwt.junit.client.GWTTestCase;
+import com.google.gwt.typedarrays.shared.Int8Array;
+import com.google.gwt.typedarrays.shared.TypedArrays;
+import com.google.gwt.xhr.client.ReadyStateChangeHandler;
+import com.google.gwt.xhr.client.XMLHttpRequest;
+import com.google.gwt.xhr.client.XMLHttpRequest.ResponseType;
+
+/** Checks that the wrappers of FreeType structs are owned by their face and reused, so loading and rendering glyphs doesn't
+ * allocate them again for every glyph. */
+public class FreeTypeWrapperTest extends GWTTestCase {
+	static private final String FONT = "DejaVuSansMono.ttf";
+
+	@Override
+	public String getModuleName () {
+		return "com.badlogic.gdx.graphics.g2d.freetype.FreeTypeTest";
+	}
+
+	public void testWrappersAreReused () {
+		delayTestFinish(60000);
+		FreetypeInjector.inject(new OnCompletion() {
+			@Override
+			public void run () {
+				download(FONT, new FontListener() {
+					@Override
+					public void loaded (byte[] data) {
+						Library library = FreeType.initFreeType();
+						try {
+							Face face = library.newMemoryFace(data, data.length, 0);
+							try {
+								checkWrappers(face);
+								checkWrappersAcrossGlyphs(face);
+							} finally {
+								face.dispose();
+							}
+						} finally {
+							library.dispose();
+						}
+						finishTest();
+					}
+				});
+			}
+		});
+	}
+
+	private void checkWrappers (Face face) {
+		assertTrue(face.setPixelSizes(0, 16));
+		Size size = face.getSize();
+		SizeMetrics sizeMetrics = size.getMetrics();
+		renderChar(face, 'A');
+		GlyphSlot slot = face.getGlyph();
+		GlyphMetrics metrics = slot.getMetrics();
+		Bitmap bitmap = slot.getBitmap();
+		int width = bitmap.getWidth();
+
+		assertTrue(face.setPixelSizes(0, 32));
+		renderChar(face, 'B');
+		assertSame(slot, face.getGlyph());
+		assertSame(size, face.getSize());
+		assertSame(sizeMetrics, face.getSize().getMetrics());
+		assertSame(metrics, face.getGlyph().getMetrics());
+		assertSame(bitmap, face.getGlyph().getBitmap());
+		// The reused wrappers read the struct of the latest glyph.
+		assertTrue(bitmap.getWidth() > width);
+	}
+
+	/** Goes through the calls FreeTypeFontGenerator#createGlyph makes for each character, none of which may hand out a new
+	 * wrapper. Only the FT_Glyph copies are new, as they are owned and disposed by the caller. */
+	private void checkWrappersAcrossGlyphs (Face face) {
+		assertTrue(face.setPixelSizes(0, 24));
+		GlyphSlot slot = face.getGlyph();
+		GlyphMetrics metrics = slot.getMetrics();
+		Size size = face.getSize();
+		SizeMetrics sizeMetrics = size.getMetrics();
+		String characters = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789";
+		for (int pass = 0; pass < 2; pass++) {
+			for (int i = 0; i < characters.length(); i++) {
+				assertTrue(face.loadChar(characters.charAt(i), FreeType.FT_LOAD_DEFAULT));
+				assertSame(slot, face.getGlyph());
+				assertSame(metrics, slot.getMetrics());
+				assertSame(size, face.getSize());
+				assertSame(sizeMetrics, size.getMetrics());
+				Glyph glyph = slot.getGlyph();
+				try {
+					glyph.toBitmap(FreeType.FT_RENDER_MODE_NORMAL);
+					Bitmap bitmap = glyph.getBitmap();
+					assertSame(bitmap, glyph.getBitmap());
+					assertTrue(bitmap.getRows() > 0);
+				} finally {
+					glyph.dispose();
+				}
+			}
+		}
+	}
+
+	private static void renderChar (Face face, char c) {
+		assertTrue(face.loadChar(c, FreeType.FT_LOAD_DEFAULT));
+		assertTrue(face.getGlyph().renderGlyph(FreeType.FT_RENDER_MODE_NORMAL));
+	}
+
+	/** Downloads a file of the test module's public path. */
+	private static void download (final String path, final FontListener listener) {
+		final String url = GWT.getModuleBaseForStaticFiles() + path;
+		XMLHttpRequest request = XMLHttpRequest.create();
+		request.open("GET", url);
+		request.setResponseType(ResponseType.ArrayBuffer);
+		request.setOnReadyStateChange(new ReadyStateChangeHandler() {
+			@Override
+			public void onReadyStateChange (XMLHttpRequest xhr) {
+				if (xhr.getReadyState() != XMLHttpRequest.DONE) return;
+				assertEquals("Couldn't download " + url, 200, xhr.getStatus());
+				Int8Array bytes = TypedArrays.createInt8Array(xhr.getResponseArrayBuffer());
+				byte[] data = new byte[bytes.length()];
+				for (int i = 0; i < data.length; i++)
+					data[i] = bytes.get(i);
+				listener.loaded(data);
+			}
+		});
+		request.send();
+	}
+
+	private interface FontListener {
+		void loaded (byte[] data);
+	}
+}